@@ -0,0 +1,122 @@
+package com.botfutbol.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generador de chats sintéticos de WhatsApp para los benchmarks.
+ * La semilla es fija para que cada corrida parsee exactamente las mismas líneas.
+ */
+public final class ChatCorpus {
+
+    /**
+     * Tipos de línea que se pueden generar
+     */
+    public enum Kind {
+        /** "[HH:MM, DD/MM/YYYY] Nombre: mensaje" */
+        TIMESTAMPED,
+        /** "Nombre: mensaje" */
+        SIMPLE,
+        /** "1. Nombre" */
+        NUMBERED,
+        /** Líneas con emoji, caracteres invisibles, encabezados y texto libre */
+        NOISY,
+        /** Mezcla de todos los anteriores en proporciones de un chat real */
+        MIXED
+    }
+
+    private static final String[] FIRST_NAMES = {
+        "Juan", "Flavio", "Ana", "Pedro", "Lucas", "Martín", "Diego", "Pablo", "José", "Nicolás",
+        "Santiago", "Matías", "Facundo", "Tomás", "Agustín", "Gonzalo", "Iñaki", "Sofía", "Valentina", "Ramiro"
+    };
+    private static final String[] LAST_NAMES = {
+        "Gómez", "Pérez", "López", "Díaz", "Ruiz", "Fernández", "Martínez", "Sosa", "Romero", "Álvarez"
+    };
+    private static final String[] MESSAGES = {
+        "voy", "me anoto", "+1", "confirmo", "pagué", "ya está la transferencia", "pago 7000",
+        "hola a todos", "a qué hora es?", "llego tarde", "no puedo esta semana", "cuenta conmigo"
+    };
+    private static final String[] NOISE = {
+        "\u200B", "\u200D", "\uFEFF", "\u2060", "\uD83D\uDE00", "\u26BD", "\uD83D\uDC4D", "  ", "\t"
+    };
+
+    private ChatCorpus() {}
+
+    /**
+     * Genera count líneas del tipo indicado.
+     */
+    static List<String> lines(Kind kind, int count) {
+        Random random = new Random(42);
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Kind lineKind = kind == Kind.MIXED ? mixedKind(random) : kind;
+            lines.add(line(lineKind, i, random));
+        }
+        return lines;
+    }
+
+    /**
+     * Genera un chat completo (líneas separadas por '\n').
+     */
+    static String text(Kind kind, int count) {
+        return String.join("\n", lines(kind, count));
+    }
+
+    /**
+     * Nombres de jugadores posibles en los chats generados.
+     */
+    static List<String> playerNames() {
+        List<String> names = new ArrayList<>();
+        for (String first : FIRST_NAMES) {
+            for (String last : LAST_NAMES) {
+                names.add(first + " " + last);
+            }
+        }
+        return names;
+    }
+
+    private static Kind mixedKind(Random random) {
+        int roll = random.nextInt(100);
+        if (roll < 60) return Kind.TIMESTAMPED;
+        if (roll < 75) return Kind.NUMBERED;
+        if (roll < 85) return Kind.SIMPLE;
+        return Kind.NOISY;
+    }
+
+    private static String line(Kind kind, int index, Random random) {
+        String name = name(random);
+        String message = MESSAGES[random.nextInt(MESSAGES.length)];
+        switch (kind) {
+            case TIMESTAMPED:
+                return String.format("[%02d:%02d, %d/%d/2024] %s: %s",
+                        random.nextInt(24), random.nextInt(60), 1 + random.nextInt(28), 1 + random.nextInt(12),
+                        name, message);
+            case SIMPLE:
+                return name + ": " + message;
+            case NUMBERED:
+                return (1 + index % 30) + ". " + name;
+            default:
+                return noisy(name, message, random);
+        }
+    }
+
+    private static String noisy(String name, String message, Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return NOISE[random.nextInt(NOISE.length)] + "[20:15, 3/3/2024] " + name
+                        + NOISE[random.nextInt(NOISE.length)] + ": " + message + " " + NOISE[random.nextInt(NOISE.length)];
+            case 1:
+                return "*LUNES " + (18 + random.nextInt(5)) + " HS*";
+            case 2:
+                return (1 + random.nextInt(20)) + ") " + name + " " + NOISE[random.nextInt(NOISE.length)];
+            default:
+                return NOISE[random.nextInt(NOISE.length)] + " " + message + " " + NOISE[random.nextInt(NOISE.length)];
+        }
+    }
+
+    private static String name(Random random) {
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        return random.nextInt(3) == 0 ? first : first + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+}
@@ -0,0 +1,120 @@
+package com.botfutbol.service;
+
+import com.botfutbol.entity.Player;
+import com.botfutbol.repository.ArchivedPaymentRepository;
+import com.botfutbol.repository.ChatImportWatermarkRepository;
+import com.botfutbol.repository.LedgerEntryRepository;
+import com.botfutbol.repository.MatchRepository;
+import com.botfutbol.repository.PaymentRepository;
+import com.botfutbol.repository.PlayerBalanceRepository;
+import com.botfutbol.repository.PlayerRepository;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de punta a punta de processChatText con repositorios simulados en memoria
+ * (sin base de datos). Cada operación es una línea del chat.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChatImportBenchmark {
+
+    private static final int LINES = 20_000;
+
+    @Param({"TIMESTAMPED", "NUMBERED", "MIXED"})
+    public ChatCorpus.Kind corpus;
+
+    private String chatText;
+    private ChatParsingService chatParsingService;
+
+    @Setup
+    public void setup() {
+        chatText = ChatCorpus.text(corpus, LINES);
+
+        List<Player> roster = new ArrayList<>();
+        for (String name : ChatCorpus.playerNames()) {
+            roster.add(new Player(name, 5, "MED"));
+        }
+        PlayerRepository playerRepository = stub(PlayerRepository.class, roster);
+        PlayerNameIndex playerNameIndex = new PlayerNameIndex(playerRepository, 0.6);
+        playerNameIndex.reload();
+
+        PlayerCache playerCache = new PlayerCache(playerRepository, playerNameIndex, 500, 300);
+        PlayerService playerService = new PlayerService(playerRepository, playerNameIndex, playerCache);
+        LedgerService ledgerService = new LedgerService(stub(LedgerEntryRepository.class, List.of()),
+                stub(PlayerBalanceRepository.class, List.of()), playerRepository, playerCache);
+        // Caché de claves de idempotencia mínima: cada iteración vuelve a registrar los pagos del mismo chat
+        PaymentIdempotencyCache idempotencyCache = new PaymentIdempotencyCache(1);
+        PaymentService paymentService = new PaymentService(stub(PaymentRepository.class, List.of()),
+                stub(ArchivedPaymentRepository.class, List.of()), playerRepository, playerCache, idempotencyCache, ledgerService, stub(MatchRepository.class, List.of()), 1500.0);
+        chatParsingService = new ChatParsingService(playerRepository, playerService, paymentService,
+                playerNameIndex, stub(ChatImportWatermarkRepository.class, List.of()), new NoOpTransactionManager());
+        // Primera importación fuera de la medición: crea los nombres que no estaban en el plantel
+        chatParsingService.processChatText(chatText);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public ChatParsingService.ChatParsingResult processChatText() {
+        return chatParsingService.processChatText(chatText);
+    }
+
+    /**
+     * Repositorio simulado: findAll devuelve rows, los métodos que devuelven listas o Optional
+     * devuelven vacío y el resto no hace nada.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> repositoryType, List<?> rows) {
+        return (T) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findAll": return rows;
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "equals": return proxy == args[0];
+                        case "toString": return repositoryType.getSimpleName() + "Stub";
+                        default: break;
+                    }
+                    Class<?> returnType = method.getReturnType();
+                    if (returnType == Optional.class) return Optional.empty();
+                    if (Collection.class.isAssignableFrom(returnType)) return List.of();
+                    if (returnType == boolean.class) return false;
+                    if (returnType == long.class) return 0L;
+                    if (returnType == int.class) return 0;
+                    if (returnType == double.class) return 0.0;
+                    return method.getName().startsWith("save") && args != null ? args[0] : null;
+                });
+    }
+
+    /**
+     * Administrador de transacciones que no hace nada (no hay base de datos)
+     */
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.botfutbol.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks por línea del parser de chat: extracción de remitente y mensaje, clasificación
+ * de confirmaciones y pagos, y limpieza de nombres.
+ * Cada operación es una línea, así que con -prof gc "gc.alloc.rate.norm" son bytes por línea.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ChatLineBenchmark {
+
+    private static final int LINES = 10_000;
+
+    @Param({"TIMESTAMPED", "SIMPLE", "NUMBERED", "NOISY", "MIXED"})
+    public ChatCorpus.Kind corpus;
+
+    private List<String> lines;
+    private String[] messages;
+    private String[] names;
+    private ChatMessageClassifier classifier;
+    private ChatTextNormalizer normalizer;
+
+    @Setup
+    public void setup() {
+        lines = ChatCorpus.lines(corpus, LINES);
+        classifier = new ChatMessageClassifier();
+        normalizer = new ChatTextNormalizer();
+        messages = new String[LINES];
+        names = new String[LINES];
+        for (int i = 0; i < LINES; i++) {
+            ChatMessageClassifier.ParsedMessage parsed =
+                    ChatParsingService.extractNameAndMessage(lines.get(i), normalizer);
+            messages[i] = parsed != null ? parsed.getMessage() : lines.get(i);
+            names[i] = parsed != null ? parsed.getName() : lines.get(i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void extractNameAndMessage(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(ChatParsingService.extractNameAndMessage(line, normalizer));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void classify(Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(classifier.classify(message));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void cleanName(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(normalizer.cleanName(name));
+        }
+    }
+}
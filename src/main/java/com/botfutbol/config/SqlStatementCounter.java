@@ -0,0 +1,116 @@
+package com.botfutbol.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Contador de viajes a la base de datos del hilo actual: cada llamada JDBC que ejecuta algo
+ * (execute, executeQuery, executeUpdate o executeBatch) cuenta una vez, venga de Hibernate o de JdbcTemplate.
+ * Un batch JDBC cuenta una vez por cada executeBatch (Hibernate manda uno cada hibernate.jdbc.batch_size filas);
+ * lo que el driver haga por debajo de esa llamada no se ve.
+ *
+ * Envuelve el DataSource de la aplicación, así que las conexiones de JPA y de JdbcTemplate pasan por acá.
+ * Para medir una operación se toma {@link #count()} antes y después y se resta.
+ */
+@Component
+public class SqlStatementCounter implements BeanPostProcessor {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * Viajes a la base hechos por el hilo actual desde que arrancó.
+     */
+    public static long count() {
+        return COUNT.get()[0];
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+            return new CountingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    /**
+     * DataSource cuyas conexiones devuelven sentencias que cuentan sus ejecuciones
+     */
+    static final class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return countingConnection(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return countingConnection(super.getConnection(username, password));
+        }
+    }
+
+    // Las sentencias que crea la conexión se devuelven envueltas
+    private static Connection countingConnection(Connection connection) {
+        return proxy(Connection.class, connection, (method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof CallableStatement statement) {
+                return countingStatement(CallableStatement.class, statement);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return countingStatement(PreparedStatement.class, statement);
+            }
+            if (result instanceof Statement statement) {
+                return countingStatement(Statement.class, statement);
+            }
+            return result;
+        });
+    }
+
+    private static <S extends Statement> S countingStatement(Class<S> type, S statement) {
+        return proxy(type, statement, (method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                COUNT.get()[0]++;
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, T target, Call call) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            // Igualdad por identidad del proxy: Hibernate guarda las sentencias abiertas en mapas
+            if (method.getName().equals("equals") && args != null && args.length == 1) {
+                return proxy == args[0];
+            }
+            return call.invoke(method, args);
+        };
+        return type.cast(Proxy.newProxyInstance(SqlStatementCounter.class.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        Object invoke(Method method, Object[] args) throws Throwable;
+    }
+}
@@ -4,23 +4,41 @@ import com.botfutbol.dto.*;
 import com.botfutbol.entity.Goal;
 import com.botfutbol.entity.Payment;
 import com.botfutbol.entity.Player;
+import com.botfutbol.entity.Season;
 import com.botfutbol.entity.Team;
-import com.botfutbol.entity.PlayerLevelHistory;
+import com.botfutbol.service.ChatImportJobService;
 import com.botfutbol.service.ChatParsingService;
+import com.botfutbol.service.ExportService;
 import com.botfutbol.service.MatchService;
 import com.botfutbol.service.PaymentService;
 import com.botfutbol.service.PlayerService;
+import com.botfutbol.service.SeasonService;
 import com.botfutbol.service.TeamService;
-import com.botfutbol.repository.PlayerLevelHistoryRepository;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Controlador principal del bot.
@@ -32,25 +50,38 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")
 public class BotController {
     
+    private static final Logger log = LoggerFactory.getLogger(BotController.class);
+    
+    // Header con la clave que identifica un pedido de pago (reintentos con la misma clave no lo duplican)
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    // Deudores que muestra /deuda sin jugador (los de mayor deuda)
+    private static final int DEBT_REPLY_MAX_PLAYERS = 10;
+    
     private final PlayerService playerService;
     private final TeamService teamService;
     private final PaymentService paymentService;
     private final MatchService matchService;
     private final ChatParsingService chatParsingService;
-    private final PlayerLevelHistoryRepository playerLevelHistoryRepository;
+    private final ChatImportJobService chatImportJobService;
+    private final ExportService exportService;
+    private final SeasonService seasonService;
     
     public BotController(PlayerService playerService,
                          TeamService teamService,
                          PaymentService paymentService,
                          MatchService matchService,
                          ChatParsingService chatParsingService,
-                         PlayerLevelHistoryRepository playerLevelHistoryRepository) {
+                         ChatImportJobService chatImportJobService,
+                         ExportService exportService,
+                         SeasonService seasonService) {
         this.playerService = playerService;
         this.teamService = teamService;
         this.paymentService = paymentService;
         this.matchService = matchService;
         this.chatParsingService = chatParsingService;
-        this.playerLevelHistoryRepository = playerLevelHistoryRepository;
+        this.chatImportJobService = chatImportJobService;
+        this.exportService = exportService;
+        this.seasonService = seasonService;
     }
     
     // ==================== REST API ENDPOINTS ====================
@@ -63,6 +94,22 @@ public class BotController {
         return ResponseEntity.ok(playerService.getAllPlayers());
     }
     
+    /**
+     * Obtener jugadores paginados por cursor (por nombre).
+     * limit: tamaño de página (máximo 200); cursor: nextCursor de la página anterior;
+     * fields: campos a devolver separados por coma, la consulta lee solo esos (todos si no se indica)
+     */
+    @GetMapping("/players/page")
+    public ResponseEntity<?> getPlayersPage(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "50") int limit,
+                                                              @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(playerService.getPlayersPage(cursor, limit, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
     /**
      * Agregar un jugador
      */
@@ -99,11 +146,14 @@ public class BotController {
     }
     
     /**
-     * Obtener jugadores con deuda
+     * Obtener jugadores con deuda, de la mayor a la menor.
+     * limit: solo los mayores deudores (todos si no se indica)
      */
     @GetMapping("/players/debt")
-    public ResponseEntity<List<Player>> getPlayersWithDebt() {
-        return ResponseEntity.ok(playerService.getPlayersWithDebt());
+    public ResponseEntity<List<Player>> getPlayersWithDebt(@RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(limit != null
+                ? playerService.getTopDebtors(limit)
+                : playerService.getPlayersWithDebt());
     }
     
     /**
@@ -112,14 +162,10 @@ public class BotController {
     @PutMapping("/player/attendance/{name}")
     public ResponseEntity<String> markAttendance(@PathVariable String name, @RequestParam boolean attended) {
         try {
-            Optional<Player> playerOpt = playerService.findPlayerByName(name);
-            if (playerOpt.isEmpty()) {
-                return ResponseEntity.badRequest().body("Jugador no encontrado: " + name);
-            }
-            Player player = playerOpt.get();
-            player.setAttended(attended);
-            playerService.updatePlayer(player);
+            playerService.markAttendance(name, attended);
             return ResponseEntity.ok(String.format("Asistencia actualizada: %s", name));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -175,14 +221,69 @@ public class BotController {
     }
     
     /**
-     * Registrar un pago
+     * Obtener goles paginados por cursor (del más reciente al más antiguo).
+     * limit: tamaño de página (máximo 200); cursor: nextCursor de la página anterior;
+     * fields: campos a devolver separados por coma, la consulta lee solo esos (todos si no se indica)
+     */
+    @GetMapping("/goals/page")
+    public ResponseEntity<?> getGoalsPage(@RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "50") int limit,
+                                                            @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(matchService.getGoalsPage(cursor, limit, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    /**
+     * Registrar un pago.
+     * Con el header Idempotency-Key, reenviar el mismo pedido devuelve el pago original sin registrar otro.
      */
     @PostMapping("/payment/record")
-    public ResponseEntity<String> recordPaymentRest(@RequestBody PaymentDTO dto) {
-        Payment payment = paymentService.registerPayment(dto);
-        double debt = paymentService.getPlayerDebt(payment.getPlayerName());
-        return ResponseEntity.ok(String.format("Pago registrado: $%.2f. Deuda restante: $%.2f", 
-                payment.getAmount(), debt));
+    public ResponseEntity<String> recordPaymentRest(@RequestBody PaymentDTO dto,
+                                                    @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        try {
+            Payment payment = registerPayment(dto, idempotencyKey);
+            double debt = paymentService.getPlayerDebt(payment.getPlayerName());
+            return ResponseEntity.ok(String.format("Pago registrado: $%.2f. Deuda restante: $%.2f", 
+                    payment.getAmount(), debt));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    /**
+     * Registra el pago; si otro pedido con la misma clave lo registró al mismo tiempo
+     * (choca con la restricción única), devuelve ese.
+     */
+    private Payment registerPayment(PaymentDTO dto, String idempotencyKey) {
+        try {
+            return paymentService.registerPayment(dto, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            return paymentService.findPaymentByIdempotencyKey(idempotencyKey).orElseThrow(() -> e);
+        }
+    }
+    
+    /**
+     * Registrar los pagos de una fecha completa en una sola transacción.
+     * Devuelve lo que pagó cada jugador y la deuda que le queda; si un pago es inválido no se registra ninguno.
+     * Con el header Idempotency-Key, reenviar la misma lista no duplica los pagos.
+     */
+    @PostMapping("/payments/bulk")
+    public ResponseEntity<?> recordPaymentsBulk(@RequestBody List<PaymentDTO> payments,
+                                                @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        try {
+            try {
+                return ResponseEntity.ok(paymentService.registerPayments(payments, idempotencyKey));
+            } catch (DataIntegrityViolationException e) {
+                // Otro pedido con la misma clave registró los pagos al mismo tiempo: al repetir se descartan
+                if (idempotencyKey == null) throw e;
+                return ResponseEntity.ok(paymentService.registerPayments(payments, idempotencyKey));
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
     
     /**
@@ -194,13 +295,80 @@ public class BotController {
     }
     
     /**
-     * Obtener estadísticas generales
+     * Obtener pagos paginados por cursor (del más reciente al más antiguo).
+     * limit: tamaño de página (máximo 200); cursor: nextCursor de la página anterior;
+     * fields: campos a devolver separados por coma, la consulta lee solo esos (todos si no se indica)
+     */
+    @GetMapping("/payments/page")
+    public ResponseEntity<?> getPaymentsPage(@RequestParam(required = false) String cursor,
+                                                               @RequestParam(defaultValue = "50") int limit,
+                                                               @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(paymentService.getPaymentsPage(cursor, limit, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    /**
+     * Obtener estadísticas generales (limit: cantidad de goleadores, 5 por defecto)
      */
     @GetMapping("/stats")
-    public ResponseEntity<StatsDTO> getStats() {
-        return ResponseEntity.ok(matchService.getStats());
+    public ResponseEntity<StatsDTO> getStats(@RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(matchService.getStats(limit));
     }
     
+    /**
+     * Exportar todos los jugadores (format=csv o ndjson)
+     */
+    @GetMapping("/export/players")
+    public ResponseEntity<StreamingResponseBody> exportPlayers(@RequestParam(defaultValue = "csv") String format) {
+        return export("players", format, exportService::exportPlayers);
+    }
+
+    /**
+     * Exportar todos los pagos (format=csv o ndjson)
+     */
+    @GetMapping("/export/payments")
+    public ResponseEntity<StreamingResponseBody> exportPayments(@RequestParam(defaultValue = "csv") String format) {
+        return export("payments", format, exportService::exportPayments);
+    }
+
+    /**
+     * Exportar todos los goles (format=csv o ndjson)
+     */
+    @GetMapping("/export/goals")
+    public ResponseEntity<StreamingResponseBody> exportGoals(@RequestParam(defaultValue = "csv") String format) {
+        return export("goals", format, exportService::exportGoals);
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        void write(ExportService.Format format, OutputStream out) throws IOException;
+    }
+
+    /**
+     * Respuesta que escribe la exportación a medida que lee las filas
+     * (en el executor asíncrono de MVC, fuera del hilo de la petición).
+     */
+    private ResponseEntity<StreamingResponseBody> export(String name, String format, Export export) {
+        ExportService.Format exportFormat;
+        try {
+            exportFormat = ExportService.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            byte[] message = e.getMessage().getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest()
+                    .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                    .body(out -> out.write(message));
+        }
+        StreamingResponseBody body = out -> export.write(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + "." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
     // ==================== COMANDO DE TEXTO ====================
     
     /**
@@ -208,7 +376,8 @@ public class BotController {
      * Retorna la respuesta formateada.
      */
     @PostMapping("/message")
-    public ResponseEntity<String> processMessage(@RequestBody String message) {
+    public ResponseEntity<String> processMessage(@RequestBody String message,
+                                                 @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         if (message == null || message.trim().isEmpty()) {
             return ResponseEntity.badRequest().body("❌ Comando vacío");
         }
@@ -227,7 +396,7 @@ public class BotController {
                 case "/gol", "/goal" -> handleRegisterGoal(parts);
                 case "/resultado", "/score" -> handleGetScore();
                 case "/finalizar", "/end" -> handleEndMatch();
-                case "/pago", "/pay" -> handleRegisterPayment(parts);
+                case "/pago", "/pay" -> handleRegisterPayment(parts, idempotencyKey);
                 case "/deuda", "/debt" -> handleCheckDebt(parts);
                 case "/stats", "/estadisticas" -> handleGetStats();
                 case "/ayuda", "/help" -> handleHelp();
@@ -400,8 +569,9 @@ public class BotController {
     
     /**
      * /pago Juan 1500 [concepto]
+     * El header Idempotency-Key del mensaje evita registrar dos veces un comando reenviado.
      */
-    private String handleRegisterPayment(String[] parts) {
+    private String handleRegisterPayment(String[] parts, String idempotencyKey) {
         if (parts.length < 3) {
             return "❌ Uso: /pago <jugador> <monto> [concepto]";
         }
@@ -418,7 +588,7 @@ public class BotController {
         String concept = parts.length > 3 ? String.join(" ", java.util.Arrays.copyOfRange(parts, 3, parts.length)) : null;
         
         PaymentDTO dto = new PaymentDTO(playerName, amount, concept);
-        Payment payment = paymentService.registerPayment(dto);
+        Payment payment = registerPayment(dto, idempotencyKey);
         
         double debt = paymentService.getPlayerDebt(playerName);
         
@@ -431,8 +601,8 @@ public class BotController {
      */
     private String handleCheckDebt(String[] parts) {
         if (parts.length < 2) {
-            // Mostrar todos los deudores
-            List<Player> debtors = playerService.getPlayersWithDebt();
+            // Mostrar los mayores deudores
+            List<Player> debtors = playerService.getTopDebtors(DEBT_REPLY_MAX_PLAYERS);
             
             if (debtors.isEmpty()) {
                 return "✅ No hay deudores";
@@ -440,8 +610,13 @@ public class BotController {
             
             StringBuilder sb = new StringBuilder("💰 Deudores:\n\n");
             for (Player player : debtors) {
-                double debt = player.getTotalDebt() - player.getTotalPaid();
-                sb.append(String.format("• %s: $%.2f\n", player.getName(), debt));
+                sb.append(String.format("• %s: $%.2f\n", player.getName(), player.getOutstanding()));
+            }
+            if (debtors.size() == DEBT_REPLY_MAX_PLAYERS) {
+                long others = playerService.countPlayersWithDebt() - debtors.size();
+                if (others > 0) {
+                    sb.append(String.format("… y %d más\n", others));
+                }
             }
             return sb.toString();
         } else {
@@ -514,7 +689,7 @@ public class BotController {
      * Importar jugadores y pagos desde texto de chat de WhatsApp
      */
     @PostMapping("/matches/import-from-text")
-    public ResponseEntity<ChatParsingResponseDTO> importFromChat(@RequestBody Map<String, String> request) {
+    public ResponseEntity<?> importFromChat(@RequestBody Map<String, String> request) {
         try {
             String chatText = request.get("text");
             
@@ -522,24 +697,128 @@ public class BotController {
                 return ResponseEntity.badRequest().build();
             }
             
-            ChatParsingService.ChatParsingResult result = chatParsingService.processChatText(chatText);
-            
-            // Convertir a DTO
-            ChatParsingResponseDTO response = new ChatParsingResponseDTO();
-            response.setPlayersConfirmed(result.getPlayersConfirmed());
-            response.setPaymentsRegistered(result.getPaymentsRegistered());
-            response.setConfirmedPlayers(result.getConfirmedPlayers());
-            response.setPaidPlayers(result.getPaidPlayers());
-            response.setUnrecognizedMessages(result.getUnrecognizedMessages());
-            response.setNewPlayersAdded(result.getNewPlayersAdded());
-            
-            return ResponseEntity.ok(response);
+            // "group" opcional: identifica el chat para no reprocesar mensajes ya importados
+            // (los pagos sin fecha de un grupo ya importado se descartan: ver undatedPaymentsSkipped)
+            String group = request.get("group");
+            ChatParsingService.ChatParsingResult result = chatParsingService.processChatText(chatText, group);
+            return ResponseEntity.ok(toChatParsingResponse(result));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error al importar el chat", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    /**
+     * Importar jugadores y pagos desde un archivo exportado de WhatsApp.
+     * El archivo se procesa línea por línea sin cargarlo completo en memoria.
+     */
+    @PostMapping(value = "/matches/import-from-file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importFromChatFile(@RequestParam("file") MultipartFile file,
+                                                @RequestParam(value = "group", required = false) String group) {
+        if (file == null || file.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            ChatParsingService.ChatParsingResult result = chatParsingService.processChatStream(reader, group);
+            return ResponseEntity.ok(toChatParsingResponse(result));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error al importar el archivo de chat", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    /**
+     * Encolar la importación de un texto de chat en segundo plano.
+     * Devuelve enseguida el ID del trabajo; el avance se consulta con GET /matches/import-jobs/{jobId}.
+     * Las importaciones del mismo "group" se ejecutan de a una.
+     */
+    @PostMapping("/matches/import-jobs")
+    public ResponseEntity<ChatImportJobDTO> submitImportJob(@RequestBody Map<String, String> request) {
+        String chatText = request.get("text");
+        if (chatText == null || chatText.trim().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        ChatImportJobService.ChatImportJob job = chatImportJobService.submitText(chatText, request.get("group"));
+        return ResponseEntity.accepted().body(toChatImportJobDTO(job));
+    }
+    
+    /**
+     * Encolar la importación de un archivo exportado de WhatsApp en segundo plano.
+     * El archivo se copia a un temporal que se borra al terminar la importación.
+     */
+    @PostMapping(value = "/matches/import-jobs/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ChatImportJobDTO> submitImportFileJob(@RequestParam("file") MultipartFile file,
+                                                                @RequestParam(value = "group", required = false) String group) {
+        if (file == null || file.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            Path tempFile = Files.createTempFile("chat-import-", ".txt");
+            file.transferTo(tempFile);
+            ChatImportJobService.ChatImportJob job = chatImportJobService.submitFile(tempFile, group);
+            return ResponseEntity.accepted().body(toChatImportJobDTO(job));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error al encolar la importación del archivo de chat", e);
             return ResponseEntity.internalServerError().build();
         }
     }
     
+    /**
+     * Consultar el estado y avance de una importación en segundo plano
+     */
+    @GetMapping("/matches/import-jobs/{jobId}")
+    public ResponseEntity<ChatImportJobDTO> getImportJob(@PathVariable String jobId) {
+        return chatImportJobService.findJob(jobId)
+                .map(job -> ResponseEntity.ok(toChatImportJobDTO(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Convierte un trabajo de importación a DTO.
+     */
+    private ChatImportJobDTO toChatImportJobDTO(ChatImportJobService.ChatImportJob job) {
+        ChatImportJobDTO dto = new ChatImportJobDTO();
+        dto.setJobId(job.getId());
+        dto.setGroup(job.getGroup());
+        dto.setStatus(job.getStatus().name());
+        dto.setLinesProcessed(job.getProgress().getLinesProcessed());
+        dto.setPlayersMatched(job.getProgress().getPlayersMatched());
+        dto.setPlayersCreated(job.getProgress().getPlayersCreated());
+        dto.setPaymentsDetected(job.getProgress().getPaymentsDetected());
+        dto.setError(job.getError());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        ChatParsingService.ChatParsingResult result = job.getResult();
+        if (result != null) {
+            dto.setResult(toChatParsingResponse(result));
+        }
+        return dto;
+    }
+    
+    /**
+     * Convierte el resultado del procesamiento del chat a DTO.
+     */
+    private ChatParsingResponseDTO toChatParsingResponse(ChatParsingService.ChatParsingResult result) {
+        ChatParsingResponseDTO response = new ChatParsingResponseDTO();
+        response.setPlayersConfirmed(result.getPlayersConfirmed());
+        response.setPaymentsRegistered(result.getPaymentsRegistered());
+        response.setConfirmedPlayers(result.getConfirmedPlayers());
+        response.setPaidPlayers(result.getPaidPlayers());
+        response.setUnrecognizedMessages(result.getUnrecognizedMessages());
+        response.setUnrecognizedMessagesCount(result.getUnrecognizedMessagesCount());
+        response.setSkippedLinesCount(result.getSkippedLinesCount());
+        response.setDuplicatePaymentsSkipped(result.getDuplicatePaymentsSkipped());
+        response.setUndatedPaymentsSkipped(result.getUndatedPaymentsSkipped());
+        response.setDatabaseRoundTrips(result.getDatabaseRoundTrips());
+        response.setNewPlayersAdded(result.getNewPlayersAdded());
+        return response;
+    }
+    
     /**
      * Obtener resumen del partido para compartir en WhatsApp
      */
@@ -551,7 +830,7 @@ public class BotController {
         } catch (IllegalStateException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error al obtener el resumen del partido {}", matchId, e);
             return ResponseEntity.internalServerError().build();
         }
     }
@@ -571,7 +850,7 @@ public class BotController {
             MatchSummaryDTO summary = matchService.getMatchSummary(currentMatch.get().getId());
             return ResponseEntity.ok(summary);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error al obtener el resumen del partido actual", e);
             return ResponseEntity.internalServerError().build();
         }
     }
@@ -622,46 +901,115 @@ public class BotController {
      */
     @GetMapping("/player-level-history")
     public List<PlayerLevelHistoryDTO> getPlayerLevelHistory() {
-        List<PlayerLevelHistoryDTO> result = new ArrayList<>();
-        List<Player> players = playerService.getAllPlayers();
+        return playerService.getPlayerLevelHistory();
+    }
 
-        for (Player player : players) {
-            List<PlayerLevelHistory> history = playerLevelHistoryRepository.findByPlayerNameOrderByDateAsc(player.getName());
+    /**
+     * Contadores de la caché de jugadores
+     */
+    @GetMapping("/cache/players")
+    public CacheStatsDTO getPlayerCacheStats() {
+        return playerService.getPlayerCacheStats();
+    }
 
-            int previousLevel = player.getSkillLevel();
-            double averageLevel = player.getSkillLevel();
-            int suggestedLevel = player.getSkillLevel();
+    /**
+     * Reconstruir el resumen de niveles desde el historial
+     */
+    @PostMapping("/player-level-history/rebuild")
+    public ResponseEntity<String> rebuildPlayerLevelStats() {
+        try {
+            int players = playerService.rebuildPlayerLevelStats();
+            return ResponseEntity.ok("Resumen de niveles reconstruido: " + players + " jugadores");
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error al reconstruir el resumen de niveles: " + e.getMessage());
+        }
+    }
 
-            if (!history.isEmpty()) {
-                // Nivel anterior: penúltimo cambio, o el primero si solo hay uno
-                previousLevel = history.size() > 1
-                    ? history.get(history.size() - 2).getNewLevel()
-                    : history.get(0).getPreviousLevel();
+    /**
+     * Verificar los saldos contra el libro de cuentas (repair=true corrige las diferencias)
+     */
+    @PostMapping("/ledger/verify")
+    public ResponseEntity<?> verifyLedger(@RequestParam(defaultValue = "false") boolean repair) {
+        try {
+            return ResponseEntity.ok(paymentService.verifyLedger(repair));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error al verificar el libro de cuentas: " + e.getMessage());
+        }
+    }
 
-                // Promedio: de todos los newLevel históricos
-                averageLevel = history.stream().mapToInt(PlayerLevelHistory::getNewLevel).average().orElse(player.getSkillLevel());
+    /**
+     * Eliminar todos los pagos (y descontarlos del total pagado de cada jugador)
+     */
+    @DeleteMapping("/payments/reset")
+    public ResponseEntity<?> resetAllPayments() {
+        int deleted = paymentService.deleteAllPayments();
+        return ResponseEntity.ok(String.format("Todos los pagos eliminados (%d)", deleted));
+    }
 
-                // Nivel sugerido: redondeo del promedio
-                suggestedLevel = (int) Math.round(averageLevel);
-            }
+    /**
+     * Cerrar la temporada: archiva pagos, goles e historial de niveles y pone en cero partidos y goles.
+     * Con force=true finaliza el partido en curso en vez de rechazar el cierre.
+     */
+    @PostMapping("/seasons/close")
+    public ResponseEntity<?> closeSeason(@RequestParam(required = false) String name,
+                                         @RequestParam(defaultValue = "false") boolean force) {
+        try {
+            return ResponseEntity.ok(seasonService.closeSeason(name, force));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error al cerrar la temporada: " + e.getMessage());
+        }
+    }
 
-            PlayerLevelHistoryDTO dto = new PlayerLevelHistoryDTO(
-                player.getName(),
-                previousLevel,
-                averageLevel,
-                suggestedLevel
-            );
-            result.add(dto);
+    /**
+     * Obtener las temporadas cerradas
+     */
+    @GetMapping("/seasons")
+    public ResponseEntity<List<Season>> getSeasons() {
+        return ResponseEntity.ok(seasonService.getSeasons());
+    }
+
+    /**
+     * Obtener una temporada cerrada
+     */
+    @GetMapping("/seasons/{seasonId}")
+    public ResponseEntity<Season> getSeason(@PathVariable String seasonId) {
+        return seasonService.getSeason(seasonId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Obtener los pagos de una temporada cerrada
+     */
+    @GetMapping("/seasons/{seasonId}/payments")
+    public ResponseEntity<?> getSeasonPayments(@PathVariable String seasonId) {
+        if (seasonService.getSeason(seasonId).isEmpty()) {
+            return ResponseEntity.notFound().build();
         }
-        return result;
+        return ResponseEntity.ok(seasonService.getPayments(seasonId));
     }
 
     /**
-     * Eliminar todos los pagos
+     * Obtener los goles de una temporada cerrada
      */
-    @DeleteMapping("/payments/reset")
-    public ResponseEntity<?> resetAllPayments() {
-        paymentService.deleteAllPayments();
-        return ResponseEntity.ok("Todos los pagos eliminados");
+    @GetMapping("/seasons/{seasonId}/goals")
+    public ResponseEntity<?> getSeasonGoals(@PathVariable String seasonId) {
+        if (seasonService.getSeason(seasonId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(seasonService.getGoals(seasonId));
+    }
+
+    /**
+     * Obtener el historial de niveles de una temporada cerrada
+     */
+    @GetMapping("/seasons/{seasonId}/level-history")
+    public ResponseEntity<?> getSeasonLevelHistory(@PathVariable String seasonId) {
+        if (seasonService.getSeason(seasonId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(seasonService.getLevelHistory(seasonId));
     }
 }
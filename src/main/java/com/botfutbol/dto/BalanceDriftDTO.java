@@ -0,0 +1,50 @@
+package com.botfutbol.dto;
+
+/**
+ * Jugador cuyo saldo guardado no coincide con su libro de cuentas.
+ * Montos en unidades de moneda.
+ */
+public class BalanceDriftDTO {
+    private String playerId;
+    private double ledgerDebt;
+    private double ledgerPaid;
+    private double snapshotDebt;
+    private double snapshotPaid;
+    private double playerTotalDebt;
+    private double playerTotalPaid;
+
+    public BalanceDriftDTO() {}
+
+    public BalanceDriftDTO(String playerId, double ledgerDebt, double ledgerPaid,
+                           double snapshotDebt, double snapshotPaid,
+                           double playerTotalDebt, double playerTotalPaid) {
+        this.playerId = playerId;
+        this.ledgerDebt = ledgerDebt;
+        this.ledgerPaid = ledgerPaid;
+        this.snapshotDebt = snapshotDebt;
+        this.snapshotPaid = snapshotPaid;
+        this.playerTotalDebt = playerTotalDebt;
+        this.playerTotalPaid = playerTotalPaid;
+    }
+
+    public String getPlayerId() { return playerId; }
+    public void setPlayerId(String playerId) { this.playerId = playerId; }
+
+    public double getLedgerDebt() { return ledgerDebt; }
+    public void setLedgerDebt(double ledgerDebt) { this.ledgerDebt = ledgerDebt; }
+
+    public double getLedgerPaid() { return ledgerPaid; }
+    public void setLedgerPaid(double ledgerPaid) { this.ledgerPaid = ledgerPaid; }
+
+    public double getSnapshotDebt() { return snapshotDebt; }
+    public void setSnapshotDebt(double snapshotDebt) { this.snapshotDebt = snapshotDebt; }
+
+    public double getSnapshotPaid() { return snapshotPaid; }
+    public void setSnapshotPaid(double snapshotPaid) { this.snapshotPaid = snapshotPaid; }
+
+    public double getPlayerTotalDebt() { return playerTotalDebt; }
+    public void setPlayerTotalDebt(double playerTotalDebt) { this.playerTotalDebt = playerTotalDebt; }
+
+    public double getPlayerTotalPaid() { return playerTotalPaid; }
+    public void setPlayerTotalPaid(double playerTotalPaid) { this.playerTotalPaid = playerTotalPaid; }
+}
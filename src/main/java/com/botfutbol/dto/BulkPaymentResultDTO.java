@@ -0,0 +1,51 @@
+package com.botfutbol.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de registrar los pagos de una fecha en un solo pedido.
+ * Montos en unidades de moneda.
+ */
+public class BulkPaymentResultDTO {
+    private int paymentsRegistered;
+    private int duplicatePaymentsSkipped;
+    private List<PlayerResult> players = new ArrayList<>();
+
+    public BulkPaymentResultDTO() {}
+
+    /**
+     * Lo que pagó cada jugador en el pedido y la deuda que le queda
+     */
+    public static class PlayerResult {
+        private String playerName;
+        private double amountPaid;
+        private double remainingDebt;
+
+        public PlayerResult() {}
+
+        public PlayerResult(String playerName, double amountPaid, double remainingDebt) {
+            this.playerName = playerName;
+            this.amountPaid = amountPaid;
+            this.remainingDebt = remainingDebt;
+        }
+
+        public String getPlayerName() { return playerName; }
+        public void setPlayerName(String playerName) { this.playerName = playerName; }
+
+        public double getAmountPaid() { return amountPaid; }
+        public void setAmountPaid(double amountPaid) { this.amountPaid = amountPaid; }
+
+        public double getRemainingDebt() { return remainingDebt; }
+        public void setRemainingDebt(double remainingDebt) { this.remainingDebt = remainingDebt; }
+    }
+
+    public int getPaymentsRegistered() { return paymentsRegistered; }
+    public void setPaymentsRegistered(int paymentsRegistered) { this.paymentsRegistered = paymentsRegistered; }
+
+    public int getDuplicatePaymentsSkipped() { return duplicatePaymentsSkipped; }
+    public void setDuplicatePaymentsSkipped(int duplicatePaymentsSkipped) { this.duplicatePaymentsSkipped = duplicatePaymentsSkipped; }
+
+    public List<PlayerResult> getPlayers() { return players; }
+    public void setPlayers(List<PlayerResult> players) { this.players = players; }
+}
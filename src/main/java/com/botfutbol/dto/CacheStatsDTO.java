@@ -0,0 +1,45 @@
+package com.botfutbol.dto;
+
+/**
+ * Contadores de una caché en memoria.
+ */
+public class CacheStatsDTO {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    private int size;
+
+    public CacheStatsDTO() {}
+
+    public CacheStatsDTO(long hits, long misses, long evictions, long invalidations, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.size = size;
+    }
+
+    public long getHits() { return hits; }
+    public void setHits(long hits) { this.hits = hits; }
+
+    public long getMisses() { return misses; }
+    public void setMisses(long misses) { this.misses = misses; }
+
+    public long getEvictions() { return evictions; }
+    public void setEvictions(long evictions) { this.evictions = evictions; }
+
+    public long getInvalidations() { return invalidations; }
+    public void setInvalidations(long invalidations) { this.invalidations = invalidations; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    /**
+     * Proporción de lecturas resueltas sin ir a la base de datos (0 si no hubo lecturas).
+     */
+    public double getHitRate() {
+        long reads = hits + misses;
+        return reads > 0 ? (double) hits / reads : 0;
+    }
+}
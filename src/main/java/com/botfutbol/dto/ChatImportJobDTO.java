@@ -0,0 +1,112 @@
+package com.botfutbol.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO para el estado de una importación de chat en segundo plano.
+ * result solo se completa cuando la importación terminó bien.
+ */
+public class ChatImportJobDTO {
+    private String jobId;
+    private String group;
+    private String status;
+    private long linesProcessed;
+    private long playersMatched;
+    private long playersCreated;
+    private long paymentsDetected;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    private ChatParsingResponseDTO result;
+    
+    public ChatImportJobDTO() {}
+    
+    // Getters y Setters
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+    
+    public String getGroup() {
+        return group;
+    }
+    
+    public void setGroup(String group) {
+        this.group = group;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public long getLinesProcessed() {
+        return linesProcessed;
+    }
+    
+    public void setLinesProcessed(long linesProcessed) {
+        this.linesProcessed = linesProcessed;
+    }
+    
+    public long getPlayersMatched() {
+        return playersMatched;
+    }
+    
+    public void setPlayersMatched(long playersMatched) {
+        this.playersMatched = playersMatched;
+    }
+    
+    public long getPlayersCreated() {
+        return playersCreated;
+    }
+    
+    public void setPlayersCreated(long playersCreated) {
+        this.playersCreated = playersCreated;
+    }
+    
+    public long getPaymentsDetected() {
+        return paymentsDetected;
+    }
+    
+    public void setPaymentsDetected(long paymentsDetected) {
+        this.paymentsDetected = paymentsDetected;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+    
+    public ChatParsingResponseDTO getResult() {
+        return result;
+    }
+    
+    public void setResult(ChatParsingResponseDTO result) {
+        this.result = result;
+    }
+}
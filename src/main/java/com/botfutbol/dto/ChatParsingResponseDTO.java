@@ -11,7 +11,12 @@ public class ChatParsingResponseDTO {
     private List<String> confirmedPlayers;
     private List<String> paidPlayers;
     private List<String> unrecognizedMessages;
+    private int unrecognizedMessagesCount;
     private List<String> newPlayersAdded;
+    private int skippedLinesCount;
+    private int duplicatePaymentsSkipped;
+    private int undatedPaymentsSkipped;
+    private long databaseRoundTrips;
     
     public ChatParsingResponseDTO() {}
     
@@ -56,6 +61,14 @@ public class ChatParsingResponseDTO {
         this.unrecognizedMessages = unrecognizedMessages;
     }
     
+    public int getUnrecognizedMessagesCount() {
+        return unrecognizedMessagesCount;
+    }
+    
+    public void setUnrecognizedMessagesCount(int unrecognizedMessagesCount) {
+        this.unrecognizedMessagesCount = unrecognizedMessagesCount;
+    }
+    
     public List<String> getNewPlayersAdded() {
         return newPlayersAdded;
     }
@@ -63,4 +76,36 @@ public class ChatParsingResponseDTO {
     public void setNewPlayersAdded(List<String> newPlayersAdded) {
         this.newPlayersAdded = newPlayersAdded;
     }
+    
+    public int getSkippedLinesCount() {
+        return skippedLinesCount;
+    }
+    
+    public void setSkippedLinesCount(int skippedLinesCount) {
+        this.skippedLinesCount = skippedLinesCount;
+    }
+    
+    public int getDuplicatePaymentsSkipped() {
+        return duplicatePaymentsSkipped;
+    }
+    
+    public void setDuplicatePaymentsSkipped(int duplicatePaymentsSkipped) {
+        this.duplicatePaymentsSkipped = duplicatePaymentsSkipped;
+    }
+    
+    public int getUndatedPaymentsSkipped() {
+        return undatedPaymentsSkipped;
+    }
+    
+    public void setUndatedPaymentsSkipped(int undatedPaymentsSkipped) {
+        this.undatedPaymentsSkipped = undatedPaymentsSkipped;
+    }
+    
+    public long getDatabaseRoundTrips() {
+        return databaseRoundTrips;
+    }
+    
+    public void setDatabaseRoundTrips(long databaseRoundTrips) {
+        this.databaseRoundTrips = databaseRoundTrips;
+    }
 }
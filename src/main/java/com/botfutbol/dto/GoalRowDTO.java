@@ -0,0 +1,38 @@
+package com.botfutbol.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO de solo lectura con las columnas de un gol, para listados paginados.
+ * Se arma directamente en la consulta (sin cargar la entidad).
+ */
+public class GoalRowDTO {
+
+    // Campos que se pueden pedir con fields (mismos nombres que los atributos de la entidad)
+    public static final List<String> FIELDS = List.of("id", "playerId", "playerName", "teamId", "timestamp", "matchId");
+
+    private final String id;
+    private final String playerId;
+    private final String playerName;
+    private final String teamId;
+    private final LocalDateTime timestamp;
+    private final String matchId;
+
+    public GoalRowDTO(String id, String playerId, String playerName, String teamId,
+                      LocalDateTime timestamp, String matchId) {
+        this.id = id;
+        this.playerId = playerId;
+        this.playerName = playerName;
+        this.teamId = teamId;
+        this.timestamp = timestamp;
+        this.matchId = matchId;
+    }
+
+    public String getId() { return id; }
+    public String getPlayerId() { return playerId; }
+    public String getPlayerName() { return playerName; }
+    public String getTeamId() { return teamId; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public String getMatchId() { return matchId; }
+}
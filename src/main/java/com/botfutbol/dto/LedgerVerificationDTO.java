@@ -0,0 +1,34 @@
+package com.botfutbol.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de verificar los saldos contra el libro de cuentas.
+ */
+public class LedgerVerificationDTO {
+    private int playersChecked;
+    private long entriesChecked;
+    private List<BalanceDriftDTO> drifts;
+    private boolean repaired;
+
+    public LedgerVerificationDTO() {}
+
+    public LedgerVerificationDTO(int playersChecked, long entriesChecked, List<BalanceDriftDTO> drifts, boolean repaired) {
+        this.playersChecked = playersChecked;
+        this.entriesChecked = entriesChecked;
+        this.drifts = drifts;
+        this.repaired = repaired;
+    }
+
+    public int getPlayersChecked() { return playersChecked; }
+    public void setPlayersChecked(int playersChecked) { this.playersChecked = playersChecked; }
+
+    public long getEntriesChecked() { return entriesChecked; }
+    public void setEntriesChecked(long entriesChecked) { this.entriesChecked = entriesChecked; }
+
+    public List<BalanceDriftDTO> getDrifts() { return drifts; }
+    public void setDrifts(List<BalanceDriftDTO> drifts) { this.drifts = drifts; }
+
+    public boolean isRepaired() { return repaired; }
+    public void setRepaired(boolean repaired) { this.repaired = repaired; }
+}
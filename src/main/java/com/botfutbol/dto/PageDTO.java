@@ -0,0 +1,31 @@
+package com.botfutbol.dto;
+
+import java.util.List;
+
+/**
+ * DTO para una página de un listado paginado por cursor.
+ * Para pedir la página siguiente se envía nextCursor como parámetro cursor;
+ * si hasMore es false no hay más resultados.
+ */
+public class PageDTO<T> {
+
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public PageDTO() {}
+
+    public PageDTO(List<T> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters y Setters
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
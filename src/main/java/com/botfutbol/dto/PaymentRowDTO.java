@@ -0,0 +1,38 @@
+package com.botfutbol.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO de solo lectura con las columnas de un pago, para listados paginados.
+ * Se arma directamente en la consulta (sin cargar la entidad).
+ */
+public class PaymentRowDTO {
+
+    // Campos que se pueden pedir con fields (mismos nombres que los atributos de la entidad)
+    public static final List<String> FIELDS = List.of("id", "playerId", "playerName", "amount", "timestamp", "concept");
+
+    private final String id;
+    private final String playerId;
+    private final String playerName;
+    private final double amount;
+    private final LocalDateTime timestamp;
+    private final String concept;
+
+    public PaymentRowDTO(String id, String playerId, String playerName, double amount,
+                         LocalDateTime timestamp, String concept) {
+        this.id = id;
+        this.playerId = playerId;
+        this.playerName = playerName;
+        this.amount = amount;
+        this.timestamp = timestamp;
+        this.concept = concept;
+    }
+
+    public String getId() { return id; }
+    public String getPlayerId() { return playerId; }
+    public String getPlayerName() { return playerName; }
+    public double getAmount() { return amount; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public String getConcept() { return concept; }
+}
@@ -0,0 +1,50 @@
+package com.botfutbol.dto;
+
+import java.util.List;
+
+/**
+ * DTO de solo lectura con las columnas de un jugador, para listados paginados.
+ * Se arma directamente en la consulta (sin cargar la entidad).
+ */
+public class PlayerRowDTO {
+
+    // Campos que se pueden pedir con fields (mismos nombres que los atributos de la entidad)
+    public static final List<String> FIELDS = List.of("id", "name", "skillLevel", "position", "totalDebt",
+            "totalPaid", "gamesPlayed", "goalsScored", "attended", "activo");
+
+    private final String id;
+    private final String name;
+    private final int skillLevel;
+    private final String position;
+    private final double totalDebt;
+    private final double totalPaid;
+    private final int gamesPlayed;
+    private final int goalsScored;
+    private final boolean attended;
+    private final boolean activo;
+
+    public PlayerRowDTO(String id, String name, int skillLevel, String position, double totalDebt,
+                        double totalPaid, int gamesPlayed, int goalsScored, boolean attended, boolean activo) {
+        this.id = id;
+        this.name = name;
+        this.skillLevel = skillLevel;
+        this.position = position;
+        this.totalDebt = totalDebt;
+        this.totalPaid = totalPaid;
+        this.gamesPlayed = gamesPlayed;
+        this.goalsScored = goalsScored;
+        this.attended = attended;
+        this.activo = activo;
+    }
+
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public int getSkillLevel() { return skillLevel; }
+    public String getPosition() { return position; }
+    public double getTotalDebt() { return totalDebt; }
+    public double getTotalPaid() { return totalPaid; }
+    public int getGamesPlayed() { return gamesPlayed; }
+    public int getGoalsScored() { return goalsScored; }
+    public boolean isAttended() { return attended; }
+    public boolean isActivo() { return activo; }
+}
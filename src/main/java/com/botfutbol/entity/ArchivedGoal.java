@@ -0,0 +1,52 @@
+package com.botfutbol.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Gol de una temporada cerrada (copia de la fila de goals con el ID de su temporada).
+ * Las filas se copian con INSERT ... SELECT al cerrar la temporada y no se modifican.
+ */
+@Entity
+@Immutable
+@Table(name = "goals_archive", indexes = {
+        // Goles de una temporada en orden cronológico
+        @Index(name = "idx_goals_archive_season_timestamp", columnList = "season_id, timestamp")
+})
+public class ArchivedGoal {
+
+    @Id
+    private String id;
+
+    @Column(name = "season_id", nullable = false, length = 36)
+    private String seasonId;
+
+    @Column(name = "player_id", nullable = false)
+    private String playerId;
+
+    @Column(name = "player_name", nullable = false, length = 100)
+    private String playerName;
+
+    @Column(name = "team_id", nullable = false)
+    private String teamId;
+
+    @Column(nullable = false)
+    private LocalDateTime timestamp;
+
+    @Column(name = "match_id", nullable = false)
+    private String matchId;
+
+    protected ArchivedGoal() {}
+
+    // Getters
+
+    public String getId() { return id; }
+    public String getSeasonId() { return seasonId; }
+    public String getPlayerId() { return playerId; }
+    public String getPlayerName() { return playerName; }
+    public String getTeamId() { return teamId; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public String getMatchId() { return matchId; }
+}
@@ -0,0 +1,42 @@
+package com.botfutbol.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cambio de nivel de una temporada cerrada (copia de la fila de player_level_history con el ID de su temporada).
+ * Las filas se copian con INSERT ... SELECT al cerrar la temporada y no se modifican.
+ */
+@Entity
+@Immutable
+@Table(name = "player_level_history_archive", indexes = {
+        // Historial de una temporada por jugador y fecha
+        @Index(name = "idx_level_history_archive_season_player_date", columnList = "season_id, player_name, date")
+})
+public class ArchivedLevelChange {
+
+    // Mismo ID que tenía en player_level_history
+    @Id
+    private Long id;
+
+    @Column(name = "season_id", nullable = false, length = 36)
+    private String seasonId;
+
+    private String playerName;
+    private int previousLevel;
+    private int newLevel;
+    private LocalDateTime date;
+
+    protected ArchivedLevelChange() {}
+
+    // Getters
+
+    public Long getId() { return id; }
+    public String getSeasonId() { return seasonId; }
+    public String getPlayerName() { return playerName; }
+    public int getPreviousLevel() { return previousLevel; }
+    public int getNewLevel() { return newLevel; }
+    public LocalDateTime getDate() { return date; }
+}
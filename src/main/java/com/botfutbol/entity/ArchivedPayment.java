@@ -0,0 +1,69 @@
+package com.botfutbol.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pago de una temporada cerrada (copia de la fila de payments con el ID de su temporada).
+ * Las filas se copian con INSERT ... SELECT al cerrar la temporada y no se modifican.
+ */
+@Entity
+@Immutable
+@Table(name = "payments_archive", indexes = {
+        // Pagos de una temporada en orden cronológico
+        @Index(name = "idx_payments_archive_season_timestamp", columnList = "season_id, timestamp"),
+        // Un pedido repetido después del cierre sigue encontrando su pago
+        @Index(name = "idx_payments_archive_idempotency_key", columnList = "idempotency_key")
+})
+public class ArchivedPayment {
+
+    @Id
+    private String id;
+
+    @Column(name = "season_id", nullable = false, length = 36)
+    private String seasonId;
+
+    @Column(name = "player_id", nullable = false)
+    private String playerId;
+
+    @Column(name = "player_name", nullable = false, length = 100)
+    private String playerName;
+
+    @Column(nullable = false)
+    private double amount;
+
+    @Column(nullable = false)
+    private LocalDateTime timestamp;
+
+    @Column(length = 200)
+    private String concept;
+
+    @Column(name = "idempotency_key", length = Payment.MAX_IDEMPOTENCY_KEY_LENGTH)
+    private String idempotencyKey;
+
+    protected ArchivedPayment() {}
+
+    /**
+     * El pago tal como estaba antes de archivarse.
+     */
+    public Payment toPayment() {
+        Payment payment = new Payment(playerId, playerName, amount, concept);
+        payment.setId(id);
+        payment.setTimestamp(timestamp);
+        payment.setIdempotencyKey(idempotencyKey);
+        return payment;
+    }
+
+    // Getters
+
+    public String getId() { return id; }
+    public String getSeasonId() { return seasonId; }
+    public String getPlayerId() { return playerId; }
+    public String getPlayerName() { return playerName; }
+    public double getAmount() { return amount; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public String getConcept() { return concept; }
+    public String getIdempotencyKey() { return idempotencyKey; }
+}
@@ -0,0 +1,33 @@
+package com.botfutbol.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Base de las entidades cuyo ID se asigna en el constructor (UUID o clave natural).
+ * Como el ID nunca es null, Spring Data no puede saber por el ID si la entidad es nueva
+ * y haría merge (un SELECT antes de cada INSERT). Esta clase se lo indica: la entidad es nueva
+ * hasta que se guarda o se lee de la base de datos.
+ */
+@MappedSuperclass
+public abstract class AssignedIdEntity implements Persistable<String> {
+
+    @Transient
+    private boolean isNew = true;
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
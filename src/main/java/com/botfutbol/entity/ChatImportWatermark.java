@@ -0,0 +1,51 @@
+package com.botfutbol.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marca de agua de importación de chat por grupo.
+ * Guarda el último minuto con timestamp ya importado y las huellas (hashes de 64 bits)
+ * de los mensajes de ese minuto, para no volver a procesarlos.
+ * La versión evita que dos importaciones del mismo grupo que leyeron la misma marca apliquen ambas
+ * el mismo tramo: la segunda en guardar falla y su transacción se deshace.
+ */
+@Entity
+@Table(name = "chat_import_watermarks")
+public class ChatImportWatermark extends AssignedIdEntity {
+    @Id
+    private String groupId;
+
+    private LocalDateTime lastMessageAt;
+
+    @Column(length = 100_000_000)
+    private byte[] lastMinuteFingerprints;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
+    private LocalDateTime updatedAt;
+
+    public ChatImportWatermark() {}
+
+    public ChatImportWatermark(String groupId) {
+        this.groupId = groupId;
+    }
+
+    // Getters y setters
+    @Override
+    public String getId() { return groupId; }
+    public String getGroupId() { return groupId; }
+    public LocalDateTime getLastMessageAt() { return lastMessageAt; }
+    public byte[] getLastMinuteFingerprints() { return lastMinuteFingerprints; }
+    public long getVersion() { return version; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setGroupId(String groupId) { this.groupId = groupId; }
+    public void setLastMessageAt(LocalDateTime lastMessageAt) { this.lastMessageAt = lastMessageAt; }
+    public void setLastMinuteFingerprints(byte[] lastMinuteFingerprints) { this.lastMinuteFingerprints = lastMinuteFingerprints; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
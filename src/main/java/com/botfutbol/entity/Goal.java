@@ -9,8 +9,11 @@ import java.util.UUID;
  * Registra quién anotó, a qué equipo pertenece y cuándo fue el gol.
  */
 @Entity
-@Table(name = "goals")
-public class Goal {
+@Table(name = "goals", indexes = {
+        // Listado paginado por cursor (del más reciente al más antiguo)
+        @Index(name = "idx_goals_timestamp_id", columnList = "timestamp, id")
+})
+public class Goal extends AssignedIdEntity {
     
     @Id
     private String id;
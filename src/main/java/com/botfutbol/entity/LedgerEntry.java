@@ -0,0 +1,106 @@
+package com.botfutbol.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Movimiento del libro de cuentas de un jugador (solo se agregan, nunca se modifican ni se borran).
+ * Un débito suma deuda (partido jugado, deuda manual) y un crédito suma lo pagado (pagos).
+ * Las correcciones son movimientos nuevos: editar o borrar un pago agrega un crédito por la diferencia.
+ * Los montos se guardan en centavos (enteros) para que las sumas sean exactas.
+ */
+@Entity
+@Immutable
+@Table(name = "ledger_entries", indexes = {
+        // Movimientos de un jugador y verificación agrupada por jugador
+        @Index(name = "idx_ledger_entries_player_id", columnList = "player_id")
+})
+public class LedgerEntry extends AssignedIdEntity {
+
+    // Centavos por unidad de moneda
+    private static final int MINOR_UNITS = 100;
+
+    public enum Reason {
+        OPENING_BALANCE,   // Saldo que ya tenía el jugador cuando se creó el libro
+        MATCH_CHARGE,      // Costo de un partido
+        DEBT,              // Deuda agregada a mano
+        PAYMENT,           // Pago registrado
+        PAYMENT_ADJUSTMENT, // Cambio de monto de un pago
+        PAYMENT_REVERSAL   // Pago eliminado
+    }
+
+    @Id
+    private String id;
+
+    @Column(name = "player_id", nullable = false, length = 36)
+    private String playerId;
+
+    @Column(name = "debit_minor", nullable = false)
+    private long debitMinor;
+
+    @Column(name = "credit_minor", nullable = false)
+    private long creditMinor;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private Reason reason;
+
+    // ID del pago o del partido que originó el movimiento
+    @Column(length = 36)
+    private String reference;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    protected LedgerEntry() {}
+
+    private LedgerEntry(String playerId, long debitMinor, long creditMinor, Reason reason, String reference) {
+        this.id = UUID.randomUUID().toString();
+        this.playerId = playerId;
+        this.debitMinor = debitMinor;
+        this.creditMinor = creditMinor;
+        this.reason = reason;
+        this.reference = reference;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    /**
+     * Movimiento que suma deuda (en centavos).
+     */
+    public static LedgerEntry debit(String playerId, long amountMinor, Reason reason, String reference) {
+        return new LedgerEntry(playerId, amountMinor, 0, reason, reference);
+    }
+
+    /**
+     * Movimiento que suma lo pagado (en centavos; negativo para revertir un pago).
+     */
+    public static LedgerEntry credit(String playerId, long amountMinor, Reason reason, String reference) {
+        return new LedgerEntry(playerId, 0, amountMinor, reason, reference);
+    }
+
+    /**
+     * Monto en centavos (redondeado al centavo).
+     */
+    public static long toMinor(double amount) {
+        return Math.round(amount * MINOR_UNITS);
+    }
+
+    /**
+     * Monto en unidades de moneda.
+     */
+    public static double toMajor(long amountMinor) {
+        return (double) amountMinor / MINOR_UNITS;
+    }
+
+    @Override
+    public String getId() { return id; }
+    public String getPlayerId() { return playerId; }
+    public long getDebitMinor() { return debitMinor; }
+    public long getCreditMinor() { return creditMinor; }
+    public Reason getReason() { return reason; }
+    public String getReference() { return reference; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -10,7 +10,7 @@ import java.util.UUID;
  */
 @Entity
 @Table(name = "matches")
-public class Match {
+public class Match extends AssignedIdEntity {
     
     @Id
     private String id;
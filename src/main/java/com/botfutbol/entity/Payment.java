@@ -9,8 +9,13 @@ import java.util.UUID;
  * Registra el monto, la fecha y a qué jugador corresponde.
  */
 @Entity
-@Table(name = "payments")
-public class Payment {
+@Table(name = "payments", indexes = {
+        // Listado paginado por cursor (del más reciente al más antiguo)
+        @Index(name = "idx_payments_timestamp_id", columnList = "timestamp, id")
+})
+public class Payment extends AssignedIdEntity {
+    
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
     
     @Id
     private String id;
@@ -30,6 +35,10 @@ public class Payment {
     @Column(length = 200)
     private String concept; // Ej: "Pago partido 15/12", "Adelanto"
     
+    // Clave que identifica el pedido que lo registró: un reintento con la misma clave no lo duplica
+    @Column(name = "idempotency_key", unique = true, length = Payment.MAX_IDEMPOTENCY_KEY_LENGTH)
+    private String idempotencyKey;
+    
     public Payment() {
         this.id = UUID.randomUUID().toString();
         this.timestamp = LocalDateTime.now();
@@ -97,6 +106,28 @@ public class Payment {
         this.concept = concept;
     }
     
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+    
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+    
+    /**
+     * Copia independiente del pago (mismo ID), para no compartir instancias entre hilos o transacciones.
+     */
+    public Payment copy() {
+        Payment copy = new Payment(playerId, playerName, amount, concept);
+        copy.id = id;
+        copy.timestamp = timestamp;
+        copy.idempotencyKey = idempotencyKey;
+        if (!isNew()) {
+            copy.markNotNew();
+        }
+        return copy;
+    }
+    
     @Override
     public String toString() {
         return "Payment{" +
@@ -1,6 +1,9 @@
 package com.botfutbol.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
 import java.util.UUID;
 
 /**
@@ -8,8 +11,13 @@ import java.util.UUID;
  * Almacena información básica del jugador como nombre, habilidad y estado de pago.
  */
 @Entity
-@Table(name = "players")
-public class Player {
+@Table(name = "players", indexes = {
+        // Ranking de goleadores
+        @Index(name = "idx_players_goals_scored", columnList = "goals_scored"),
+        // Deudores ordenados por monto (rango outstanding > 0)
+        @Index(name = "idx_players_outstanding", columnList = "outstanding")
+})
+public class Player extends AssignedIdEntity {
 
     @Id
     private String id;
@@ -29,6 +37,12 @@ public class Player {
     @Column(name = "total_paid")
     private double totalPaid; // Total pagado
 
+    // Deuda pendiente (totalDebt - totalPaid; negativa si pagó de más). Se guarda para poder indexarla:
+    // los setters de los totales la recalculan y los UPDATE de PlayerRepository la actualizan junto con ellos
+    @ColumnDefault("0")
+    @Column(name = "outstanding", nullable = false)
+    private double outstanding;
+
     @Column(name = "games_played")
     private int gamesPlayed;
 
@@ -104,6 +118,7 @@ public class Player {
 
     public void setTotalDebt(double totalDebt) {
         this.totalDebt = totalDebt;
+        this.outstanding = totalDebt - totalPaid;
     }
 
     public double getTotalPaid() {
@@ -112,6 +127,13 @@ public class Player {
 
     public void setTotalPaid(double totalPaid) {
         this.totalPaid = totalPaid;
+        this.outstanding = totalDebt - totalPaid;
+    }
+
+    // Columna interna para el índice de deudores: no forma parte del JSON del jugador
+    @JsonIgnore
+    public double getOutstanding() {
+        return outstanding;
     }
 
     public int getGamesPlayed() {
@@ -146,6 +168,25 @@ public class Player {
         this.activo = activo;
     }
 
+    /**
+     * Copia independiente del jugador (mismo ID), para no compartir instancias entre hilos o transacciones.
+     */
+    public Player copy() {
+        Player copy = new Player(name, skillLevel, position);
+        copy.id = id;
+        copy.totalDebt = totalDebt;
+        copy.totalPaid = totalPaid;
+        copy.outstanding = outstanding;
+        copy.gamesPlayed = gamesPlayed;
+        copy.goalsScored = goalsScored;
+        copy.attended = attended;
+        copy.activo = activo;
+        if (!isNew()) {
+            copy.markNotNew();
+        }
+        return copy;
+    }
+
     @Override
     public String toString() {
         return "Player{" +
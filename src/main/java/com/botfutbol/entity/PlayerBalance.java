@@ -0,0 +1,70 @@
+package com.botfutbol.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Saldo de un jugador según el libro de cuentas (LedgerEntry), en centavos.
+ * Se actualiza en la misma transacción que cada movimiento, así leer un saldo es leer una fila.
+ */
+@Entity
+@Table(name = "player_balances")
+public class PlayerBalance extends AssignedIdEntity {
+
+    @Id
+    @Column(name = "player_id", length = 36)
+    private String playerId;
+
+    @Column(name = "debit_minor", nullable = false)
+    private long debitMinor;
+
+    @Column(name = "credit_minor", nullable = false)
+    private long creditMinor;
+
+    @Column(name = "entry_count", nullable = false)
+    private long entryCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public PlayerBalance() {}
+
+    public PlayerBalance(String playerId) {
+        this.playerId = playerId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Suma un movimiento al saldo.
+     */
+    public void apply(LedgerEntry entry) {
+        debitMinor += entry.getDebitMinor();
+        creditMinor += entry.getCreditMinor();
+        entryCount++;
+    }
+
+    /**
+     * Pagado menos deuda (negativo si el jugador debe).
+     */
+    public long getBalanceMinor() {
+        return creditMinor - debitMinor;
+    }
+
+    @Override
+    public String getId() { return playerId; }
+
+    public String getPlayerId() { return playerId; }
+    public void setPlayerId(String playerId) { this.playerId = playerId; }
+
+    public long getDebitMinor() { return debitMinor; }
+    public void setDebitMinor(long debitMinor) { this.debitMinor = debitMinor; }
+
+    public long getCreditMinor() { return creditMinor; }
+    public void setCreditMinor(long creditMinor) { this.creditMinor = creditMinor; }
+
+    public long getEntryCount() { return entryCount; }
+    public void setEntryCount(long entryCount) { this.entryCount = entryCount; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
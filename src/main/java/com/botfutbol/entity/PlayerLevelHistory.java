@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "player_level_history")
+@Table(name = "player_level_history", indexes = {
+        // Historial de un jugador en orden de fecha
+        @Index(name = "idx_level_history_player_date", columnList = "player_name, date")
+})
 public class PlayerLevelHistory {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
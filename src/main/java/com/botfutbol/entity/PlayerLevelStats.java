@@ -0,0 +1,76 @@
+package com.botfutbol.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Resumen del historial de niveles de un jugador, mantenido con cada cambio de nivel.
+ * Permite calcular nivel anterior, promedio y nivel sugerido sin leer el historial completo.
+ */
+@Entity
+@Table(name = "player_level_stats")
+public class PlayerLevelStats extends AssignedIdEntity {
+
+    // Mismo nombre que PlayerLevelHistory.playerName
+    @Id
+    @Column(name = "player_name")
+    private String playerName;
+
+    @Column(name = "change_count", nullable = false)
+    private int changeCount;
+
+    @Column(name = "new_level_sum", nullable = false)
+    private int newLevelSum;
+
+    // previousLevel del primer cambio
+    @Column(name = "first_previous_level", nullable = false)
+    private int firstPreviousLevel;
+
+    // newLevel del último y del penúltimo cambio
+    @Column(name = "last_new_level", nullable = false)
+    private int lastNewLevel;
+
+    @Column(name = "second_last_new_level", nullable = false)
+    private int secondLastNewLevel;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public PlayerLevelStats() {}
+
+    public PlayerLevelStats(String playerName) {
+        this.playerName = playerName;
+    }
+
+    /**
+     * Suma un cambio de nivel (los cambios deben llegar en orden de fecha).
+     */
+    public void addChange(int previousLevel, int newLevel) {
+        if (changeCount == 0) {
+            firstPreviousLevel = previousLevel;
+        }
+        secondLastNewLevel = lastNewLevel;
+        lastNewLevel = newLevel;
+        newLevelSum += newLevel;
+        changeCount++;
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters y setters
+    @Override
+    public String getId() { return playerName; }
+    public String getPlayerName() { return playerName; }
+    public int getChangeCount() { return changeCount; }
+    public int getNewLevelSum() { return newLevelSum; }
+    public int getFirstPreviousLevel() { return firstPreviousLevel; }
+    public int getLastNewLevel() { return lastNewLevel; }
+    public int getSecondLastNewLevel() { return secondLastNewLevel; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setPlayerName(String playerName) { this.playerName = playerName; }
+    public void setChangeCount(int changeCount) { this.changeCount = changeCount; }
+    public void setNewLevelSum(int newLevelSum) { this.newLevelSum = newLevelSum; }
+    public void setFirstPreviousLevel(int firstPreviousLevel) { this.firstPreviousLevel = firstPreviousLevel; }
+    public void setLastNewLevel(int lastNewLevel) { this.lastNewLevel = lastNewLevel; }
+    public void setSecondLastNewLevel(int secondLastNewLevel) { this.secondLastNewLevel = secondLastNewLevel; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
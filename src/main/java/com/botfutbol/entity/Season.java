@@ -0,0 +1,57 @@
+package com.botfutbol.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Temporada cerrada.
+ * Al cerrar una temporada, sus pagos, goles e historial de niveles pasan a las tablas de archivo
+ * (marcados con el ID de la temporada) y se pueden seguir consultando.
+ */
+@Entity
+@Table(name = "seasons", indexes = {
+        // Listado de temporadas de la más reciente a la más antigua
+        @Index(name = "idx_seasons_closed_at", columnList = "closed_at")
+})
+public class Season extends AssignedIdEntity {
+
+    @Id
+    private String id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "closed_at", nullable = false)
+    private LocalDateTime closedAt;
+
+    @Column(name = "payments_archived", nullable = false)
+    private int paymentsArchived;
+
+    @Column(name = "goals_archived", nullable = false)
+    private int goalsArchived;
+
+    @Column(name = "level_changes_archived", nullable = false)
+    private int levelChangesArchived;
+
+    protected Season() {}
+
+    public Season(String name) {
+        this.id = UUID.randomUUID().toString();
+        this.name = name;
+        this.closedAt = LocalDateTime.now();
+    }
+
+    // Getters y Setters
+
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public LocalDateTime getClosedAt() { return closedAt; }
+    public int getPaymentsArchived() { return paymentsArchived; }
+    public int getGoalsArchived() { return goalsArchived; }
+    public int getLevelChangesArchived() { return levelChangesArchived; }
+
+    public void setPaymentsArchived(int paymentsArchived) { this.paymentsArchived = paymentsArchived; }
+    public void setGoalsArchived(int goalsArchived) { this.goalsArchived = goalsArchived; }
+    public void setLevelChangesArchived(int levelChangesArchived) { this.levelChangesArchived = levelChangesArchived; }
+}
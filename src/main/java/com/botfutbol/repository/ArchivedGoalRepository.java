@@ -0,0 +1,31 @@
+package com.botfutbol.repository;
+
+import com.botfutbol.entity.ArchivedGoal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio del archivo de goles.
+ * Responsabilidad: Archivar los goles de la temporada y consultar los de temporadas cerradas.
+ */
+@Repository
+public interface ArchivedGoalRepository extends JpaRepository<ArchivedGoal, String> {
+
+    /**
+     * Copia todos los goles actuales al archivo con una sola sentencia INSERT ... SELECT.
+     * Devuelve la cantidad de goles archivados.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("INSERT INTO ArchivedGoal (id, seasonId, playerId, playerName, teamId, timestamp, matchId) " +
+           "SELECT g.id, :seasonId, g.playerId, g.playerName, g.teamId, g.timestamp, g.matchId FROM Goal g")
+    int archiveCurrentGoals(String seasonId);
+
+    /**
+     * Goles de una temporada en orden cronológico.
+     */
+    List<ArchivedGoal> findBySeasonIdOrderByTimestampAscIdAsc(String seasonId);
+}
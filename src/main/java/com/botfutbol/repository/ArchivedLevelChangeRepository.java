@@ -0,0 +1,31 @@
+package com.botfutbol.repository;
+
+import com.botfutbol.entity.ArchivedLevelChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio del archivo de cambios de nivel.
+ * Responsabilidad: Archivar el historial de niveles de la temporada y consultar el de temporadas cerradas.
+ */
+@Repository
+public interface ArchivedLevelChangeRepository extends JpaRepository<ArchivedLevelChange, Long> {
+
+    /**
+     * Copia todo el historial de niveles actual al archivo con una sola sentencia INSERT ... SELECT.
+     * Devuelve la cantidad de cambios archivados.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("INSERT INTO ArchivedLevelChange (id, seasonId, playerName, previousLevel, newLevel, date) " +
+           "SELECT h.id, :seasonId, h.playerName, h.previousLevel, h.newLevel, h.date FROM PlayerLevelHistory h")
+    int archiveCurrentLevelHistory(String seasonId);
+
+    /**
+     * Historial de niveles de una temporada por jugador y fecha.
+     */
+    List<ArchivedLevelChange> findBySeasonIdOrderByPlayerNameAscDateAscIdAsc(String seasonId);
+}
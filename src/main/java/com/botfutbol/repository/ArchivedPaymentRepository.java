@@ -0,0 +1,38 @@
+package com.botfutbol.repository;
+
+import com.botfutbol.entity.ArchivedPayment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio del archivo de pagos.
+ * Responsabilidad: Archivar los pagos de la temporada y consultar los de temporadas cerradas.
+ */
+@Repository
+public interface ArchivedPaymentRepository extends JpaRepository<ArchivedPayment, String> {
+
+    /**
+     * Copia todos los pagos actuales al archivo con una sola sentencia INSERT ... SELECT.
+     * Devuelve la cantidad de pagos archivados.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("INSERT INTO ArchivedPayment (id, seasonId, playerId, playerName, amount, timestamp, concept, idempotencyKey) " +
+           "SELECT p.id, :seasonId, p.playerId, p.playerName, p.amount, p.timestamp, p.concept, p.idempotencyKey " +
+           "FROM Payment p")
+    int archiveCurrentPayments(String seasonId);
+
+    /**
+     * Pagos de una temporada en orden cronológico.
+     */
+    List<ArchivedPayment> findBySeasonIdOrderByTimestampAscIdAsc(String seasonId);
+
+    /**
+     * Busca el pago archivado registrado con una clave de idempotencia.
+     */
+    Optional<ArchivedPayment> findFirstByIdempotencyKey(String idempotencyKey);
+}
@@ -0,0 +1,13 @@
+package com.botfutbol.repository;
+
+import com.botfutbol.entity.ChatImportWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para las marcas de agua de importación de chat.
+ * Responsabilidad: Guardar y leer, por grupo, hasta dónde se importó el chat.
+ */
+@Repository
+public interface ChatImportWatermarkRepository extends JpaRepository<ChatImportWatermark, String> {
+}
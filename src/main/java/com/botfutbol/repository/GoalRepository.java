@@ -1,17 +1,26 @@
 package com.botfutbol.repository;
 
+import com.botfutbol.dto.GoalRowDTO;
 import com.botfutbol.entity.Goal;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para administrar goles.
  * Responsabilidad: Guardar, leer y consultar goles registrados usando Spring Data JPA.
  */
 @Repository
-public interface GoalRepository extends JpaRepository<Goal, String> {
+public interface GoalRepository extends JpaRepository<Goal, String>, SelectedFieldsRepository {
     
     /**
      * Busca goles por jugador (ID).
@@ -37,4 +46,35 @@ public interface GoalRepository extends JpaRepository<Goal, String> {
      * Cuenta goles de un equipo.
      */
     long countByTeamId(String teamId);
+
+    /**
+     * Borra con una sola sentencia los goles ya copiados al archivo de una temporada.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Goal g WHERE g.id IN (SELECT a.id FROM ArchivedGoal a WHERE a.seasonId = :seasonId)")
+    int deleteArchived(String seasonId);
+
+    /**
+     * Primera página de goles, del más reciente al más antiguo (proyección, sin cargar entidades).
+     */
+    @Query("SELECT new com.botfutbol.dto.GoalRowDTO(g.id, g.playerId, g.playerName, g.teamId, g.timestamp, g.matchId) " +
+           "FROM Goal g ORDER BY g.timestamp DESC, g.id DESC")
+    List<GoalRowDTO> findRows(Pageable page);
+
+    /**
+     * Todos los goles, del más antiguo al más reciente, leídos de a bloques
+     * (usar dentro de una transacción y cerrar el stream).
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.botfutbol.dto.GoalRowDTO(g.id, g.playerId, g.playerName, g.teamId, g.timestamp, g.matchId) " +
+           "FROM Goal g ORDER BY g.timestamp, g.id")
+    Stream<GoalRowDTO> streamRows();
+
+    /**
+     * Página de goles anteriores al cursor (timestamp, id) en el mismo orden.
+     */
+    @Query("SELECT new com.botfutbol.dto.GoalRowDTO(g.id, g.playerId, g.playerName, g.teamId, g.timestamp, g.matchId) " +
+           "FROM Goal g WHERE g.timestamp <= :timestamp AND (g.timestamp < :timestamp OR g.id < :id) " +
+           "ORDER BY g.timestamp DESC, g.id DESC")
+    List<GoalRowDTO> findRowsBefore(LocalDateTime timestamp, String id, Pageable page);
 }
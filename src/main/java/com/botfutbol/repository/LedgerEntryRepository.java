@@ -0,0 +1,20 @@
+package com.botfutbol.repository;
+
+import com.botfutbol.entity.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio del libro de cuentas.
+ * Responsabilidad: Agregar y leer movimientos (LedgerEntry) usando Spring Data JPA.
+ */
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, String> {
+
+    /**
+     * Movimientos de un jugador en orden cronológico.
+     */
+    List<LedgerEntry> findByPlayerIdOrderByCreatedAtAsc(String playerId);
+}
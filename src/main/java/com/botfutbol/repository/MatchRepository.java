@@ -2,6 +2,8 @@ package com.botfutbol.repository;
 
 import com.botfutbol.entity.Match;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -33,4 +35,12 @@ public interface MatchRepository extends JpaRepository<Match, String> {
      * Cuenta partidos activos.
      */
     long countByActiveTrue();
+
+    /**
+     * Marca como finalizados todos los partidos activos con una sola sentencia.
+     * Devuelve la cantidad de partidos finalizados.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Match m SET m.active = false WHERE m.active = true")
+    int endActiveMatches();
 }
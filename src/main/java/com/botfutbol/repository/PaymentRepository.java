@@ -1,18 +1,29 @@
 package com.botfutbol.repository;
 
+import com.botfutbol.dto.PaymentRowDTO;
 import com.botfutbol.entity.Payment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para administrar pagos.
  * Responsabilidad: Guardar, leer y consultar pagos realizados usando Spring Data JPA.
  */
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, String> {
+public interface PaymentRepository extends JpaRepository<Payment, String>, PaymentRepositoryCustom,
+        SelectedFieldsRepository {
     
     /**
      * Busca pagos por jugador (ID).
@@ -24,9 +35,74 @@ public interface PaymentRepository extends JpaRepository<Payment, String> {
      */
     List<Payment> findByPlayerNameIgnoreCase(String playerName);
     
+    /**
+     * Busca el pago registrado con una clave de idempotencia.
+     */
+    Optional<Payment> findByIdempotencyKey(String idempotencyKey);
+    
+    /**
+     * Claves de idempotencia, de las indicadas, que ya tienen un pago registrado
+     * (en la temporada actual o en una cerrada).
+     */
+    @Query("SELECT p.idempotencyKey FROM Payment p WHERE p.idempotencyKey IN :keys " +
+           "UNION SELECT a.idempotencyKey FROM ArchivedPayment a WHERE a.idempotencyKey IN :keys")
+    List<String> findExistingIdempotencyKeys(Collection<String> keys);
+    
     /**
      * Calcula el total pagado por un jugador.
      */
     @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.playerId = :playerId")
     Double getTotalPaidByPlayer(String playerId);
+
+    /**
+     * Total pagado por cada jugador con pagos, calculado en la base.
+     */
+    @Query("SELECT p.playerId AS playerId, SUM(p.amount) AS amount FROM Payment p GROUP BY p.playerId")
+    List<PlayerPaymentTotal> sumAmountsByPlayer();
+
+    /**
+     * Borra todos los pagos con una sola sentencia. Devuelve la cantidad de filas borradas.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Payment p")
+    int deleteAllPayments();
+
+    /**
+     * Borra con una sola sentencia los pagos ya copiados al archivo de una temporada.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Payment p WHERE p.id IN (SELECT a.id FROM ArchivedPayment a WHERE a.seasonId = :seasonId)")
+    int deleteArchived(String seasonId);
+
+    /**
+     * Primera página de pagos, del más reciente al más antiguo (proyección, sin cargar entidades).
+     */
+    @Query("SELECT new com.botfutbol.dto.PaymentRowDTO(p.id, p.playerId, p.playerName, p.amount, p.timestamp, p.concept) " +
+           "FROM Payment p ORDER BY p.timestamp DESC, p.id DESC")
+    List<PaymentRowDTO> findRows(Pageable page);
+
+    /**
+     * Todos los pagos, del más antiguo al más reciente, leídos de a bloques
+     * (usar dentro de una transacción y cerrar el stream).
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.botfutbol.dto.PaymentRowDTO(p.id, p.playerId, p.playerName, p.amount, p.timestamp, p.concept) " +
+           "FROM Payment p ORDER BY p.timestamp, p.id")
+    Stream<PaymentRowDTO> streamRows();
+
+    /**
+     * Página de pagos anteriores al cursor (timestamp, id) en el mismo orden.
+     */
+    @Query("SELECT new com.botfutbol.dto.PaymentRowDTO(p.id, p.playerId, p.playerName, p.amount, p.timestamp, p.concept) " +
+           "FROM Payment p WHERE p.timestamp <= :timestamp AND (p.timestamp < :timestamp OR p.id < :id) " +
+           "ORDER BY p.timestamp DESC, p.id DESC")
+    List<PaymentRowDTO> findRowsBefore(LocalDateTime timestamp, String id, Pageable page);
+
+    /**
+     * Fila de sumAmountsByPlayer
+     */
+    interface PlayerPaymentTotal {
+        String getPlayerId();
+        double getAmount();
+    }
 }
@@ -0,0 +1,16 @@
+package com.botfutbol.repository;
+
+import com.botfutbol.entity.Payment;
+
+import java.util.List;
+
+/**
+ * Operaciones de escritura masiva sobre pagos que no cubre Spring Data.
+ */
+public interface PaymentRepositoryCustom {
+
+    /**
+     * Inserta pagos nuevos en un solo batch JDBC.
+     */
+    void insertAllInBatch(List<Payment> payments);
+}
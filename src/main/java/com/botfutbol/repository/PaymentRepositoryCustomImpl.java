@@ -0,0 +1,39 @@
+package com.botfutbol.repository;
+
+import com.botfutbol.entity.Payment;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Implementación JDBC de las operaciones masivas sobre pagos.
+ * Usa la misma conexión que la transacción JPA en curso.
+ */
+public class PaymentRepositoryCustomImpl implements PaymentRepositoryCustom {
+
+    private static final String INSERT_PAYMENT_SQL =
+            "INSERT INTO payments (id, player_id, player_name, amount, timestamp, concept, idempotency_key) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PaymentRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAllInBatch(List<Payment> payments) {
+        if (payments.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_PAYMENT_SQL, payments, payments.size(), (ps, payment) -> {
+            ps.setString(1, payment.getId());
+            ps.setString(2, payment.getPlayerId());
+            ps.setString(3, payment.getPlayerName());
+            ps.setDouble(4, payment.getAmount());
+            ps.setTimestamp(5, Timestamp.valueOf(payment.getTimestamp()));
+            ps.setString(6, payment.getConcept());
+            ps.setString(7, payment.getIdempotencyKey());
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package com.botfutbol.repository;
+
+import com.botfutbol.entity.PlayerBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio de saldos de jugadores.
+ * Responsabilidad: Leer y mantener los saldos (PlayerBalance) usando Spring Data JPA.
+ */
+@Repository
+public interface PlayerBalanceRepository extends JpaRepository<PlayerBalance, String>, PlayerBalanceRepositoryCustom {
+}
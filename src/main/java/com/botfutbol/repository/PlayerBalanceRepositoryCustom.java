@@ -0,0 +1,69 @@
+package com.botfutbol.repository;
+
+import com.botfutbol.entity.PlayerBalance;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Operaciones masivas sobre saldos que no cubre Spring Data.
+ */
+public interface PlayerBalanceRepositoryCustom {
+
+    /**
+     * Suma a cada saldo los débitos, créditos y movimientos de su delta en un solo batch JDBC de upserts:
+     * el jugador que todavía no tiene saldo lo recibe en la misma sentencia, sin carrera entre transacciones.
+     */
+    void addToBalancesInBatch(Collection<PlayerBalance> deltas);
+
+    /**
+     * Jugadores cuyo saldo guardado o cuyos totales no coinciden con su libro de cuentas,
+     * calculados con una sola consulta (agregado del libro unido a saldos y jugadores).
+     */
+    List<BalanceMismatch> findBalanceMismatches();
+
+    /**
+     * Cantidad de jugadores con libro, saldo o fila de jugador (los que revisa findBalanceMismatches).
+     */
+    int countPlayersWithBalances();
+
+    /**
+     * Fila de findBalanceMismatches (montos en centavos salvo los totales del jugador).
+     * Los valores del saldo guardado son null si no hay fila; los del jugador, si no existe.
+     */
+    final class BalanceMismatch {
+        private final String playerId;
+        private final long ledgerDebitMinor;
+        private final long ledgerCreditMinor;
+        private final long ledgerEntryCount;
+        private final Long snapshotDebitMinor;
+        private final Long snapshotCreditMinor;
+        private final Long snapshotEntryCount;
+        private final Double playerTotalDebt;
+        private final Double playerTotalPaid;
+
+        public BalanceMismatch(String playerId, long ledgerDebitMinor, long ledgerCreditMinor, long ledgerEntryCount,
+                               Long snapshotDebitMinor, Long snapshotCreditMinor, Long snapshotEntryCount,
+                               Double playerTotalDebt, Double playerTotalPaid) {
+            this.playerId = playerId;
+            this.ledgerDebitMinor = ledgerDebitMinor;
+            this.ledgerCreditMinor = ledgerCreditMinor;
+            this.ledgerEntryCount = ledgerEntryCount;
+            this.snapshotDebitMinor = snapshotDebitMinor;
+            this.snapshotCreditMinor = snapshotCreditMinor;
+            this.snapshotEntryCount = snapshotEntryCount;
+            this.playerTotalDebt = playerTotalDebt;
+            this.playerTotalPaid = playerTotalPaid;
+        }
+
+        public String getPlayerId() { return playerId; }
+        public long getLedgerDebitMinor() { return ledgerDebitMinor; }
+        public long getLedgerCreditMinor() { return ledgerCreditMinor; }
+        public long getLedgerEntryCount() { return ledgerEntryCount; }
+        public Long getSnapshotDebitMinor() { return snapshotDebitMinor; }
+        public Long getSnapshotCreditMinor() { return snapshotCreditMinor; }
+        public Long getSnapshotEntryCount() { return snapshotEntryCount; }
+        public Double getPlayerTotalDebt() { return playerTotalDebt; }
+        public Double getPlayerTotalPaid() { return playerTotalPaid; }
+    }
+}
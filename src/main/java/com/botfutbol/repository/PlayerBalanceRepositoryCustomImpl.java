@@ -0,0 +1,128 @@
+package com.botfutbol.repository;
+
+import com.botfutbol.entity.PlayerBalance;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Implementación JDBC de las operaciones masivas sobre saldos.
+ * Usa la misma conexión que la transacción JPA en curso.
+ */
+public class PlayerBalanceRepositoryCustomImpl implements PlayerBalanceRepositoryCustom {
+
+    // Upsert que suma sobre el valor actual de la fila (no pisa movimientos de otra transacción).
+    // Parámetros en el mismo orden en las tres variantes: jugador, débito, crédito, movimientos, fecha.
+    private static final String POSTGRESQL_ADD_TO_BALANCE_SQL =
+            "INSERT INTO player_balances (player_id, debit_minor, credit_minor, entry_count, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT (player_id) DO UPDATE SET " +
+            "debit_minor = player_balances.debit_minor + EXCLUDED.debit_minor, " +
+            "credit_minor = player_balances.credit_minor + EXCLUDED.credit_minor, " +
+            "entry_count = player_balances.entry_count + EXCLUDED.entry_count, updated_at = EXCLUDED.updated_at";
+    private static final String MYSQL_ADD_TO_BALANCE_SQL =
+            "INSERT INTO player_balances (player_id, debit_minor, credit_minor, entry_count, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "debit_minor = debit_minor + VALUES(debit_minor), credit_minor = credit_minor + VALUES(credit_minor), " +
+            "entry_count = entry_count + VALUES(entry_count), updated_at = VALUES(updated_at)";
+    // MERGE estándar (H2)
+    private static final String MERGE_ADD_TO_BALANCE_SQL =
+            "MERGE INTO player_balances b USING (SELECT CAST(? AS VARCHAR(36)) AS player_id, " +
+            "CAST(? AS BIGINT) AS debit_minor, CAST(? AS BIGINT) AS credit_minor, CAST(? AS BIGINT) AS entry_count, " +
+            "CAST(? AS TIMESTAMP) AS updated_at) d ON (b.player_id = d.player_id) " +
+            "WHEN MATCHED THEN UPDATE SET debit_minor = b.debit_minor + d.debit_minor, " +
+            "credit_minor = b.credit_minor + d.credit_minor, entry_count = b.entry_count + d.entry_count, " +
+            "updated_at = d.updated_at " +
+            "WHEN NOT MATCHED THEN INSERT (player_id, debit_minor, credit_minor, entry_count, updated_at) " +
+            "VALUES (d.player_id, d.debit_minor, d.credit_minor, d.entry_count, d.updated_at)";
+
+    // Jugadores que aparecen en el libro, en los saldos o en la tabla de jugadores
+    private static final String PLAYER_IDS_SQL =
+            "SELECT id AS player_id FROM players UNION SELECT player_id FROM player_balances " +
+            "UNION SELECT player_id FROM ledger_entries";
+
+    // Libro agregado por jugador unido a su saldo y a sus totales; solo las filas que no coinciden.
+    // Los totales del jugador se comparan en centavos (LedgerEntry.toMinor).
+    private static final String BALANCE_MISMATCHES_SQL =
+            "SELECT k.player_id, COALESCE(l.debit_minor, 0), COALESCE(l.credit_minor, 0), COALESCE(l.entry_count, 0), " +
+            "b.debit_minor, b.credit_minor, b.entry_count, p.total_debt, p.total_paid " +
+            "FROM (" + PLAYER_IDS_SQL + ") k " +
+            "LEFT JOIN (SELECT player_id, SUM(debit_minor) AS debit_minor, SUM(credit_minor) AS credit_minor, " +
+            "COUNT(*) AS entry_count FROM ledger_entries GROUP BY player_id) l ON l.player_id = k.player_id " +
+            "LEFT JOIN player_balances b ON b.player_id = k.player_id " +
+            "LEFT JOIN players p ON p.id = k.player_id " +
+            "WHERE (b.player_id IS NULL AND l.entry_count > 0) " +
+            "OR b.debit_minor <> COALESCE(l.debit_minor, 0) OR b.credit_minor <> COALESCE(l.credit_minor, 0) " +
+            "OR b.entry_count <> COALESCE(l.entry_count, 0) " +
+            "OR ROUND(p.total_debt * 100) <> COALESCE(l.debit_minor, 0) " +
+            "OR ROUND(p.total_paid * 100) <> COALESCE(l.credit_minor, 0) " +
+            "ORDER BY k.player_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    // Variante del upsert según la base (se elige en el primer uso)
+    private volatile String addToBalanceSql;
+
+    public PlayerBalanceRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addToBalancesInBatch(Collection<PlayerBalance> deltas) {
+        if (deltas.isEmpty()) return;
+        jdbcTemplate.batchUpdate(addToBalanceSql(), deltas, deltas.size(), (ps, delta) -> {
+            ps.setString(1, delta.getPlayerId());
+            ps.setLong(2, delta.getDebitMinor());
+            ps.setLong(3, delta.getCreditMinor());
+            ps.setLong(4, delta.getEntryCount());
+            ps.setTimestamp(5, Timestamp.valueOf(delta.getUpdatedAt()));
+        });
+    }
+
+    @Override
+    public List<BalanceMismatch> findBalanceMismatches() {
+        List<BalanceMismatch> mismatches = jdbcTemplate.query(BALANCE_MISMATCHES_SQL, (rs, rowNum) -> new BalanceMismatch(
+                rs.getString(1), rs.getLong(2), rs.getLong(3), rs.getLong(4),
+                nullableLong(rs, 5), nullableLong(rs, 6), nullableLong(rs, 7),
+                nullableDouble(rs, 8), nullableDouble(rs, 9)));
+        return mismatches;
+    }
+
+    @Override
+    public int countPlayersWithBalances() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (" + PLAYER_IDS_SQL + ") k", Integer.class);
+        return count != null ? count : 0;
+    }
+
+    private String addToBalanceSql() {
+        String sql = addToBalanceSql;
+        if (sql == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if ("PostgreSQL".equalsIgnoreCase(product)) {
+                sql = POSTGRESQL_ADD_TO_BALANCE_SQL;
+            } else if ("MySQL".equalsIgnoreCase(product) || "MariaDB".equalsIgnoreCase(product)) {
+                sql = MYSQL_ADD_TO_BALANCE_SQL;
+            } else {
+                sql = MERGE_ADD_TO_BALANCE_SQL;
+            }
+            addToBalanceSql = sql;
+        }
+        return sql;
+    }
+
+    private static Long nullableLong(ResultSet rs, int column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Double nullableDouble(ResultSet rs, int column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+}
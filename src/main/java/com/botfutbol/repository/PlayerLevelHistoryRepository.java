@@ -1,9 +1,41 @@
 package com.botfutbol.repository;
 
 import com.botfutbol.entity.PlayerLevelHistory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface PlayerLevelHistoryRepository extends JpaRepository<PlayerLevelHistory, Long> {
     List<PlayerLevelHistory> findByPlayerNameOrderByDateAsc(String playerName);
+
+    /**
+     * Borra con una sola sentencia los cambios de nivel ya copiados al archivo de una temporada.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM PlayerLevelHistory h WHERE h.id IN " +
+           "(SELECT a.id FROM ArchivedLevelChange a WHERE a.seasonId = :seasonId)")
+    int deleteArchived(String seasonId);
+
+    /**
+     * Todos los cambios de nivel ordenados por jugador y fecha, leídos de a bloques (usar dentro de una transacción
+     * y cerrar el stream).
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT h.playerName AS playerName, h.previousLevel AS previousLevel, h.newLevel AS newLevel " +
+           "FROM PlayerLevelHistory h ORDER BY h.playerName, h.date, h.id")
+    Stream<LevelChangeRow> streamAllOrderByPlayerNameAndDate();
+
+    /**
+     * Fila de streamAllOrderByPlayerNameAndDate
+     */
+    interface LevelChangeRow {
+        String getPlayerName();
+        int getPreviousLevel();
+        int getNewLevel();
+    }
 }
@@ -0,0 +1,50 @@
+package com.botfutbol.repository;
+
+import com.botfutbol.entity.PlayerLevelStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio del resumen de niveles por jugador.
+ * Responsabilidad: Mantener y leer los agregados de PlayerLevelStats usando Spring Data JPA.
+ */
+public interface PlayerLevelStatsRepository extends JpaRepository<PlayerLevelStats, String> {
+
+    /**
+     * Suma un cambio de nivel al resumen existente del jugador en una sola sentencia.
+     * Devuelve 0 si el jugador todavía no tiene resumen.
+     * (En el SET, cada expresión usa los valores anteriores de la fila, como en PostgreSQL.)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PlayerLevelStats s SET s.secondLastNewLevel = s.lastNewLevel, s.lastNewLevel = :newLevel, " +
+           "s.newLevelSum = s.newLevelSum + :newLevel, s.changeCount = s.changeCount + 1, s.updatedAt = :updatedAt " +
+           "WHERE s.playerName = :playerName")
+    int addChange(String playerName, int newLevel, LocalDateTime updatedAt);
+
+    /**
+     * Jugadores activos con su resumen de niveles (null si no tienen cambios), ordenados por nombre.
+     */
+    @Query("SELECT p.name AS name, p.skillLevel AS skillLevel, s.changeCount AS changeCount, " +
+           "s.newLevelSum AS newLevelSum, s.firstPreviousLevel AS firstPreviousLevel, " +
+           "s.lastNewLevel AS lastNewLevel, s.secondLastNewLevel AS secondLastNewLevel " +
+           "FROM Player p LEFT JOIN PlayerLevelStats s ON s.playerName = p.name " +
+           "WHERE p.activo = true ORDER BY p.name")
+    List<LevelStatsRow> findActivePlayersLevelStats();
+
+    /**
+     * Fila de findActivePlayersLevelStats
+     */
+    interface LevelStatsRow {
+        String getName();
+        int getSkillLevel();
+        Integer getChangeCount();
+        Integer getNewLevelSum();
+        Integer getFirstPreviousLevel();
+        Integer getLastNewLevel();
+        Integer getSecondLastNewLevel();
+    }
+}
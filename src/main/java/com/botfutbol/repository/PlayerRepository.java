@@ -1,19 +1,29 @@
 package com.botfutbol.repository;
 
+import com.botfutbol.dto.PlayerRowDTO;
+import com.botfutbol.dto.PlayerStatsDTO;
 import com.botfutbol.entity.Player;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para administrar jugadores.
  * Responsabilidad: Guardar, leer, actualizar y eliminar jugadores usando Spring Data JPA.
  */
 @Repository
-public interface PlayerRepository extends JpaRepository<Player, String> {
+public interface PlayerRepository extends JpaRepository<Player, String>, PlayerRepositoryCustom,
+        SelectedFieldsRepository {
     
     /**
      * Busca un jugador por nombre (case insensitive).
@@ -31,16 +41,56 @@ public interface PlayerRepository extends JpaRepository<Player, String> {
     void deleteByNameIgnoreCase(String name);
     
     /**
-     * Obtiene jugadores con deuda.
+     * Obtiene jugadores con deuda, de la mayor a la menor (rango sobre el índice de outstanding).
      */
-    @Query("SELECT p FROM Player p WHERE p.totalDebt > p.totalPaid")
+    @Query("SELECT p FROM Player p WHERE p.outstanding > 0 ORDER BY p.outstanding DESC, p.name")
     List<Player> findPlayersWithDebt();
     
+    /**
+     * Los mayores deudores (tantos como indique page), de la mayor deuda a la menor.
+     */
+    @Query("SELECT p FROM Player p WHERE p.outstanding > 0 ORDER BY p.outstanding DESC, p.name")
+    List<Player> findTopDebtors(Pageable page);
+    
+    /**
+     * Cantidad de jugadores con deuda.
+     */
+    @Query("SELECT COUNT(p) FROM Player p WHERE p.outstanding > 0")
+    long countPlayersWithDebt();
+    
     /**
      * Obtiene los mejores goleadores.
      */
     List<Player> findTop10ByOrderByGoalsScoredDesc();
     
+    /**
+     * Obtiene los primeros goleadores (tantos como indique page) como proyección.
+     */
+    @Query("SELECT new com.botfutbol.dto.PlayerStatsDTO(p.name, p.goalsScored, p.gamesPlayed, 0) " +
+           "FROM Player p ORDER BY p.goalsScored DESC, p.name")
+    List<PlayerStatsDTO> findTopScorers(Pageable page);
+    
+    /**
+     * Totales para las estadísticas, en una sola consulta.
+     */
+    @Query("SELECT COUNT(p) AS totalPlayers, (SELECT COUNT(g) FROM Goal g) AS totalGoals, " +
+           "(SELECT COALESCE(SUM(d.outstanding), 0) FROM Player d WHERE d.outstanding > 0) AS totalDebt " +
+           "FROM Player p")
+    StatsTotals findStatsTotals();
+    
+    /**
+     * Filas para las estadísticas en una sola consulta: los primeros topScorersLimit goleadores
+     * (debtor = 0) y todos los jugadores con deuda (debtor = 1). Cada parte es un rango sobre su índice
+     * (goals_scored y outstanding); el orden de cada lista lo arma quien las usa.
+     */
+    @Query("(SELECT p.name AS name, p.goalsScored AS goalsScored, p.gamesPlayed AS gamesPlayed, " +
+           " p.totalDebt AS totalDebt, p.totalPaid AS totalPaid, p.outstanding AS outstanding, 0 AS debtor " +
+           " FROM Player p ORDER BY p.goalsScored DESC, p.name LIMIT :topScorersLimit) " +
+           "UNION ALL " +
+           "(SELECT p.name, p.goalsScored, p.gamesPlayed, p.totalDebt, p.totalPaid, p.outstanding, 1 " +
+           " FROM Player p WHERE p.outstanding > 0)")
+    List<StatsRow> findStatsRows(int topScorersLimit);
+    
     /**
      * Busca un jugador por nombre (case insensitive) y activo.
      */
@@ -50,4 +100,155 @@ public interface PlayerRepository extends JpaRepository<Player, String> {
      * Obtiene todos los jugadores activos.
      */
     List<Player> findAllByActivoTrue();
+    
+    /**
+     * Busca jugadores activos cuyo nombre en minúsculas esté en la lista (una sola consulta).
+     */
+    @Query("SELECT p FROM Player p WHERE LOWER(p.name) IN :lowerNames AND p.activo = true")
+    List<Player> findActiveByLowerNameIn(Collection<String> lowerNames);
+
+    /**
+     * Busca jugadores (activos o no) cuyo nombre en minúsculas esté en la lista (una sola consulta).
+     */
+    @Query("SELECT p FROM Player p WHERE LOWER(p.name) IN :lowerNames")
+    List<Player> findByLowerNameIn(Collection<String> lowerNames);
+
+    /**
+     * Primera página de jugadores ordenados por nombre (proyección, sin cargar entidades).
+     */
+    @Query("SELECT new com.botfutbol.dto.PlayerRowDTO(p.id, p.name, p.skillLevel, p.position, p.totalDebt, " +
+           "p.totalPaid, p.gamesPlayed, p.goalsScored, p.attended, p.activo) " +
+           "FROM Player p ORDER BY p.name, p.id")
+    List<PlayerRowDTO> findRows(Pageable page);
+
+    /**
+     * Todos los jugadores ordenados por nombre, leídos de a bloques
+     * (usar dentro de una transacción y cerrar el stream).
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.botfutbol.dto.PlayerRowDTO(p.id, p.name, p.skillLevel, p.position, p.totalDebt, " +
+           "p.totalPaid, p.gamesPlayed, p.goalsScored, p.attended, p.activo) " +
+           "FROM Player p ORDER BY p.name, p.id")
+    Stream<PlayerRowDTO> streamRows();
+
+    /**
+     * Página de jugadores posteriores al cursor (nombre, id) en el mismo orden.
+     */
+    @Query("SELECT new com.botfutbol.dto.PlayerRowDTO(p.id, p.name, p.skillLevel, p.position, p.totalDebt, " +
+           "p.totalPaid, p.gamesPlayed, p.goalsScored, p.attended, p.activo) " +
+           "FROM Player p WHERE p.name >= :name AND (p.name > :name OR p.id > :id) ORDER BY p.name, p.id")
+    List<PlayerRowDTO> findRowsAfter(String name, String id, Pageable page);
+
+    // Los contadores se actualizan con un UPDATE que suma sobre el valor de la fila, sin leerla antes:
+    // dos pedidos simultáneos no se pisan. Antes se escriben los cambios pendientes y después se limpia
+    // el contexto JPA para que no queden entidades con el valor viejo.
+    // outstanding se asigna primero y desde los valores anteriores de la fila: así da lo mismo
+    // si la base evalúa las asignaciones con los valores viejos (SQL estándar) o de izquierda a derecha (MySQL).
+    // Los que suman un monto son SQL nativo: en JPQL Hibernate 6.3 castea el parámetro a float($p)
+    // con el dialecto de H2 y la sentencia no compila.
+
+    /**
+     * Suma un gol al jugador. Devuelve la cantidad de filas actualizadas.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Player p SET p.goalsScored = p.goalsScored + 1 WHERE p.id = :playerId")
+    int incrementGoalsScored(String playerId);
+
+    /**
+     * Suma un partido jugado al jugador. Devuelve la cantidad de filas actualizadas.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Player p SET p.gamesPlayed = p.gamesPlayed + 1 WHERE p.id = :playerId")
+    int incrementGamesPlayed(String playerId);
+
+    /**
+     * Suma un monto a la deuda del jugador. Devuelve la cantidad de filas actualizadas.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE players SET outstanding = total_debt + :amount - total_paid, " +
+                   "total_debt = total_debt + :amount WHERE id = :playerId", nativeQuery = true)
+    int addToTotalDebt(String playerId, double amount);
+
+    /**
+     * Suma un monto (negativo para restar) al total pagado del jugador. Devuelve la cantidad de filas actualizadas.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE players SET outstanding = total_debt - (total_paid + :amount), " +
+                   "total_paid = total_paid + :amount WHERE id = :playerId", nativeQuery = true)
+    int addToTotalPaid(String playerId, double amount);
+
+    /**
+     * Suma un partido jugado y el costo del partido a la deuda de todos los jugadores indicados
+     * en una sola sentencia. Devuelve la cantidad de filas actualizadas.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE players SET outstanding = total_debt + :costPerPlayer - total_paid, " +
+                   "games_played = games_played + 1, total_debt = total_debt + :costPerPlayer " +
+                   "WHERE id IN :playerIds", nativeQuery = true)
+    int chargeMatchToPlayers(Collection<String> playerIds, double costPerPlayer);
+
+    /**
+     * Reemplaza la deuda y el total pagado del jugador (reparación desde el libro de cuentas).
+     * Devuelve la cantidad de filas actualizadas.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Player p SET p.totalDebt = :totalDebt, p.totalPaid = :totalPaid, " +
+           "p.outstanding = :totalDebt - :totalPaid WHERE p.id = :playerId")
+    int setTotals(String playerId, double totalDebt, double totalPaid);
+
+    /**
+     * Pone en cero los partidos jugados y los goles de todos los jugadores (cierre de temporada).
+     * Deuda, total pagado y outstanding no se tocan a propósito: el saldo pasa a la temporada siguiente
+     * y sigue coincidiendo con el libro de cuentas. Devuelve la cantidad de filas actualizadas.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Player p SET p.gamesPlayed = 0, p.goalsScored = 0 WHERE p.gamesPlayed <> 0 OR p.goalsScored <> 0")
+    int resetSeasonCounters();
+
+    /**
+     * Recalcula outstanding en las filas donde no coincide con sus totales
+     * (filas anteriores a la columna o escritas por fuera de la aplicación). Devuelve cuántas corrigió.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Player p SET p.outstanding = p.totalDebt - p.totalPaid " +
+           "WHERE p.outstanding <> p.totalDebt - p.totalPaid")
+    int syncOutstanding();
+
+    /**
+     * Deuda y total pagado de todos los jugadores (proyección, sin cargar entidades).
+     */
+    @Query("SELECT p.id AS id, p.totalDebt AS totalDebt, p.totalPaid AS totalPaid FROM Player p")
+    List<PlayerTotals> findAllTotals();
+
+    /**
+     * Fila de findAllTotals
+     */
+    interface PlayerTotals {
+        String getId();
+        double getTotalDebt();
+        double getTotalPaid();
+    }
+
+    /**
+     * Totales de las estadísticas (proyección de findStatsTotals)
+     */
+    interface StatsTotals {
+        long getTotalPlayers();
+        long getTotalGoals();
+        double getTotalDebt();
+    }
+
+    /**
+     * Fila de las estadísticas (proyección de findStatsRows)
+     */
+    interface StatsRow {
+        String getName();
+        int getGoalsScored();
+        int getGamesPlayed();
+        double getTotalDebt();
+        double getTotalPaid();
+        double getOutstanding();
+        // 1 si la fila es de la lista de deudores, 0 si es de la de goleadores
+        int getDebtor();
+    }
 }
@@ -0,0 +1,23 @@
+package com.botfutbol.repository;
+
+import com.botfutbol.entity.Player;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operaciones de escritura masiva sobre jugadores que no cubre Spring Data.
+ */
+public interface PlayerRepositoryCustom {
+
+    /**
+     * Inserta jugadores nuevos en un solo batch JDBC.
+     */
+    void insertAllInBatch(List<Player> players);
+
+    /**
+     * Suma montos al total pagado de varios jugadores (ID -> monto) con un solo UPDATE
+     * (uno cada 1000 jugadores).
+     */
+    void addToTotalPaidInBatch(Map<String, Double> amountsByPlayerId);
+}
@@ -0,0 +1,90 @@
+package com.botfutbol.repository;
+
+import com.botfutbol.entity.Player;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación JDBC de las operaciones masivas sobre jugadores.
+ * Usa la misma conexión que la transacción JPA en curso.
+ */
+public class PlayerRepositoryCustomImpl implements PlayerRepositoryCustom {
+
+    private static final String INSERT_PLAYER_SQL =
+            "INSERT INTO players (id, name, skill_level, position, total_debt, total_paid, outstanding, " +
+            "games_played, goals_scored, attended, activo) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Jugadores por sentencia al sumar pagos (5 parámetros cada uno; PostgreSQL admite hasta 32767)
+    private static final int MAX_PLAYERS_PER_UPDATE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PlayerRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAllInBatch(List<Player> players) {
+        if (players.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_PLAYER_SQL, players, players.size(), (ps, player) -> {
+            ps.setString(1, player.getId());
+            ps.setString(2, player.getName());
+            ps.setInt(3, player.getSkillLevel());
+            ps.setString(4, player.getPosition());
+            ps.setDouble(5, player.getTotalDebt());
+            ps.setDouble(6, player.getTotalPaid());
+            ps.setDouble(7, player.getOutstanding());
+            ps.setInt(8, player.getGamesPlayed());
+            ps.setInt(9, player.getGoalsScored());
+            ps.setBoolean(10, player.isAttended());
+            ps.setBoolean(11, player.isActivo());
+        });
+    }
+
+    @Override
+    public void addToTotalPaidInBatch(Map<String, Double> amountsByPlayerId) {
+        if (amountsByPlayerId.isEmpty()) return;
+        List<Map.Entry<String, Double>> amounts = new ArrayList<>(amountsByPlayerId.entrySet());
+        for (int from = 0; from < amounts.size(); from += MAX_PLAYERS_PER_UPDATE) {
+            addToTotalPaid(amounts.subList(from, Math.min(from + MAX_PLAYERS_PER_UPDATE, amounts.size())));
+        }
+    }
+
+    /**
+     * Un solo UPDATE para todos los jugadores: el monto de cada uno sale de un CASE por ID.
+     * Los montos se envían con setDouble: el driver les da tipo, así que el CASE no necesita un CAST
+     * propio de un motor y la sentencia sirve en H2, MySQL y PostgreSQL.
+     * Suma sobre el valor actual de la fila: no pisa pagos registrados por otra transacción.
+     * outstanding va primero y se calcula con los valores anteriores (ver PlayerRepository).
+     */
+    private void addToTotalPaid(List<Map.Entry<String, Double>> amounts) {
+        StringBuilder amountById = new StringBuilder("CASE id");
+        amounts.forEach(amount -> amountById.append(" WHEN ? THEN ?"));
+        amountById.append(" END");
+        StringBuilder sql = new StringBuilder("UPDATE players SET ")
+                .append("outstanding = COALESCE(total_debt, 0) - (COALESCE(total_paid, 0) + ").append(amountById).append("), ")
+                .append("total_paid = COALESCE(total_paid, 0) + ").append(amountById)
+                .append(" WHERE id IN (");
+        for (int i = 0; i < amounts.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+
+        jdbcTemplate.update(sql.toString(), ps -> {
+            int index = 1;
+            for (int copy = 0; copy < 2; copy++) {
+                for (Map.Entry<String, Double> amount : amounts) {
+                    ps.setString(index++, amount.getKey());
+                    ps.setDouble(index++, amount.getValue());
+                }
+            }
+            for (Map.Entry<String, Double> amount : amounts) {
+                ps.setString(index++, amount.getKey());
+            }
+        });
+    }
+}
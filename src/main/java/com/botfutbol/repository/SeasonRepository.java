@@ -0,0 +1,20 @@
+package com.botfutbol.repository;
+
+import com.botfutbol.entity.Season;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio de temporadas cerradas.
+ * Responsabilidad: Guardar y leer temporadas (Season) usando Spring Data JPA.
+ */
+@Repository
+public interface SeasonRepository extends JpaRepository<Season, String> {
+
+    /**
+     * Temporadas de la más reciente a la más antigua.
+     */
+    List<Season> findAllByOrderByClosedAtDesc();
+}
@@ -0,0 +1,20 @@
+package com.botfutbol.repository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Páginas por clave (keyset) que leen solo los atributos pedidos de una entidad.
+ * Los nombres de atributo los valida el servicio contra la lista de campos del DTO de la fila:
+ * nunca llegan sin validar al JPQL.
+ */
+public interface SelectedFieldsRepository {
+
+    /**
+     * Lee hasta maxRows filas de la entidad ordenadas por (sortField, id), posteriores a (sortAfter, idAfter)
+     * si sortAfter no es null. Cada fila trae los campos pedidos más sortField e id
+     * (los necesita el cursor de la página siguiente).
+     */
+    List<Map<String, Object>> findSelectedFields(Class<?> entity, List<String> fields, String sortField,
+                                                 boolean descending, Object sortAfter, String idAfter, int maxRows);
+}
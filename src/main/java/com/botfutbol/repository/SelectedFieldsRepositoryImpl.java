@@ -0,0 +1,67 @@
+package com.botfutbol.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementación JPQL de {@link SelectedFieldsRepository}.
+ * El SELECT se arma con los atributos pedidos, así la base devuelve solo esas columnas y no la fila entera.
+ */
+public class SelectedFieldsRepositoryImpl implements SelectedFieldsRepository {
+
+    private static final String ALIAS = "e";
+
+    private final EntityManager entityManager;
+
+    public SelectedFieldsRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Map<String, Object>> findSelectedFields(Class<?> entity, List<String> fields, String sortField,
+                                                        boolean descending, Object sortAfter, String idAfter, int maxRows) {
+        Set<String> selected = new LinkedHashSet<>(fields);
+        selected.add(sortField);
+        selected.add("id");
+        List<String> columns = new ArrayList<>(selected);
+
+        String sort = ALIAS + "." + sortField;
+        String id = ALIAS + ".id";
+        String strict = descending ? " < " : " > ";
+        StringBuilder jpql = new StringBuilder("SELECT ");
+        for (int i = 0; i < columns.size(); i++) {
+            jpql.append(i == 0 ? "" : ", ").append(ALIAS).append('.').append(columns.get(i));
+        }
+        jpql.append(" FROM ").append(entity.getSimpleName()).append(' ').append(ALIAS);
+        if (sortAfter != null) {
+            // Cota simple sobre la primera clave para que el índice empiece en el cursor (como en los @Query)
+            jpql.append(" WHERE ").append(sort).append(descending ? " <= " : " >= ").append(":sortAfter")
+                    .append(" AND (").append(sort).append(strict).append(":sortAfter")
+                    .append(" OR ").append(id).append(strict).append(":idAfter)");
+        }
+        String direction = descending ? " DESC" : " ASC";
+        jpql.append(" ORDER BY ").append(sort).append(direction).append(", ").append(id).append(direction);
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class).setMaxResults(maxRows);
+        if (sortAfter != null) {
+            query.setParameter("sortAfter", sortAfter).setParameter("idAfter", idAfter);
+        }
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : query.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                row.put(columns.get(i), tuple.get(i));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
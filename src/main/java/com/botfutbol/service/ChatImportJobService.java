@@ -0,0 +1,175 @@
+package com.botfutbol.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Servicio de importaciones de chat en segundo plano.
+ * Responsabilidad: Ejecutar las importaciones en el executor de tareas de la aplicación
+ * (hilos virtuales en Java 21), de a una por grupo y en paralelo entre grupos,
+ * y guardar su estado para consultarlo después.
+ */
+@Service
+public class ChatImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatImportJobService.class);
+
+    // Tiempo que se conserva un trabajo terminado para consultarlo
+    private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(1);
+
+    private final ChatParsingService chatParsingService;
+    private final AsyncTaskExecutor taskExecutor;
+    // Limita las importaciones simultáneas; con hilos virtuales esperar un permiso no ocupa un hilo del sistema
+    private final Semaphore runningJobs;
+
+    private final Map<String, ChatImportJob> jobs = new ConcurrentHashMap<>();
+    // Último trabajo encolado de cada grupo: el siguiente del mismo grupo espera a que termine
+    private final Map<String, CompletableFuture<Void>> groupTails = new ConcurrentHashMap<>();
+
+    public ChatImportJobService(ChatParsingService chatParsingService,
+                                @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor,
+                                @Value("${bot.import.max-concurrent-jobs:4}") int maxConcurrentJobs) {
+        this.chatParsingService = chatParsingService;
+        this.taskExecutor = taskExecutor;
+        this.runningJobs = new Semaphore(maxConcurrentJobs, true);
+    }
+
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED }
+
+    /**
+     * Importación en segundo plano y su estado
+     */
+    public static class ChatImportJob {
+        private final String id = UUID.randomUUID().toString();
+        private final String group;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final ChatParsingService.ImportProgress progress = new ChatParsingService.ImportProgress();
+        private volatile Status status = Status.PENDING;
+        private volatile ChatParsingService.ChatParsingResult result;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        private ChatImportJob(String group) {
+            this.group = group;
+        }
+
+        public String getId() { return id; }
+        public String getGroup() { return group; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public ChatParsingService.ImportProgress getProgress() { return progress; }
+        public Status getStatus() { return status; }
+        public ChatParsingService.ChatParsingResult getResult() { return result; }
+        public String getError() { return error; }
+        public LocalDateTime getFinishedAt() { return finishedAt; }
+    }
+
+    @FunctionalInterface
+    private interface ImportWork {
+        ChatParsingService.ChatParsingResult run(ChatImportJob job) throws IOException;
+    }
+
+    /**
+     * Encola la importación de un texto de chat y devuelve el trabajo creado.
+     */
+    public ChatImportJob submitText(String chatText, String group) {
+        return submit(group, job -> chatParsingService.processChatText(chatText, job.group, job.progress), null);
+    }
+
+    /**
+     * Encola la importación de un archivo de chat (UTF-8). El archivo se borra al terminar.
+     */
+    public ChatImportJob submitFile(Path file, String group) {
+        return submit(group, job -> {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                return chatParsingService.processChatStream(reader, job.group, job.progress);
+            }
+        }, file);
+    }
+
+    /**
+     * Busca un trabajo por ID.
+     */
+    public Optional<ChatImportJob> findJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private ChatImportJob submit(String group, ImportWork work, Path fileToDelete) {
+        removeExpiredJobs();
+        String groupId = group != null && !group.trim().isEmpty() ? group.trim() : null;
+        ChatImportJob job = new ChatImportJob(groupId);
+        jobs.put(job.id, job);
+
+        // Sin grupo no hay nada que serializar: cada trabajo es su propia cola
+        String queueKey = groupId != null ? groupId : job.id;
+        CompletableFuture<Void> queued = groupTails.compute(queueKey, (key, tail) ->
+                (tail != null ? tail.exceptionally(e -> null) : CompletableFuture.<Void>completedFuture(null))
+                        .thenRunAsync(() -> run(job, work), taskExecutor));
+        queued.whenComplete((ignored, e) -> {
+            groupTails.remove(queueKey, queued);
+            // El executor rechazó el trabajo (cola llena)
+            if (e != null && job.finishedAt == null) {
+                finish(job, Status.FAILED, "No se pudo ejecutar la importación: " + e.getMessage());
+            }
+            deleteQuietly(fileToDelete);
+        });
+        return job;
+    }
+
+    private void run(ChatImportJob job, ImportWork work) {
+        try {
+            runningJobs.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(job, Status.FAILED, "Importación interrumpida");
+            return;
+        }
+        job.status = Status.RUNNING;
+        try {
+            job.result = work.run(job);
+            finish(job, Status.COMPLETED, null);
+        } catch (Exception e) {
+            log.error("Importación {} fallida", job.id, e);
+            finish(job, Status.FAILED, e.getClass().getSimpleName() + ": " + e.getMessage());
+        } finally {
+            runningJobs.release();
+        }
+    }
+
+    private void finish(ChatImportJob job, Status status, String error) {
+        job.error = error;
+        job.finishedAt = LocalDateTime.now();
+        job.status = status;
+    }
+
+    private void removeExpiredJobs() {
+        LocalDateTime limit = LocalDateTime.now().minus(FINISHED_JOB_RETENTION);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(limit));
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar el archivo temporal {}", file, e);
+        }
+    }
+}
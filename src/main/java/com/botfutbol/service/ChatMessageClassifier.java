@@ -0,0 +1,480 @@
+package com.botfutbol.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clasificador compilado de líneas de chat de WhatsApp.
+ * Responsabilidad: Separar remitente y mensaje, y detectar confirmaciones, pagos, nombre y monto
+ * recorriendo el mensaje una sola vez con un autómata de palabras clave.
+ *
+ * Reproduce exactamente el resultado de los patrones regex que usaba ChatParsingService
+ * (WHATSAPP_NAME, SIMPLE_NAME, NUMBERED_LIST, PAYMENT_WITH_NAME_1/2, CONFIRMATION y PAYMENT),
+ * salvo el monto, que además acepta '$' y separadores de miles.
+ */
+public class ChatMessageClassifier {
+
+    private static final int CONFIRMATION = 1;
+    private static final int PAYMENT = 2;
+    private static final int NAMED_PAYMENT = 4;
+
+    /** Valor de leadingTimestampMinute para líneas sin timestamp con fecha. */
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    // Equivalente a (\+1|voy|me anoto|confirmo|presente|asisto|cuenta conmigo|ahí estoy)
+    private static final String[] CONFIRMATION_KEYWORDS = {
+        "+1", "voy", "me anoto", "confirmo", "presente", "asisto", "cuenta conmigo", "ahí estoy"
+    };
+
+    // Equivalente a (pagu[éeo]|pagado|transferencia|ya está|listo el pago|enviado|depositado|pago)
+    private static final String[] PAYMENT_KEYWORDS = {
+        "pagué", "pague", "paguo", "pagado", "transferencia", "ya está", "listo el pago",
+        "enviado", "depositado", "pago"
+    };
+
+    // Equivalente a (pago|pagó|pagué|pagado|deposit[oó]|transferencia|enviado|listo el pago)
+    private static final String[] NAMED_PAYMENT_KEYWORDS = {
+        "pago", "pagó", "pagué", "pagado", "deposito", "depositó", "transferencia", "enviado",
+        "listo el pago"
+    };
+
+    private final KeywordAutomaton automaton;
+
+    public ChatMessageClassifier() {
+        List<String> keywords = new ArrayList<>();
+        List<Integer> flags = new ArrayList<>();
+        addKeywords(keywords, flags, CONFIRMATION_KEYWORDS, CONFIRMATION);
+        addKeywords(keywords, flags, PAYMENT_KEYWORDS, PAYMENT);
+        addKeywords(keywords, flags, NAMED_PAYMENT_KEYWORDS, NAMED_PAYMENT);
+        this.automaton = new KeywordAutomaton(keywords, flags);
+    }
+
+    /**
+     * Nombre y mensaje extraídos de una línea de chat
+     */
+    public static class ParsedMessage {
+        private final String name;
+        private final String message;
+
+        public ParsedMessage(String name, String message) {
+            this.name = name;
+            this.message = message;
+        }
+
+        public String getName() { return name; }
+        public String getMessage() { return message; }
+    }
+
+    /**
+     * Resultado de clasificar un mensaje
+     */
+    public static class Classification {
+        private final String payerName;
+        private final String amount;
+        private final boolean confirmation;
+        private final boolean payment;
+
+        Classification(String payerName, String amount, boolean confirmation, boolean payment) {
+            this.payerName = payerName;
+            this.amount = amount;
+            this.confirmation = confirmation;
+            this.payment = payment;
+        }
+
+        /** Nombre del pagador cuando el mensaje dice quién pagó ("Flavio pagó", "pago de Flavio"), o null. */
+        public String getPayerName() { return payerName; }
+        /** Monto escrito después de la palabra de pago ("Flavio pagó 7.000"), solo dígitos, o null. */
+        public String getAmount() { return amount; }
+        /** Si el mensaje contiene una palabra de confirmación de asistencia. */
+        public boolean isConfirmation() { return confirmation; }
+        /** Si el mensaje contiene una palabra de pago. */
+        public boolean isPayment() { return payment; }
+    }
+
+    /**
+     * Extrae nombre y mensaje de una línea ya limpia.
+     * Formatos: "[HH:MM, DD/MM/YYYY] Nombre: mensaje", "Nombre: mensaje" y "1. Nombre".
+     */
+    public ParsedMessage extractNameAndMessage(String line) {
+        ParsedMessage parsed = parseWhatsAppLine(line);
+        if (parsed != null) {
+            return parsed;
+        }
+        parsed = parseSimpleLine(line);
+        if (parsed != null) {
+            return parsed;
+        }
+        return parseNumberedLine(line);
+    }
+
+    /**
+     * Minuto (contado desde 1970-01-01 00:00) del timestamp "[HH:MM, DD/MM/YYYY]" con el que empieza
+     * la línea, o NO_TIMESTAMP si no empieza con un timestamp con fecha válida.
+     * Ignora espacios y caracteres invisibles iniciales. Los años de dos dígitos se toman como 20YY.
+     */
+    public long leadingTimestampMinute(String line) {
+        int pos = 0;
+        while (pos < line.length() && (isWhitespace(line.charAt(pos)) || ChatTextNormalizer.isInvisible(line.charAt(pos)))) {
+            pos++;
+        }
+        if (!charAt(line, pos, '[')) return NO_TIMESTAMP;
+
+        int hourEnd = digitsEnd(line, pos + 1, 1, 2);
+        if (hourEnd < 0 || !charAt(line, hourEnd, ':')) return NO_TIMESTAMP;
+        int minuteEnd = digitsEnd(line, hourEnd + 1, 2, 2);
+        if (minuteEnd < 0 || !charAt(line, minuteEnd, ',')) return NO_TIMESTAMP;
+        int dayStart = minuteEnd + 1;
+        while (dayStart < line.length() && isWhitespace(line.charAt(dayStart))) {
+            dayStart++;
+        }
+        int dayEnd = digitsEnd(line, dayStart, 1, 2);
+        if (dayEnd < 0 || !charAt(line, dayEnd, '/')) return NO_TIMESTAMP;
+        int monthEnd = digitsEnd(line, dayEnd + 1, 1, 2);
+        if (monthEnd < 0 || !charAt(line, monthEnd, '/')) return NO_TIMESTAMP;
+        int yearEnd = digitsEnd(line, monthEnd + 1, 2, 4);
+        if (yearEnd < 0 || !charAt(line, yearEnd, ']')) return NO_TIMESTAMP;
+
+        int hour = number(line, pos + 1, hourEnd);
+        int minute = number(line, hourEnd + 1, minuteEnd);
+        int day = number(line, dayStart, dayEnd);
+        int month = number(line, dayEnd + 1, monthEnd);
+        int year = number(line, monthEnd + 1, yearEnd);
+        if (yearEnd - monthEnd - 1 == 2) {
+            year += 2000;
+        }
+        if (hour > 23 || minute > 59 || month < 1 || month > 12 || day < 1
+                || day > YearMonth.of(year, month).lengthOfMonth()) {
+            return NO_TIMESTAMP;
+        }
+        return LocalDate.of(year, month, day).toEpochDay() * 1440 + hour * 60 + minute;
+    }
+
+    /**
+     * Clasifica un mensaje en una sola pasada del autómata.
+     */
+    public Classification classify(String message) {
+        int length = message.length();
+        int state = automaton.initialState();
+        boolean inLeadingName = true;
+        boolean confirmation = false;
+        boolean payment = false;
+        int namedStart = -1;
+        int namedEnd = -1;
+        int leadingKeywordEnd = -1;
+
+        for (int i = 0; i < length; i++) {
+            char c = message.charAt(i);
+            if (inLeadingName && !isNameChar(c)) {
+                inLeadingName = false;
+            }
+            state = automaton.next(state, c);
+            int[] lengths = automaton.outputLengths(state);
+            if (lengths == null) continue;
+
+            int[] flags = automaton.outputFlags(state);
+            for (int k = 0; k < lengths.length; k++) {
+                int start = i + 1 - lengths[k];
+                confirmation |= (flags[k] & CONFIRMATION) != 0;
+                payment |= (flags[k] & PAYMENT) != 0;
+                if ((flags[k] & NAMED_PAYMENT) != 0) {
+                    if (start == 0) {
+                        leadingKeywordEnd = i + 1;
+                    } else if (inLeadingName && start > namedStart) {
+                        // "Nombre pagó": la última palabra de pago dentro del nombre inicial
+                        namedStart = start;
+                        namedEnd = i + 1;
+                    }
+                }
+            }
+        }
+
+        if (namedStart > 0) {
+            return new Classification(message.substring(0, namedStart).trim(),
+                    amountAfter(message, namedEnd), confirmation, payment);
+        }
+        if (leadingKeywordEnd > 0) {
+            String payerName = nameAfterDe(message, leadingKeywordEnd);
+            if (payerName != null) {
+                return new Classification(payerName, null, confirmation, payment);
+            }
+        }
+        return new Classification(null, null, confirmation, payment);
+    }
+
+    // ==================== FORMATOS DE LÍNEA ====================
+
+    /**
+     * [HH:MM, DD/MM/YYYY] Nombre: mensaje (el primer '[' que forme un timestamp válido)
+     */
+    private ParsedMessage parseWhatsAppLine(String line) {
+        int from = 0;
+        int bracket;
+        while ((bracket = line.indexOf('[', from)) >= 0) {
+            from = bracket + 1;
+            int end = timestampEnd(line, bracket);
+            if (end < 0) continue;
+
+            int colon = line.indexOf(':', end);
+            if (colon < 0) return null;
+            // El nombre necesita al menos un carácter antes de ':'
+            if (colon == end) continue;
+
+            String message = messageAfterColon(line, colon);
+            if (message == null) continue;
+            return new ParsedMessage(line.substring(end, colon).trim(), message);
+        }
+        return null;
+    }
+
+    /**
+     * Nombre: mensaje (el nombre solo tiene letras y espacios)
+     */
+    private ParsedMessage parseSimpleLine(String line) {
+        int nameEnd = 0;
+        while (nameEnd < line.length() && isNameChar(line.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        if (nameEnd == 0 || nameEnd == line.length() || line.charAt(nameEnd) != ':') {
+            return null;
+        }
+        String message = messageAfterColon(line, nameEnd);
+        if (message == null) {
+            return null;
+        }
+        return new ParsedMessage(line.substring(0, nameEnd).trim(), message);
+    }
+
+    /**
+     * 1. Nombre o 1) Nombre
+     */
+    private ParsedMessage parseNumberedLine(String line) {
+        int length = line.length();
+        int digitsEnd = 0;
+        while (digitsEnd < length && isDigit(line.charAt(digitsEnd))) {
+            digitsEnd++;
+        }
+        if (digitsEnd == 0) return null;
+
+        int separatorEnd = digitsEnd;
+        while (separatorEnd < length && isListSeparator(line.charAt(separatorEnd))) {
+            separatorEnd++;
+        }
+
+        // Mismo orden de backtracking que ^\d+[.)\s]+\s*(nombre)\s*$ (los separadores suelen ser 1 o 2)
+        for (int separator = separatorEnd; separator > digitsEnd; separator--) {
+            for (int nameStart = whitespaceEnd(line, separator); nameStart >= separator; nameStart--) {
+                int nameEnd = listNameEnd(line, nameStart);
+                if (nameEnd == nameStart) continue;
+                for (int end = whitespaceEnd(line, nameEnd); end >= nameEnd; end--) {
+                    if (isEndOfInput(line, end)) {
+                        return new ParsedMessage(line.substring(nameStart, nameEnd).trim(), "");
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Fin de "[HH:MM]" o "[HH:MM, DD/MM/YY]" empezando en el corchete, o -1 si no es un timestamp.
+     */
+    private int timestampEnd(String line, int bracket) {
+        int pos = digitsEnd(line, bracket + 1, 1, 2);
+        if (pos < 0 || !charAt(line, pos, ':')) return -1;
+        pos = digitsEnd(line, pos + 1, 2, 2);
+        if (pos < 0) return -1;
+
+        if (charAt(line, pos, ',')) {
+            int datePos = pos + 1;
+            while (datePos < line.length() && isWhitespace(line.charAt(datePos))) {
+                datePos++;
+            }
+            datePos = digitsEnd(line, datePos, 1, 2);
+            if (datePos >= 0 && charAt(line, datePos, '/')) {
+                datePos = digitsEnd(line, datePos + 1, 1, 2);
+                if (datePos >= 0 && charAt(line, datePos, '/')) {
+                    datePos = digitsEnd(line, datePos + 1, 2, 4);
+                    if (datePos >= 0 && charAt(line, datePos, ']')) {
+                        return datePos + 1;
+                    }
+                }
+            }
+        }
+        return charAt(line, pos, ']') ? pos + 1 : -1;
+    }
+
+    /**
+     * Equivalente a ":\s*(.+)" desde el ':' indicado; devuelve el mensaje sin espacios o null.
+     */
+    private String messageAfterColon(String line, int colon) {
+        int length = line.length();
+        int start = colon + 1;
+        while (start < length && isWhitespace(line.charAt(start))) {
+            start++;
+        }
+        if (start < length && !isLineTerminator(line.charAt(start))) {
+            int end = start;
+            while (end < length && !isLineTerminator(line.charAt(end))) {
+                end++;
+            }
+            return line.substring(start, end).trim();
+        }
+        // Solo quedan espacios: el mensaje es un espacio en blanco si alguno no es terminador
+        for (int i = start - 1; i > colon; i--) {
+            if (!isLineTerminator(line.charAt(i))) {
+                return "";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Monto después de la palabra de pago: "7000", "$7000", "7.000" o "1,500" (puntos o comas como
+     * separador de miles). Devuelve solo los dígitos, o null si no hay monto o no es un entero limpio
+     * ("7.5", "1.500,50"): en ese caso el pago usa el costo del partido en lugar de un monto mal leído.
+     */
+    private String amountAfter(String message, int pos) {
+        int length = message.length();
+        pos = whitespaceEnd(message, pos);
+        if (charAt(message, pos, '$')) {
+            pos = whitespaceEnd(message, pos + 1);
+        }
+        int start = pos;
+        while (pos < length && isDigit(message.charAt(pos))) {
+            pos++;
+        }
+        if (pos == start) return null;
+
+        StringBuilder digits = new StringBuilder(message.substring(start, pos));
+        int firstGroup = pos - start;
+        char separator = 0;
+        boolean clean = true;
+        while (pos + 1 < length && isThousandsSeparator(message.charAt(pos)) && isDigit(message.charAt(pos + 1))) {
+            char c = message.charAt(pos);
+            int groupStart = ++pos;
+            while (pos < length && isDigit(message.charAt(pos))) {
+                pos++;
+            }
+            // Todos los grupos con el mismo separador, el primero de 1 a 3 dígitos y los demás de 3
+            clean &= (separator == 0 || separator == c) && firstGroup <= 3 && pos - groupStart == 3;
+            separator = c;
+            digits.append(message, groupStart, pos);
+        }
+        return clean ? digits.toString() : null;
+    }
+
+    /**
+     * Equivalente a " de ([A-Za-zÀ-ÿ\s]+)" después de la palabra de pago inicial.
+     */
+    private String nameAfterDe(String message, int pos) {
+        int length = message.length();
+        if (pos + 4 > length
+                || message.charAt(pos) != ' '
+                || KeywordAutomaton.foldCase(message.charAt(pos + 1)) != 'd'
+                || KeywordAutomaton.foldCase(message.charAt(pos + 2)) != 'e'
+                || message.charAt(pos + 3) != ' ') {
+            return null;
+        }
+        int start = pos + 4;
+        int end = start;
+        while (end < length && isNameChar(message.charAt(end))) {
+            end++;
+        }
+        return end > start ? message.substring(start, end).trim() : null;
+    }
+
+    // ==================== CLASES DE CARACTERES ====================
+
+    private static int whitespaceEnd(String line, int pos) {
+        while (pos < line.length() && isWhitespace(line.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int listNameEnd(String line, int pos) {
+        while (pos < line.length()) {
+            int cp = line.codePointAt(pos);
+            if (!isListNameChar(cp)) break;
+            pos += Character.charCount(cp);
+        }
+        return pos;
+    }
+
+    // '$' sin MULTILINE: fin del texto o antes de un terminador de línea final
+    private static boolean isEndOfInput(String line, int pos) {
+        int length = line.length();
+        if (pos == length) return true;
+        if (pos == length - 2) return line.charAt(pos) == '\r' && line.charAt(pos + 1) == '\n';
+        if (pos == length - 1) {
+            char c = line.charAt(pos);
+            if (c == '\n') return pos == 0 || line.charAt(pos - 1) != '\r';
+            return c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+        }
+        return false;
+    }
+
+    private static int digitsEnd(String line, int pos, int min, int max) {
+        int end = pos;
+        while (end < line.length() && isDigit(line.charAt(end))) {
+            end++;
+        }
+        int count = end - pos;
+        return count >= min && count <= max ? end : -1;
+    }
+
+    private static int number(String line, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (line.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static boolean charAt(String line, int pos, char expected) {
+        return pos < line.length() && line.charAt(pos) == expected;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isThousandsSeparator(char c) {
+        return c == '.' || c == ',';
+    }
+
+    // \s sin UNICODE_CHARACTER_CLASS
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    // Caracteres que '.' no acepta
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    // [A-Za-zÀ-ÿ\s]
+    private static boolean isNameChar(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= 'À' && c <= 'ÿ') || isWhitespace(c);
+    }
+
+    // [.)\s]
+    private static boolean isListSeparator(char c) {
+        return c == '.' || c == ')' || isWhitespace(c);
+    }
+
+    // [\p{L}0-9ÁÉÍÓÚÑáéíóúñ'’\- ]
+    private static boolean isListNameChar(int cp) {
+        return Character.isLetter(cp) || (cp >= '0' && cp <= '9')
+                || cp == '\'' || cp == '\u2019' || cp == '-' || cp == ' ';
+    }
+
+    private static void addKeywords(List<String> keywords, List<Integer> flags, String[] words, int flag) {
+        for (String word : words) {
+            keywords.add(word);
+            flags.add(flag);
+        }
+    }
+}
@@ -1,15 +1,28 @@
 package com.botfutbol.service;
 
+import com.botfutbol.config.SqlStatementCounter;
 import com.botfutbol.dto.PaymentDTO;
-import com.botfutbol.dto.PlayerDTO;
-import com.botfutbol.entity.Player;
+import com.botfutbol.entity.ChatImportWatermark;
+import com.botfutbol.entity.Payment;
+import com.botfutbol.repository.ChatImportWatermarkRepository;
 import com.botfutbol.repository.PlayerRepository;
+import com.botfutbol.service.ChatMessageClassifier.ParsedMessage;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.botfutbol.service.ChatMessageClassifier.NO_TIMESTAMP;
 
 /**
  * Servicio para procesar texto de chat de WhatsApp y extraer información.
@@ -21,46 +34,45 @@ public class ChatParsingService {
     private final PlayerRepository playerRepository;
     private final PlayerService playerService;
     private final PaymentService paymentService;
+    private final PlayerNameIndex playerNameIndex;
+    private final ChatImportWatermarkRepository chatImportWatermarkRepository;
+    private final TransactionTemplate transactionTemplate;
     
-    // Patrones regex para identificar confirmaciones
-    private static final Pattern CONFIRMATION_PATTERN = Pattern.compile(
-        "(?i)(\\+1|voy|me anoto|confirmo|presente|asisto|cuenta conmigo|ahí estoy)"
-    );
-    
-    // Patrones para pagos (mejorados para detectar frases como 'Flavio pago', 'pago de Flavio', 'Flavio pago 7000')
-    private static final Pattern PAYMENT_PATTERN = Pattern.compile(
-        "(?i)(pagu[éeo]|pagado|transferencia|ya está|listo el pago|enviado|depositado|pago)"
-    );
-    // Nuevo: patrones para detectar pagos con nombre en el mensaje
-    private static final Pattern PAYMENT_WITH_NAME_PATTERN_1 = Pattern.compile(
-        "(?i)^([A-Za-zÀ-ÿ\\s]+)\\s*(pago|pagó|pagué|pagado|deposit[oó]|transferencia|enviado|listo el pago)(\\s*\\d+)?"
-    ); // Ej: Flavio pago, Flavio pagó 7000
-    private static final Pattern PAYMENT_WITH_NAME_PATTERN_2 = Pattern.compile(
-        "(?i)^(pago|pagó|pagué|pagado|deposit[oó]|transferencia|enviado|listo el pago) de ([A-Za-zÀ-ÿ\\s]+)"
-    ); // Ej: pago de Flavio
-
-    // Patrón para extraer nombre del mensaje de WhatsApp
-    // Formato típico: [HH:MM, DD/MM/YYYY] Nombre del Contacto: mensaje
-    private static final Pattern WHATSAPP_NAME_PATTERN = Pattern.compile(
-        "\\[\\d{1,2}:\\d{2}(?:,\\s*\\d{1,2}/\\d{1,2}/\\d{2,4})?\\]\\s*([^:]+):\\s*(.+)"
-    );
-    
-    // Patrón alternativo para formato sin corchetes: Nombre: mensaje
-    private static final Pattern SIMPLE_NAME_PATTERN = Pattern.compile(
-        "^([A-Za-zÀ-ÿ\\s]+):\\s*(.+)"
-    );
-    
-    // Patrón para lista numerada: 1. Nombre o 1) Nombre
-    private static final Pattern NUMBERED_LIST_PATTERN = Pattern.compile(
-        "^\\d+[.)\\s]+\\s*([\\p{L}0-9ÁÉÍÓÚÑáéíóúñ'’\\- ]+)\\s*$"
-    );
+    // Clasificador compilado de líneas (remitente, confirmaciones, pagos y montos)
+    private static final ChatMessageClassifier CLASSIFIER = new ChatMessageClassifier();
+
+    // Concepto de los pagos registrados al importar un chat
+    private static final String CHAT_PAYMENT_CONCEPT = "Pago detectado en el chat";
+    // Prefijo de las claves de idempotencia de los pagos importados del chat
+    private static final String CHAT_PAYMENT_KEY_PREFIX = "chat:";
+
+    // Máximo de mensajes no reconocidos, y de nombres confirmados y pagados, que se devuelven al importar un archivo
+    private static final int MAX_STREAM_LISTED_ITEMS = 500;
+
+    // Eventos que se juntan como mucho antes de aplicarlos en una transacción propia
+    static final int EVENTS_PER_TRANSACTION = 10_000;
+
+    // Líneas de cada bloque que se parsea en paralelo
+    private static final int CHUNK_LINES = 2048;
+
+    // Pool donde se parsean los bloques: solo CPU, sin acceso a la base de datos
+    private static final ForkJoinPool PARSE_POOL = ForkJoinPool.commonPool();
+
+    // Bloques parseándose o esperando a juntarse a la vez (dos por hilo del pool mantienen a todos ocupados)
+    private static final int MAX_CHUNKS_IN_FLIGHT = 2 * PARSE_POOL.getParallelism();
     
     public ChatParsingService(PlayerRepository playerRepository, 
                             PlayerService playerService,
-                            PaymentService paymentService) {
+                            PaymentService paymentService,
+                            PlayerNameIndex playerNameIndex,
+                            ChatImportWatermarkRepository chatImportWatermarkRepository,
+                            PlatformTransactionManager transactionManager) {
         this.playerRepository = playerRepository;
         this.playerService = playerService;
         this.paymentService = paymentService;
+        this.playerNameIndex = playerNameIndex;
+        this.chatImportWatermarkRepository = chatImportWatermarkRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
     
     /**
@@ -72,7 +84,12 @@ public class ChatParsingService {
         private List<String> confirmedPlayers = new ArrayList<>();
         private List<String> paidPlayers = new ArrayList<>();
         private List<String> unrecognizedMessages = new ArrayList<>();
+        private int unrecognizedMessagesCount = 0;
         private List<String> newPlayersAdded = new ArrayList<>();
+        private int skippedLinesCount = 0;
+        private int duplicatePaymentsSkipped = 0;
+        private int undatedPaymentsSkipped = 0;
+        private long databaseRoundTrips = 0;
         
         // Getters y setters
         public int getPlayersConfirmed() { return playersConfirmed; }
@@ -85,161 +102,451 @@ public class ChatParsingService {
         public void setPaidPlayers(List<String> paidPlayers) { this.paidPlayers = paidPlayers; }
         public List<String> getUnrecognizedMessages() { return unrecognizedMessages; }
         public void setUnrecognizedMessages(List<String> unrecognizedMessages) { this.unrecognizedMessages = unrecognizedMessages; }
+        public int getUnrecognizedMessagesCount() { return unrecognizedMessagesCount; }
+        public void setUnrecognizedMessagesCount(int unrecognizedMessagesCount) { this.unrecognizedMessagesCount = unrecognizedMessagesCount; }
         public List<String> getNewPlayersAdded() { return newPlayersAdded; }
         public void setNewPlayersAdded(List<String> newPlayersAdded) { this.newPlayersAdded = newPlayersAdded; }
+        public int getSkippedLinesCount() { return skippedLinesCount; }
+        public void setSkippedLinesCount(int skippedLinesCount) { this.skippedLinesCount = skippedLinesCount; }
+        public int getDuplicatePaymentsSkipped() { return duplicatePaymentsSkipped; }
+        public void setDuplicatePaymentsSkipped(int duplicatePaymentsSkipped) { this.duplicatePaymentsSkipped = duplicatePaymentsSkipped; }
+        public int getUndatedPaymentsSkipped() { return undatedPaymentsSkipped; }
+        public void setUndatedPaymentsSkipped(int undatedPaymentsSkipped) { this.undatedPaymentsSkipped = undatedPaymentsSkipped; }
+        public long getDatabaseRoundTrips() { return databaseRoundTrips; }
+        public void setDatabaseRoundTrips(long databaseRoundTrips) { this.databaseRoundTrips = databaseRoundTrips; }
+    }
+
+    /**
+     * Avance de una importación. Se actualiza mientras se procesa y se puede leer desde otro hilo.
+     */
+    public static class ImportProgress {
+        private final AtomicLong linesProcessed = new AtomicLong();
+        private final AtomicLong playersMatched = new AtomicLong();
+        private final AtomicLong playersCreated = new AtomicLong();
+        private final AtomicLong paymentsDetected = new AtomicLong();
+
+        public long getLinesProcessed() { return linesProcessed.get(); }
+        public long getPlayersMatched() { return playersMatched.get(); }
+        public long getPlayersCreated() { return playersCreated.get(); }
+        public long getPaymentsDetected() { return paymentsDetected.get(); }
+    }
+
+    /**
+     * Evento reconocido en una línea del chat, pendiente de resolver contra la base de datos
+     */
+    private static final class ChatEvent {
+        private final boolean confirmation;
+        private final String playerName;
+        // Monto escrito en el mensaje de pago; 0 si no se indicó
+        private final double amount;
+        // Minuto y huella de la línea (ver LineFingerprints), para la clave de idempotencia del pago;
+        // NO_TIMESTAMP si la línea no empieza con su propio timestamp
+        private final long minute;
+        private final long fingerprint;
+
+        private ChatEvent(boolean confirmation, String playerName, long minute, long fingerprint) {
+            this(confirmation, playerName, 0, minute, fingerprint);
+        }
+
+        private ChatEvent(boolean confirmation, String playerName, double amount, long minute, long fingerprint) {
+            this.confirmation = confirmation;
+            this.playerName = playerName;
+            this.amount = amount;
+            this.minute = minute;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /**
+     * Bloque de líneas consecutivas con el minuto y la huella de cada una,
+     * y si sus pagos se descartan (líneas sin fecha de un grupo ya importado)
+     */
+    private static final class LineChunk {
+        private final List<String> lines = new ArrayList<>(CHUNK_LINES);
+        private final long[] minutes = new long[CHUNK_LINES];
+        private final long[] fingerprints = new long[CHUNK_LINES];
+        private final boolean[] skipPayments = new boolean[CHUNK_LINES];
+
+        private void add(String line, long minute, long fingerprint, boolean skipPayment) {
+            minutes[lines.size()] = minute;
+            fingerprints[lines.size()] = fingerprint;
+            skipPayments[lines.size()] = skipPayment;
+            lines.add(line);
+        }
+
+        private int size() {
+            return lines.size();
+        }
+    }
+
+    /**
+     * Huellas de las líneas con timestamp propio, calculadas en el orden del chat mientras se lee:
+     * hash del texto y cuántas veces apareció ese texto antes en el mismo minuto, contando también
+     * las líneas que descarta la marca de agua. Así un mensaje tiene la misma huella en cualquier
+     * export que contenga su minuto completo, aunque se importe por tramos.
+     * Las líneas sin timestamp propio no tienen huella: el mismo texto puede ser otro mensaje.
+     * No es thread-safe: se usa desde el hilo que lee el chat.
+     */
+    private static final class LineFingerprints {
+        private final ChatTextNormalizer normalizer = new ChatTextNormalizer();
+        private final Map<Long, Integer> occurrences = new HashMap<>();
+        private long currentMinute = NO_TIMESTAMP;
+        // Resultado de la última llamada a next
+        private long minute;
+        private long fingerprint;
+
+        private void next(String line) {
+            String text = normalizer.stripInvisible(line);
+            minute = CLASSIFIER.leadingTimestampMinute(text);
+            if (minute == NO_TIMESTAMP) {
+                fingerprint = 0;
+                return;
+            }
+            if (minute != currentMinute) {
+                currentMinute = minute;
+                occurrences.clear();
+            }
+            long hash = ImportWatermark.textHash(text);
+            fingerprint = ImportWatermark.withOccurrence(hash, occurrences.merge(hash, 1, Integer::sum));
+        }
+    }
+
+    /**
+     * Resultado de parsear un bloque de líneas consecutivas
+     */
+    private static final class ParsedChunk {
+        private final List<ChatEvent> events;
+        private final List<String> unrecognizedMessages;
+        private final int unrecognizedMessagesCount;
+        private final int undatedPaymentsSkipped;
+
+        private ParsedChunk(List<ChatEvent> events, List<String> unrecognizedMessages, int unrecognizedMessagesCount,
+                            int undatedPaymentsSkipped) {
+            this.events = events;
+            this.unrecognizedMessages = unrecognizedMessages;
+            this.unrecognizedMessagesCount = unrecognizedMessagesCount;
+            this.undatedPaymentsSkipped = undatedPaymentsSkipped;
+        }
     }
     
     /**
      * Procesa el texto del chat y extrae información de jugadores y pagos
      */
-    @Transactional
     public ChatParsingResult processChatText(String chatText) {
-        ChatParsingResult result = new ChatParsingResult();
+        return processChatText(chatText, null);
+    }
+
+    /**
+     * Procesa el texto del chat de un grupo. Si se indica el grupo, las líneas ya importadas
+     * en importaciones anteriores (según su marca de agua) se descartan sin parsearlas.
+     * Las líneas antes del primer timestamp (formato simple, listas) no tienen fecha y la marca
+     * no puede saber si ya se importaron: si el grupo ya se importó antes, sus pagos no se registran
+     * y se cuentan en undatedPaymentsSkipped (sus confirmaciones sí se cuentan; no guardan nada).
+     * Si otra importación del mismo grupo se aplica mientras tanto, lanza IllegalStateException
+     * sin aplicar nada.
+     */
+    public ChatParsingResult processChatText(String chatText, String group) {
+        return processChatText(chatText, group, new ImportProgress());
+    }
+
+    /**
+     * Procesa el texto del chat de un grupo informando el avance en progress.
+     */
+    public ChatParsingResult processChatText(String chatText, String group, ImportProgress progress) {
         if (chatText == null || chatText.trim().isEmpty()) {
-            return result;
-        }
-        // Dividir el texto en líneas
-        String[] lines = chatText.split("\\r?\\n");
-        for (String line : lines) {
-            if (line.trim().isEmpty()) continue;
-            ParsedMessage parsed = extractNameAndMessage(line);
-            String name = parsed != null ? parsed.name : null;
-            String message = parsed != null ? parsed.message : line;
-            boolean recognized = false;
-
-            // 1. Buscar pagos con nombre explícito en el mensaje
-            Matcher m1 = PAYMENT_WITH_NAME_PATTERN_1.matcher(message);
-            if (m1.find()) {
-                String detectedName = m1.group(1).trim();
-                Player player = findOrCreatePlayer(detectedName, result);
-                result.paidPlayers.add(player.getName());
-                result.paymentsRegistered++;
-                recognized = true;
-                continue;
-            }
-            Matcher m2 = PAYMENT_WITH_NAME_PATTERN_2.matcher(message);
-            if (m2.find()) {
-                String detectedName = m2.group(2).trim();
-                Player player = findOrCreatePlayer(detectedName, result);
-                result.paidPlayers.add(player.getName());
-                result.paymentsRegistered++;
-                recognized = true;
-                continue;
-            }
+            return new ChatParsingResult();
+        }
+        // Recorrer las líneas sin copiar el texto completo en un arreglo
+        return processLines(chatText.lines().iterator(), group, Integer.MAX_VALUE, progress);
+    }
 
-            // 2. Confirmaciones de asistencia o lista numerada
-            if (name != null && (isConfirmation(message) || message.isEmpty())) {
-                Player player = findOrCreatePlayer(name, result);
-                result.confirmedPlayers.add(player.getName());
-                result.playersConfirmed++;
-                recognized = true;
-                continue;
-            }
+    /**
+     * Procesa un export de chat leyéndolo línea por línea, sin cargarlo completo en memoria.
+     * Solo se devuelven los primeros mensajes no reconocidos, confirmados y pagados (los contadores
+     * son exactos) y los eventos se aplican de a EVENTS_PER_TRANSACTION, así que la memoria
+     * no crece con el tamaño del archivo.
+     */
+    public ChatParsingResult processChatStream(Reader reader) throws IOException {
+        return processChatStream(reader, null);
+    }
 
-            // 3. Pagos tradicionales (palabra clave, nombre del remitente)
-            if (name != null && isPayment(message)) {
-                Player player = findOrCreatePlayer(name, result);
-                result.paidPlayers.add(player.getName());
-                result.paymentsRegistered++;
-                recognized = true;
-                continue;
-            }
+    /**
+     * Procesa un export de chat de un grupo, descartando las líneas ya importadas.
+     */
+    public ChatParsingResult processChatStream(Reader reader, String group) throws IOException {
+        return processChatStream(reader, group, new ImportProgress());
+    }
 
-            // 4. No reconocido
-            if (!recognized) {
-                result.unrecognizedMessages.add(line);
-            }
+    /**
+     * Procesa un export de chat de un grupo informando el avance en progress.
+     */
+    public ChatParsingResult processChatStream(Reader reader, String group, ImportProgress progress) throws IOException {
+        BufferedReader bufferedReader = reader instanceof BufferedReader
+                ? (BufferedReader) reader
+                : new BufferedReader(reader);
+        try {
+            return processLines(bufferedReader.lines().iterator(), group, MAX_STREAM_LISTED_ITEMS, progress);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
-        return result;
     }
-    
+
     /**
-     * Extrae nombre y mensaje de una línea de chat
+     * Filtra las líneas ya importadas y parsea las nuevas en bloques en paralelo mientras se siguen
+     * leyendo, con una ventana fija de bloques en vuelo. Los eventos se aplican en transacciones cortas
+     * de EVENTS_PER_TRANSACTION a medida que se juntan; la última también guarda la nueva marca de agua.
+     * Así lo retenido queda acotado por la ventana, un lote de eventos y maxListed nombres y mensajes
+     * del resultado, sin importar el tamaño del archivo.
+     *
+     * Un chat con menos eventos que un lote (lo habitual) se aplica todo o nada. Si uno más grande falla
+     * a mitad de camino, los lotes anteriores quedan aplicados: volver a importarlo no repite los pagos
+     * con timestamp (tienen clave de idempotencia) ni las confirmaciones, que no se guardan.
      */
-    private ParsedMessage extractNameAndMessage(String line) {
-        // Limpiar caracteres invisibles Unicode (como U+2060, U+200B, U+FEFF, etc.)
-        String cleanLine = line.replaceAll("[\\u200B-\\u200D\\uFEFF\\u2060]", "").trim();
+    private ChatParsingResult processLines(Iterator<String> lines, String group, int maxListed,
+                                           ImportProgress progress) {
+        long roundTripsBefore = SqlStatementCounter.count();
+        String groupId = group != null && !group.trim().isEmpty() ? group.trim() : null;
+        ChatImportWatermark storedWatermark = groupId != null
+                ? chatImportWatermarkRepository.findById(groupId).orElse(null)
+                : null;
+        ImportWatermark watermark = groupId != null ? ImportWatermark.from(storedWatermark, CLASSIFIER) : null;
+        // Un grupo con marca guardada ya se importó: sus pagos sin fecha pueden estar registrados
+        boolean importedBefore = storedWatermark != null;
 
-        // Ignorar encabezados tipo *LUNES 20 HS* o similares
-        if (cleanLine.matches("^\\*?[A-ZÁÉÍÓÚÑ ]+\\*?\\s*\\d{1,2}\\s*HS\\*?$")) {
-            return null;
+        // Bloques en vuelo, en el orden del chat: como mucho MAX_CHUNKS_IN_FLIGHT líneas de bloques sin juntar
+        // en memoria; al llenarse la ventana se espera al más antiguo antes de seguir leyendo
+        Deque<ForkJoinTask<ParsedChunk>> inFlight = new ArrayDeque<>();
+        ChatParsingResult result = new ChatParsingResult();
+        List<ChatEvent> events = new ArrayList<>();
+        LineFingerprints fingerprints = new LineFingerprints();
+        LineChunk chunk = new LineChunk();
+        while (lines.hasNext()) {
+            String line = lines.next();
+            progress.linesProcessed.incrementAndGet();
+            // Antes de filtrar: las líneas ya importadas también cuentan para las repeticiones de su minuto
+            fingerprints.next(line);
+            if (watermark != null && !watermark.isNew(line)) continue;
+            chunk.add(line, fingerprints.minute, fingerprints.fingerprint, importedBefore && watermark.isUndated());
+            if (chunk.size() == CHUNK_LINES) {
+                if (inFlight.size() == MAX_CHUNKS_IN_FLIGHT) {
+                    collect(inFlight.poll().join(), result, events, maxListed, progress);
+                    if (events.size() >= EVENTS_PER_TRANSACTION) {
+                        transactionTemplate.executeWithoutResult(status -> applyEvents(events, result, maxListed, progress));
+                        events.clear();
+                    }
+                }
+                inFlight.add(submitChunk(chunk, maxListed - result.unrecognizedMessages.size()));
+                chunk = new LineChunk();
+            }
         }
-
-        // Intentar formato de WhatsApp con timestamp
-        Matcher whatsappMatcher = WHATSAPP_NAME_PATTERN.matcher(cleanLine);
-        if (whatsappMatcher.find()) {
-            return new ParsedMessage(whatsappMatcher.group(1).trim(), whatsappMatcher.group(2).trim());
+        if (chunk.size() > 0) {
+            inFlight.add(submitChunk(chunk, maxListed - result.unrecognizedMessages.size()));
         }
-        // Intentar formato simple
-        Matcher simpleMatcher = SIMPLE_NAME_PATTERN.matcher(cleanLine);
-        if (simpleMatcher.find()) {
-            return new ParsedMessage(simpleMatcher.group(1).trim(), simpleMatcher.group(2).trim());
+        while (!inFlight.isEmpty()) {
+            collect(inFlight.poll().join(), result, events, maxListed, progress);
         }
-        // Intentar formato de lista numerada (1. Nombre o 1) Nombre)
-        Matcher numberedMatcher = NUMBERED_LIST_PATTERN.matcher(cleanLine);
-        if (numberedMatcher.find()) {
-            return new ParsedMessage(numberedMatcher.group(1).trim(), "");
+
+        // La primera importación de un grupo guarda la marca aunque no tenga líneas con fecha:
+        // así la siguiente sabe que los pagos sin fecha ya se registraron
+        boolean saveWatermark = watermark != null && (watermark.isChanged() || !importedBefore);
+        if (!events.isEmpty() || saveWatermark) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    applyEvents(events, result, maxListed, progress);
+                    if (saveWatermark) {
+                        ChatImportWatermark target = storedWatermark != null
+                                ? storedWatermark
+                                : new ChatImportWatermark(groupId);
+                        watermark.writeTo(target);
+                        chatImportWatermarkRepository.save(target);
+                    }
+                });
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                if (!saveWatermark) throw e;
+                // Otra importación del grupo guardó la marca después de que esta la leyó:
+                // no se aplicó nada, salvo los lotes anteriores de un chat muy grande
+                throw new IllegalStateException("Otra importación del grupo " + groupId
+                        + " se aplicó al mismo tiempo; volvé a importar el chat", e);
+            }
         }
-        return null;
+        result.skippedLinesCount = watermark != null ? watermark.getSkippedLines() : 0;
+        result.databaseRoundTrips = SqlStatementCounter.count() - roundTripsBefore;
+        return result;
     }
-    
+
     /**
-     * Busca un jugador existente o crea uno nuevo si no existe
+     * Parsea un bloque en el pool guardando como mucho maxUnrecognizedMessages líneas no reconocidas
+     * (lo que todavía falta para el máximo según los bloques ya juntados).
      */
-    private Player findOrCreatePlayer(String name, ChatParsingResult result) {
-        String cleanName = cleanPlayerName(name);
-        Optional<Player> playerOpt = playerRepository.findByNameIgnoreCaseAndActivoTrue(cleanName);
-        if (playerOpt.isPresent()) {
-            return playerOpt.get();
-        } else {
-            PlayerDTO dto = new PlayerDTO(cleanName, 5, "MED");
-            Player newPlayer = playerService.addPlayer(dto);
-            result.getNewPlayersAdded().add(cleanName);
-            return newPlayer;
+    private ForkJoinTask<ParsedChunk> submitChunk(LineChunk chunk, int maxUnrecognizedMessages) {
+        return PARSE_POOL.submit(() -> parseChunk(chunk, maxUnrecognizedMessages));
+    }
+
+    /**
+     * Junta el resultado de un bloque (en el orden del chat) con los anteriores.
+     */
+    private static void collect(ParsedChunk parsed, ChatParsingResult result, List<ChatEvent> events,
+                                int maxListed, ImportProgress progress) {
+        events.addAll(parsed.events);
+        progress.paymentsDetected.addAndGet(parsed.events.stream().filter(event -> !event.confirmation).count());
+        result.unrecognizedMessagesCount += parsed.unrecognizedMessagesCount;
+        result.undatedPaymentsSkipped += parsed.undatedPaymentsSkipped;
+        for (String message : parsed.unrecognizedMessages) {
+            if (result.unrecognizedMessages.size() >= maxListed) break;
+            result.unrecognizedMessages.add(message);
         }
     }
-    
+
     /**
-     * Limpia el nombre del jugador eliminando caracteres especiales
+     * Parsea un bloque de líneas sin tocar la base de datos.
      */
-    private String cleanPlayerName(String name) {
-        if (name == null) return "";
-        return name.replaceAll("[^A-Za-zÀ-ÿ\\s]", "").replaceAll("\\s+", " ").trim();
+    private ParsedChunk parseChunk(LineChunk chunk, int maxUnrecognizedMessages) {
+        List<ChatEvent> events = new ArrayList<>();
+        List<String> unrecognized = new ArrayList<>();
+        int unrecognizedCount = 0;
+        int undatedPaymentsSkipped = 0;
+        ChatTextNormalizer normalizer = new ChatTextNormalizer();
+        for (int i = 0; i < chunk.size(); i++) {
+            String line = chunk.lines.get(i);
+            int eventsBefore = events.size();
+            if (!parseLine(line, chunk.minutes[i], chunk.fingerprints[i], events, normalizer)) {
+                unrecognizedCount++;
+                if (unrecognized.size() < maxUnrecognizedMessages) {
+                    unrecognized.add(line);
+                }
+            } else if (chunk.skipPayments[i] && events.size() > eventsBefore && !events.get(eventsBefore).confirmation) {
+                events.remove(eventsBefore);
+                undatedPaymentsSkipped++;
+            }
+        }
+        // La tarea sigue referenciando el bloque hasta que se junta: soltar sus líneas ya
+        chunk.lines.clear();
+        return new ParsedChunk(events, unrecognized, unrecognizedCount, undatedPaymentsSkipped);
     }
-    
+
     /**
-     * Verifica si dos nombres son similares (para manejar apodos o errores)
+     * Parsea una línea del chat sin tocar la base de datos.
+     * Las confirmaciones y pagos se agregan a events. Devuelve false si la línea no se reconoce.
      */
-    private boolean isSimilarName(String name1, String name2) {
-        if (name1 == null || name2 == null) return false;
-        String n1 = cleanPlayerName(name1).toLowerCase();
-        String n2 = cleanPlayerName(name2).toLowerCase();
-        return n1.equals(n2) || n1.contains(n2) || n2.contains(n1);
+    private boolean parseLine(String line, long minute, long fingerprint, List<ChatEvent> events,
+                              ChatTextNormalizer normalizer) {
+        if (line.trim().isEmpty()) return true;
+        ParsedMessage parsed = extractNameAndMessage(line, normalizer);
+        String name = parsed != null ? parsed.getName() : null;
+        String message = parsed != null ? parsed.getMessage() : line;
+        ChatMessageClassifier.Classification classification = CLASSIFIER.classify(message);
+
+        // 1. Buscar pagos con nombre explícito en el mensaje
+        ChatEvent event = null;
+        if (classification.getPayerName() != null) {
+            event = new ChatEvent(false, normalizer.cleanName(classification.getPayerName()),
+                    parseAmount(classification.getAmount()), minute, fingerprint);
+        }
+
+        // 2. Confirmaciones de asistencia o lista numerada
+        else if (name != null && (classification.isConfirmation() || message.isEmpty())) {
+            event = new ChatEvent(true, normalizer.cleanName(name), minute, fingerprint);
+        }
+
+        // 3. Pagos tradicionales (palabra clave, nombre del remitente)
+        else if (name != null && classification.isPayment()) {
+            event = new ChatEvent(false, normalizer.cleanName(name), minute, fingerprint);
+        }
+
+        // Un nombre que queda vacío al limpiarlo no identifica a ningún jugador
+        if (event != null && !event.playerName.isEmpty()) {
+            events.add(event);
+            return true;
+        }
+
+        // 4. No reconocido
+        return false;
     }
     
     /**
-     * Verifica si el mensaje es una confirmación de asistencia
+     * Monto escrito en el mensaje (solo dígitos, ya sin separadores de miles), o 0 si no hay o no se pudo leer.
      */
-    private boolean isConfirmation(String message) {
-        return CONFIRMATION_PATTERN.matcher(message).find();
+    private static double parseAmount(String amount) {
+        return amount != null ? Double.parseDouble(amount) : 0;
     }
-    
+
     /**
-     * Verifica si el mensaje es una confirmación de pago
+     * Extrae nombre y mensaje de una línea de chat
      */
-    private boolean isPayment(String message) {
-        return PAYMENT_PATTERN.matcher(message).find();
+    static ParsedMessage extractNameAndMessage(String line, ChatTextNormalizer normalizer) {
+        // Limpiar caracteres invisibles Unicode (como U+2060, U+200B, U+FEFF, etc.)
+        String cleanLine = normalizer.stripInvisible(line);
+
+        // Ignorar encabezados tipo *LUNES 20 HS* o similares
+        if (normalizer.isHeader(cleanLine)) {
+            return null;
+        }
+
+        // Formatos de WhatsApp con timestamp, simple y lista numerada
+        return CLASSIFIER.extractNameAndMessage(cleanLine);
     }
     
     /**
-     * Clase interna para almacenar nombre y mensaje parseados
+     * Resuelve todos los nombres de los eventos de una vez (una consulta IN y un batch de altas;
+     * los nombres que reciben pagos solo por coincidencia exacta),
+     * acumula confirmaciones y pagos en el orden del chat y registra todos los pagos en un batch.
+     * Los pagos sin monto usan el costo por jugador del partido activo.
+     * Se llama una vez por lote de eventos: suma al resultado y lista como mucho maxListed nombres.
+     *
+     * Cada pago de una línea con timestamp propio lleva como clave de idempotencia su minuto y la huella
+     * de la línea (texto y cuántas veces apareció antes en ese minuto), así que volver a importar el mismo
+     * chat, o un export que lo contiene, no repite los pagos ya registrados. Los pagos de líneas sin
+     * timestamp no llevan clave: no hay cómo distinguir una repetición de un pago nuevo con el mismo texto.
      */
-    private static class ParsedMessage {
-        String name;
-        String message;
-        ParsedMessage(String name, String message) {
-            this.name = name;
-            this.message = message;
+    private void applyEvents(List<ChatEvent> events, ChatParsingResult result, int maxListed,
+                             ImportProgress progress) {
+        if (events.isEmpty()) return;
+        Set<String> names = new LinkedHashSet<>();
+        Set<String> payerNames = new HashSet<>();
+        for (ChatEvent event : events) {
+            names.add(event.playerName);
+            if (!event.confirmation) {
+                payerNames.add(event.playerName);
+            }
+        }
+        int createdBefore = result.newPlayersAdded.size();
+        Map<String, PlayerNameIndex.Entry> players =
+                playerService.resolveOrCreateActivePlayers(names, payerNames, result.newPlayersAdded);
+        int created = result.newPlayersAdded.size() - createdBefore;
+        progress.playersCreated.addAndGet(created);
+        progress.playersMatched.addAndGet(names.size() - created);
+
+        List<Payment> payments = new ArrayList<>();
+        double defaultAmount = -1;
+        for (ChatEvent event : events) {
+            PlayerNameIndex.Entry player = players.get(event.playerName);
+            if (event.confirmation) {
+                if (result.confirmedPlayers.size() < maxListed) {
+                    result.confirmedPlayers.add(player.getName());
+                }
+                result.playersConfirmed++;
+            } else {
+                double amount = event.amount;
+                if (amount <= 0) {
+                    if (defaultAmount < 0) {
+                        defaultAmount = paymentService.getDefaultPaymentAmount();
+                    }
+                    amount = defaultAmount;
+                }
+                Payment payment = new Payment(player.getId(), player.getName(), amount, CHAT_PAYMENT_CONCEPT);
+                if (event.minute != NO_TIMESTAMP) {
+                    payment.setIdempotencyKey(CHAT_PAYMENT_KEY_PREFIX + Long.toHexString(event.minute)
+                            + ":" + Long.toHexString(event.fingerprint));
+                }
+                payments.add(payment);
+            }
+        }
+        List<Payment> registered = paymentService.registerPaymentsInBatch(payments);
+        for (Payment payment : registered) {
+            if (result.paidPlayers.size() >= maxListed) break;
+            result.paidPlayers.add(payment.getPlayerName());
         }
+        result.paymentsRegistered += registered.size();
+        result.duplicatePaymentsSkipped += payments.size() - registered.size();
     }
 }
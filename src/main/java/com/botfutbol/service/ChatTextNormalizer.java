@@ -0,0 +1,166 @@
+package com.botfutbol.service;
+
+/**
+ * Normalizador de texto de chat sin regex.
+ * Responsabilidad: Quitar caracteres invisibles de una línea, reconocer encabezados tipo "*LUNES 20 HS*"
+ * y limpiar nombres de jugadores, recorriendo el texto una vez sobre un buffer reutilizable.
+ *
+ * Da exactamente el mismo resultado que los regex que reemplaza (ver cada método).
+ * Cuando el texto no cambia devuelve la misma instancia, sin copiarla.
+ * No es thread-safe: cada hilo usa su propia instancia.
+ */
+final class ChatTextNormalizer {
+
+    private char[] buffer = new char[0];
+
+    /**
+     * Equivalente a line.replaceAll("[\\u200B-\\u200D\\uFEFF\\u2060]", "").trim()
+     */
+    String stripInvisible(String line) {
+        int length = line.length();
+        int first = 0;
+        while (first < length && !isInvisible(line.charAt(first))) {
+            first++;
+        }
+        if (first == length) {
+            return line.trim();
+        }
+
+        char[] chars = buffer(length);
+        line.getChars(0, first, chars, 0);
+        int size = first;
+        for (int i = first + 1; i < length; i++) {
+            char c = line.charAt(i);
+            if (!isInvisible(c)) {
+                chars[size++] = c;
+            }
+        }
+        int start = 0;
+        while (start < size && chars[start] <= ' ') {
+            start++;
+        }
+        while (size > start && chars[size - 1] <= ' ') {
+            size--;
+        }
+        return new String(chars, start, size - start);
+    }
+
+    /**
+     * Equivalente a line.matches("^\\*?[A-ZÁÉÍÓÚÑ ]+\\*?\\s*\\d{1,2}\\s*HS\\*?$")
+     */
+    boolean isHeader(String line) {
+        int length = line.length();
+        int pos = charAt(line, 0, '*') ? 1 : 0;
+
+        // [A-ZÁÉÍÓÚÑ ]+ (sin retroceso: ni '*', ni los dígitos, ni \s salvo el espacio pertenecen a la clase)
+        int start = pos;
+        while (pos < length && isHeaderLetter(line.charAt(pos))) {
+            pos++;
+        }
+        if (pos == start) return false;
+        if (charAt(line, pos, '*')) pos++;
+        pos = whitespaceEnd(line, pos);
+
+        // \d{1,2}
+        int digitsStart = pos;
+        while (pos < length && isDigit(line.charAt(pos))) {
+            pos++;
+        }
+        int digits = pos - digitsStart;
+        if (digits < 1 || digits > 2) return false;
+        pos = whitespaceEnd(line, pos);
+
+        // HS\*?$
+        if (!charAt(line, pos, 'H') || !charAt(line, pos + 1, 'S')) return false;
+        pos += 2;
+        if (charAt(line, pos, '*')) pos++;
+        return pos == length;
+    }
+
+    /**
+     * Equivalente a name.replaceAll("[^A-Za-zÀ-ÿ\\s]", "").replaceAll("\\s+", " ").trim()
+     * (y "" si name es null)
+     */
+    String cleanName(String name) {
+        if (name == null) return "";
+        if (isCleanName(name)) return name;
+
+        int length = name.length();
+        char[] chars = buffer(length);
+        int size = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            if (isWhitespace(c)) {
+                pendingSpace = true;
+            } else if (isNameLetter(c)) {
+                if (pendingSpace && size > 0) {
+                    chars[size++] = ' ';
+                }
+                pendingSpace = false;
+                chars[size++] = c;
+            }
+        }
+        return new String(chars, 0, size);
+    }
+
+    /**
+     * Caracteres invisibles que WhatsApp agrega a los exports (U+200B-U+200D, U+FEFF, U+2060)
+     */
+    static boolean isInvisible(char c) {
+        return (c >= '\u200B' && c <= '\u200D') || c == '\uFEFF' || c == '\u2060';
+    }
+
+    // Ya limpio: solo letras y espacios simples entre palabras
+    private static boolean isCleanName(String name) {
+        int length = name.length();
+        if (length == 0) return true;
+        if (name.charAt(0) == ' ' || name.charAt(length - 1) == ' ') return false;
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            if (c == ' ') {
+                if (name.charAt(i - 1) == ' ') return false;
+            } else if (!isNameLetter(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private char[] buffer(int length) {
+        if (buffer.length < length) {
+            buffer = new char[Math.max(length, buffer.length * 2)];
+        }
+        return buffer;
+    }
+
+    private static int whitespaceEnd(String line, int pos) {
+        while (pos < line.length() && isWhitespace(line.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean charAt(String line, int pos, char expected) {
+        return pos < line.length() && line.charAt(pos) == expected;
+    }
+
+    // [A-ZÁÉÍÓÚÑ ]
+    private static boolean isHeaderLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || c == 'Á' || c == 'É' || c == 'Í' || c == 'Ó' || c == 'Ú' || c == 'Ñ' || c == ' ';
+    }
+
+    // [A-Za-zÀ-ÿ]
+    private static boolean isNameLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= 'À' && c <= 'ÿ');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // \s sin UNICODE_CHARACTER_CLASS
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
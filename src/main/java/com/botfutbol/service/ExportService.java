@@ -0,0 +1,215 @@
+package com.botfutbol.service;
+
+import com.botfutbol.dto.GoalRowDTO;
+import com.botfutbol.dto.PaymentRowDTO;
+import com.botfutbol.dto.PlayerRowDTO;
+import com.botfutbol.repository.GoalRepository;
+import com.botfutbol.repository.PaymentRepository;
+import com.botfutbol.repository.PlayerRepository;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Servicio de exportación de datos.
+ * Responsabilidad: Escribir jugadores, pagos y goles como CSV o NDJSON directamente en la salida,
+ * leyendo las filas de a bloques. La memoria usada no depende de la cantidad de filas y toda la
+ * exportación corre en una transacción de solo lectura REPEATABLE READ (una sola foto de la base).
+ */
+@Service
+@Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+public class ExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final List<Column<PlayerRowDTO>> PLAYER_COLUMNS = List.of(
+            new Column<>("id", PlayerRowDTO::getId),
+            new Column<>("name", PlayerRowDTO::getName),
+            new Column<>("skillLevel", PlayerRowDTO::getSkillLevel),
+            new Column<>("position", PlayerRowDTO::getPosition),
+            new Column<>("totalDebt", PlayerRowDTO::getTotalDebt),
+            new Column<>("totalPaid", PlayerRowDTO::getTotalPaid),
+            new Column<>("gamesPlayed", PlayerRowDTO::getGamesPlayed),
+            new Column<>("goalsScored", PlayerRowDTO::getGoalsScored),
+            new Column<>("attended", PlayerRowDTO::isAttended),
+            new Column<>("activo", PlayerRowDTO::isActivo));
+
+    private static final List<Column<PaymentRowDTO>> PAYMENT_COLUMNS = List.of(
+            new Column<>("id", PaymentRowDTO::getId),
+            new Column<>("playerId", PaymentRowDTO::getPlayerId),
+            new Column<>("playerName", PaymentRowDTO::getPlayerName),
+            new Column<>("amount", PaymentRowDTO::getAmount),
+            new Column<>("timestamp", PaymentRowDTO::getTimestamp),
+            new Column<>("concept", PaymentRowDTO::getConcept));
+
+    private static final List<Column<GoalRowDTO>> GOAL_COLUMNS = List.of(
+            new Column<>("id", GoalRowDTO::getId),
+            new Column<>("playerId", GoalRowDTO::getPlayerId),
+            new Column<>("playerName", GoalRowDTO::getPlayerName),
+            new Column<>("teamId", GoalRowDTO::getTeamId),
+            new Column<>("timestamp", GoalRowDTO::getTimestamp),
+            new Column<>("matchId", GoalRowDTO::getMatchId));
+
+    private final PlayerRepository playerRepository;
+    private final PaymentRepository paymentRepository;
+    private final GoalRepository goalRepository;
+    private final ObjectMapper objectMapper;
+    // Filas NDJSON: mismas propiedades que los listados paginados, sin flush por fila
+    private final ObjectWriter rowWriter;
+
+    public ExportService(PlayerRepository playerRepository,
+                         PaymentRepository paymentRepository,
+                         GoalRepository goalRepository,
+                         ObjectMapper objectMapper) {
+        this.playerRepository = playerRepository;
+        this.paymentRepository = paymentRepository;
+        this.goalRepository = goalRepository;
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public enum Format {
+        CSV("text/csv;charset=UTF-8", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+
+        /**
+         * Formato por nombre ("csv" o "ndjson", sin distinguir mayúsculas).
+         */
+        public static Format parse(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value != null ? value.trim() : "")) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Formato no soportado: " + value + " (usar csv o ndjson)");
+        }
+    }
+
+    /**
+     * Columna exportada: nombre y valor de cada fila
+     */
+    private static final class Column<T> {
+        private final String name;
+        private final Function<T, Object> value;
+
+        private Column(String name, Function<T, Object> value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Exporta todos los jugadores, ordenados por nombre.
+     */
+    public void exportPlayers(Format format, OutputStream out) throws IOException {
+        try (Stream<PlayerRowDTO> rows = playerRepository.streamRows()) {
+            export(rows, PLAYER_COLUMNS, format, out);
+        }
+    }
+
+    /**
+     * Exporta todos los pagos, del más antiguo al más reciente.
+     */
+    public void exportPayments(Format format, OutputStream out) throws IOException {
+        try (Stream<PaymentRowDTO> rows = paymentRepository.streamRows()) {
+            export(rows, PAYMENT_COLUMNS, format, out);
+        }
+    }
+
+    /**
+     * Exporta todos los goles, del más antiguo al más reciente.
+     */
+    public void exportGoals(Format format, OutputStream out) throws IOException {
+        try (Stream<GoalRowDTO> rows = goalRepository.streamRows()) {
+            export(rows, GOAL_COLUMNS, format, out);
+        }
+    }
+
+    private <T> void export(Stream<T> rows, List<Column<T>> columns, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        Iterator<T> iterator = rows.iterator();
+        if (format == Format.CSV) {
+            writeCsvHeader(writer, columns);
+            while (iterator.hasNext()) {
+                writeCsvRow(writer, columns, iterator.next());
+            }
+        } else {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Una fila por línea: sin el espacio que Jackson pone entre valores raíz
+            generator.setRootValueSeparator(null);
+            while (iterator.hasNext()) {
+                rowWriter.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+            }
+            generator.close();
+        }
+        writer.flush();
+    }
+
+    private static <T> void writeCsvHeader(Writer writer, List<Column<T>> columns) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) writer.write(',');
+            writer.write(columns.get(i).name);
+        }
+        writer.write("\r\n");
+    }
+
+    private static <T> void writeCsvRow(Writer writer, List<Column<T>> columns, T row) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) writer.write(',');
+            Object value = columns.get(i).value.apply(row);
+            if (value != null) {
+                writeCsvValue(writer, value.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: entre comillas si tiene separadores, comillas o saltos de línea; las comillas se duplican
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') writer.write('"');
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
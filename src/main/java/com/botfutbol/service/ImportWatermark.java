@@ -0,0 +1,261 @@
+package com.botfutbol.service;
+
+import com.botfutbol.entity.ChatImportWatermark;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.botfutbol.service.ChatMessageClassifier.NO_TIMESTAMP;
+
+/**
+ * Estado de la marca de agua de un grupo durante una importación.
+ * Decide, línea por línea y en orden, si la línea ya se importó antes:
+ * - Cada línea pertenece al minuto de su timestamp o, si no tiene, al del último timestamp visto
+ *   (las líneas antes del primer timestamp no tienen minuto).
+ * - Las líneas de minutos anteriores a la marca se descartan sin calcular nada más.
+ * - Las del minuto de la marca se comparan por huella (hash de 64 bits del texto
+ *   y de cuántas veces se repitió en el mismo minuto).
+ * - Las de minutos posteriores son nuevas.
+ * - Las sin minuto siempre son nuevas: sin posición en el chat no hay con qué compararlas,
+ *   y el mismo texto puede ser otro mensaje enviado en otro momento. Quien importa consulta
+ *   isUndated para no repetir los pagos de esas líneas en un grupo ya importado.
+ *
+ * No es thread-safe: se usa desde el hilo que lee el chat.
+ */
+final class ImportWatermark {
+
+    private final ChatMessageClassifier classifier;
+
+    // Marca guardada
+    private final long storedMinute;
+    private final FingerprintSet storedLastMinute;
+
+    // Minuto más reciente visto y huellas de sus líneas (la próxima marca)
+    private long lastMinute;
+    private FingerprintSet lastMinuteFingerprints;
+
+    // Minuto de la línea actual y repeticiones de cada texto en ese minuto
+    private long currentMinute = NO_TIMESTAMP;
+    private final Map<Long, Integer> occurrences = new HashMap<>();
+
+    private boolean changed = false;
+    private int skippedLines = 0;
+
+    private ImportWatermark(ChatMessageClassifier classifier, long storedMinute, FingerprintSet storedLastMinute) {
+        this.classifier = classifier;
+        this.storedMinute = storedMinute;
+        this.storedLastMinute = storedLastMinute;
+        this.lastMinute = storedMinute;
+        this.lastMinuteFingerprints = storedLastMinute.copy();
+    }
+
+    /**
+     * Crea el estado a partir de la marca guardada (o vacío si el grupo nunca se importó).
+     */
+    static ImportWatermark from(ChatImportWatermark stored, ChatMessageClassifier classifier) {
+        if (stored == null) {
+            return new ImportWatermark(classifier, NO_TIMESTAMP, new FingerprintSet());
+        }
+        long minute = stored.getLastMessageAt() != null ? toMinute(stored.getLastMessageAt()) : NO_TIMESTAMP;
+        return new ImportWatermark(classifier, minute, FingerprintSet.fromBytes(stored.getLastMinuteFingerprints()));
+    }
+
+    /**
+     * Indica si la línea es nueva y actualiza la próxima marca. Las líneas deben llegar en orden.
+     */
+    boolean isNew(String line) {
+        String text = line.trim();
+        if (text.isEmpty()) return true;
+
+        long minute = classifier.leadingTimestampMinute(text);
+        if (minute != NO_TIMESTAMP && minute != currentMinute) {
+            currentMinute = minute;
+            occurrences.clear();
+        }
+
+        // Sin minuto: siempre nueva (no cambia la marca)
+        if (currentMinute == NO_TIMESTAMP) return true;
+
+        // Minuto anterior a la marca: ya importado
+        if (storedMinute != NO_TIMESTAMP && currentMinute < storedMinute) {
+            skippedLines++;
+            return false;
+        }
+        // Minuto posterior al más reciente: empieza una nueva marca
+        if (currentMinute > lastMinute) {
+            lastMinute = currentMinute;
+            lastMinuteFingerprints = new FingerprintSet();
+            changed = true;
+        }
+        // Minuto intermedio, posterior a la marca guardada: no hace falta la huella
+        if (currentMinute != storedMinute && currentMinute != lastMinute) {
+            return true;
+        }
+
+        long fingerprint = fingerprint(text);
+        boolean seen = currentMinute == storedMinute && storedLastMinute.contains(fingerprint);
+        if (currentMinute == lastMinute) {
+            lastMinuteFingerprints.add(fingerprint);
+        }
+        if (seen) {
+            skippedLines++;
+            return false;
+        }
+        changed = true;
+        return true;
+    }
+
+    /**
+     * Si la última línea pasada a isNew no tiene minuto (está antes del primer timestamp del chat).
+     */
+    boolean isUndated() {
+        return currentMinute == NO_TIMESTAMP;
+    }
+
+    /**
+     * Si la importación avanzó la marca (hay que guardarla).
+     */
+    boolean isChanged() {
+        return changed;
+    }
+
+    /**
+     * Líneas descartadas por haberse importado antes.
+     */
+    int getSkippedLines() {
+        return skippedLines;
+    }
+
+    /**
+     * Copia la nueva marca a la entidad.
+     */
+    void writeTo(ChatImportWatermark target) {
+        target.setLastMessageAt(lastMinute != NO_TIMESTAMP ? toDateTime(lastMinute) : null);
+        target.setLastMinuteFingerprints(lastMinuteFingerprints.toBytes());
+        target.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private long fingerprint(String text) {
+        long hash = textHash(text);
+        // El mismo texto repetido en el mismo minuto es otro mensaje
+        return withOccurrence(hash, occurrences.merge(hash, 1, Integer::sum));
+    }
+
+    /**
+     * FNV-1a de 64 bits sobre el texto.
+     */
+    static long textHash(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Huella de la n-ésima aparición de un texto (n desde 1) a partir de su textHash.
+     */
+    static long withOccurrence(long hash, int occurrence) {
+        hash ^= occurrence * 0x9E3779B97F4A7C15L;
+        // Mezcla final (fmix64 de MurmurHash3)
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long toMinute(LocalDateTime dateTime) {
+        return dateTime.toLocalDate().toEpochDay() * 1440 + dateTime.getHour() * 60 + dateTime.getMinute();
+    }
+
+    private static LocalDateTime toDateTime(long minute) {
+        return LocalDateTime.of(LocalDate.ofEpochDay(Math.floorDiv(minute, 1440)),
+                LocalTime.ofSecondOfDay(Math.floorMod(minute, 1440) * 60L));
+    }
+
+    /**
+     * Conjunto de huellas de 64 bits con direccionamiento abierto (8 bytes por huella en disco).
+     */
+    static final class FingerprintSet {
+        // 0 marca un lugar vacío; la huella 0 se guarda aparte
+        private long[] table = new long[16];
+        private int size = 0;
+        private boolean hasZero = false;
+
+        boolean contains(long fingerprint) {
+            if (fingerprint == 0) return hasZero;
+            int mask = table.length - 1;
+            for (int i = (int) fingerprint & mask; table[i] != 0; i = (i + 1) & mask) {
+                if (table[i] == fingerprint) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Agrega la huella; devuelve false si ya estaba.
+         */
+        boolean add(long fingerprint) {
+            if (fingerprint == 0) {
+                boolean added = !hasZero;
+                hasZero = true;
+                return added;
+            }
+            if ((size + 1) * 2 > table.length) {
+                resize();
+            }
+            int mask = table.length - 1;
+            int i = (int) fingerprint & mask;
+            while (table[i] != 0) {
+                if (table[i] == fingerprint) return false;
+                i = (i + 1) & mask;
+            }
+            table[i] = fingerprint;
+            size++;
+            return true;
+        }
+
+        FingerprintSet copy() {
+            FingerprintSet copy = new FingerprintSet();
+            copy.table = Arrays.copyOf(table, table.length);
+            copy.size = size;
+            copy.hasZero = hasZero;
+            return copy;
+        }
+
+        byte[] toBytes() {
+            ByteBuffer buffer = ByteBuffer.allocate((size + (hasZero ? 1 : 0)) * Long.BYTES);
+            for (long fingerprint : table) {
+                if (fingerprint != 0) buffer.putLong(fingerprint);
+            }
+            if (hasZero) buffer.putLong(0);
+            return buffer.array();
+        }
+
+        static FingerprintSet fromBytes(byte[] bytes) {
+            FingerprintSet set = new FingerprintSet();
+            if (bytes == null) return set;
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.remaining() >= Long.BYTES) {
+                set.add(buffer.getLong());
+            }
+            return set;
+        }
+
+        private void resize() {
+            long[] old = table;
+            table = new long[old.length * 2];
+            size = 0;
+            for (long fingerprint : old) {
+                if (fingerprint != 0) add(fingerprint);
+            }
+        }
+    }
+}
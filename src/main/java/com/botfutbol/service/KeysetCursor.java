@@ -0,0 +1,121 @@
+package com.botfutbol.service;
+
+import com.botfutbol.dto.PageDTO;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cursor opaco de la paginación por clave (keyset): los valores de las claves de orden
+ * de la última fila devuelta, codificados en Base64 URL.
+ * La página siguiente se filtra por "claves posteriores al cursor" sobre un índice de esas claves,
+ * así tarda lo mismo la primera página que la número mil (no hay OFFSET que recorrer).
+ */
+final class KeysetCursor {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+
+    private static final char SEPARATOR = '\n';
+
+    private KeysetCursor() {}
+
+    /**
+     * Codifica los valores de las claves de orden (no pueden contener saltos de línea).
+     */
+    static String encode(String... keys) {
+        String joined = String.join(String.valueOf(SEPARATOR), keys);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor con la cantidad de claves esperada.
+     */
+    static String[] decode(String cursor, int keyCount) {
+        try {
+            String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] keys = joined.split(String.valueOf(SEPARATOR), -1);
+            if (keys.length == keyCount) {
+                return keys;
+            }
+        } catch (IllegalArgumentException e) {
+            // Se informa abajo como cursor inválido
+        }
+        throw new IllegalArgumentException("Cursor inválido");
+    }
+
+    /**
+     * Lee una clave de fecha y hora escrita con LocalDateTime.toString().
+     */
+    static LocalDateTime parseTimestamp(String key) {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    /**
+     * Pide una fila de más para saber si hay otra página sin contar las filas.
+     */
+    static Pageable pageRequest(int limit) {
+        return PageRequest.of(0, pageSize(limit) + 1);
+    }
+
+    /**
+     * Tamaño de página acotado entre 1 y MAX_PAGE_SIZE.
+     */
+    static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Lee el parámetro fields (campos separados por coma, sin repetir). Vacío si no se indica ninguno.
+     * Un campo que no está en allowed es un error.
+     */
+    static List<String> parseFields(String fields, List<String> allowed) {
+        List<String> selected = new ArrayList<>();
+        if (fields == null) return selected;
+        for (String field : fields.split(",")) {
+            String trimmed = field.trim();
+            if (trimmed.isEmpty() || selected.contains(trimmed)) continue;
+            if (!allowed.contains(trimmed)) {
+                throw new IllegalArgumentException("Campo desconocido: " + trimmed
+                        + " (disponibles: " + String.join(", ", allowed) + ")");
+            }
+            selected.add(trimmed);
+        }
+        return selected;
+    }
+
+    /**
+     * Arma la página a partir de las filas leídas con pageRequest(limit).
+     */
+    static <T> PageDTO<T> page(List<T> rows, int limit, Function<T, String> cursorOf) {
+        int size = pageSize(limit);
+        boolean hasMore = rows.size() > size;
+        List<T> items = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(items.get(items.size() - 1)) : null;
+        return new PageDTO<>(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Arma la página a partir de las filas leídas con findSelectedFields: el cursor sale de las
+     * claves de orden y después se quitan de cada fila las que no se pidieron.
+     */
+    static PageDTO<Map<String, Object>> selectedFieldsPage(List<Map<String, Object>> rows, int limit,
+                                                           List<String> fields, String sortField) {
+        PageDTO<Map<String, Object>> page = page(rows, limit,
+                row -> encode(String.valueOf(row.get(sortField)), String.valueOf(row.get("id"))));
+        page.getItems().forEach(row -> row.keySet().retainAll(fields));
+        return page;
+    }
+}
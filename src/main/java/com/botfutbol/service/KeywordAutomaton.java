@@ -0,0 +1,158 @@
+package com.botfutbol.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Autómata de Aho–Corasick sobre un conjunto fijo de palabras clave.
+ * Las letras ASCII se comparan sin distinguir mayúsculas (igual que el flag (?i) de los regex);
+ * el resto de los caracteres se comparan de forma exacta.
+ */
+final class KeywordAutomaton {
+
+    private static final int ALPHABET_LIMIT = 256;
+
+    // Clase de cada carácter del alfabeto (0 = no aparece en ninguna palabra clave)
+    private final int[] charClass = new int[ALPHABET_LIMIT];
+    private final int classCount;
+
+    // Tabla de transiciones completa: delta[estado * classCount + clase]
+    private final int[] delta;
+
+    // Longitud y flags de cada palabra clave que termina en un estado (incluye las heredadas por fallo)
+    private final int[][] outputLengths;
+    private final int[][] outputFlags;
+
+    /**
+     * Construye el autómata. Cada palabra clave tiene asociados unos flags que se devuelven al encontrarla.
+     */
+    KeywordAutomaton(List<String> keywords, List<Integer> flags) {
+        if (keywords.size() != flags.size()) {
+            throw new IllegalArgumentException("Cada palabra clave necesita sus flags");
+        }
+
+        // 1. Alfabeto compacto con los caracteres de las palabras clave
+        int classes = 1;
+        for (String keyword : keywords) {
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = foldCase(keyword.charAt(i));
+                if (c >= ALPHABET_LIMIT) {
+                    throw new IllegalArgumentException("Carácter no soportado en palabra clave: " + keyword);
+                }
+                if (charClass[c] == 0) {
+                    charClass[c] = classes++;
+                }
+            }
+        }
+        this.classCount = classes;
+
+        // 2. Trie de palabras clave
+        List<int[]> trie = new ArrayList<>();
+        List<List<int[]>> outputs = new ArrayList<>();
+        trie.add(newRow());
+        outputs.add(new ArrayList<>());
+        for (int k = 0; k < keywords.size(); k++) {
+            String keyword = keywords.get(k);
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                int cls = charClass[foldCase(keyword.charAt(i))];
+                if (trie.get(state)[cls] < 0) {
+                    trie.get(state)[cls] = trie.size();
+                    trie.add(newRow());
+                    outputs.add(new ArrayList<>());
+                }
+                state = trie.get(state)[cls];
+            }
+            outputs.get(state).add(new int[]{keyword.length(), flags.get(k)});
+        }
+
+        // 3. Enlaces de fallo en anchura y tabla de transiciones completa
+        int stateCount = trie.size();
+        int[] failure = new int[stateCount];
+        this.delta = new int[stateCount * classCount];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int cls = 0; cls < classCount; cls++) {
+            int next = trie.get(0)[cls];
+            if (next > 0) {
+                failure[next] = 0;
+                delta[cls] = next;
+                queue.add(next);
+            } else {
+                delta[cls] = 0;
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs.get(state).addAll(outputs.get(failure[state]));
+            for (int cls = 0; cls < classCount; cls++) {
+                int next = trie.get(state)[cls];
+                if (next > 0) {
+                    failure[next] = delta[failure[state] * classCount + cls];
+                    delta[state * classCount + cls] = next;
+                    queue.add(next);
+                } else {
+                    delta[state * classCount + cls] = delta[failure[state] * classCount + cls];
+                }
+            }
+        }
+
+        this.outputLengths = new int[stateCount][];
+        this.outputFlags = new int[stateCount][];
+        for (int state = 0; state < stateCount; state++) {
+            List<int[]> out = outputs.get(state);
+            if (out.isEmpty()) continue;
+            outputLengths[state] = new int[out.size()];
+            outputFlags[state] = new int[out.size()];
+            for (int i = 0; i < out.size(); i++) {
+                outputLengths[state][i] = out.get(i)[0];
+                outputFlags[state][i] = out.get(i)[1];
+            }
+        }
+    }
+
+    /**
+     * Estado inicial del autómata.
+     */
+    int initialState() {
+        return 0;
+    }
+
+    /**
+     * Avanza el autómata con el siguiente carácter del texto.
+     */
+    int next(int state, char c) {
+        c = foldCase(c);
+        int cls = c < ALPHABET_LIMIT ? charClass[c] : 0;
+        return delta[state * classCount + cls];
+    }
+
+    /**
+     * Longitudes de las palabras clave que terminan en el estado, o null si no hay ninguna.
+     */
+    int[] outputLengths(int state) {
+        return outputLengths[state];
+    }
+
+    /**
+     * Flags de las palabras clave que terminan en el estado, en el mismo orden que sus longitudes.
+     */
+    int[] outputFlags(int state) {
+        return outputFlags[state];
+    }
+
+    private int[] newRow() {
+        int[] row = new int[classCount];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    /**
+     * Pasa a minúscula solo las letras ASCII, como hace (?i) sin UNICODE_CASE.
+     */
+    static char foldCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
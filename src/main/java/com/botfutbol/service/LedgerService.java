@@ -0,0 +1,257 @@
+package com.botfutbol.service;
+
+import com.botfutbol.dto.BalanceDriftDTO;
+import com.botfutbol.dto.LedgerVerificationDTO;
+import com.botfutbol.entity.LedgerEntry;
+import com.botfutbol.entity.Payment;
+import com.botfutbol.entity.PlayerBalance;
+import com.botfutbol.repository.LedgerEntryRepository;
+import com.botfutbol.repository.PlayerBalanceRepository;
+import com.botfutbol.repository.PlayerBalanceRepositoryCustom;
+import com.botfutbol.repository.PlayerRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Servicio del libro de cuentas.
+ * Responsabilidad: Agregar un movimiento (LedgerEntry) por cada débito o crédito de un jugador
+ * y actualizar su saldo (PlayerBalance) en la misma transacción; verificar y reparar los saldos
+ * a partir del libro.
+ *
+ * Los totales de Player (totalDebt, totalPaid) se siguen actualizando aparte; la verificación
+ * también los compara con el libro.
+ */
+@Service
+@Transactional
+public class LedgerService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerService.class);
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final PlayerBalanceRepository playerBalanceRepository;
+    private final PlayerRepository playerRepository;
+    private final PlayerCache playerCache;
+
+    public LedgerService(LedgerEntryRepository ledgerEntryRepository,
+                         PlayerBalanceRepository playerBalanceRepository,
+                         PlayerRepository playerRepository,
+                         PlayerCache playerCache) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.playerBalanceRepository = playerBalanceRepository;
+        this.playerRepository = playerRepository;
+        this.playerCache = playerCache;
+    }
+
+    /**
+     * Registra el crédito de un pago nuevo.
+     */
+    public void recordPayment(Payment payment) {
+        recordPayments(List.of(payment));
+    }
+
+    /**
+     * Registra los créditos de varios pagos nuevos.
+     */
+    public void recordPayments(List<Payment> payments) {
+        List<LedgerEntry> entries = new ArrayList<>(payments.size());
+        for (Payment payment : payments) {
+            entries.add(LedgerEntry.credit(payment.getPlayerId(), LedgerEntry.toMinor(payment.getAmount()),
+                    LedgerEntry.Reason.PAYMENT, payment.getId()));
+        }
+        append(entries);
+    }
+
+    /**
+     * Registra el cambio de monto de un pago (difference = monto nuevo - monto anterior).
+     */
+    public void recordPaymentAdjustment(Payment payment, double difference) {
+        append(List.of(LedgerEntry.credit(payment.getPlayerId(), LedgerEntry.toMinor(difference),
+                LedgerEntry.Reason.PAYMENT_ADJUSTMENT, payment.getId())));
+    }
+
+    /**
+     * Registra la eliminación de un pago (crédito negativo por su monto).
+     */
+    public void recordPaymentReversal(Payment payment) {
+        append(List.of(LedgerEntry.credit(payment.getPlayerId(), -LedgerEntry.toMinor(payment.getAmount()),
+                LedgerEntry.Reason.PAYMENT_REVERSAL, payment.getId())));
+    }
+
+    /**
+     * Registra la eliminación de todos los pagos de varios jugadores: un crédito negativo por jugador
+     * con la suma de sus pagos.
+     */
+    public void recordPaymentReversals(Map<String, Double> amountsByPlayerId) {
+        List<LedgerEntry> entries = new ArrayList<>(amountsByPlayerId.size());
+        amountsByPlayerId.forEach((playerId, amount) -> entries.add(LedgerEntry.credit(playerId,
+                -LedgerEntry.toMinor(amount), LedgerEntry.Reason.PAYMENT_REVERSAL, null)));
+        append(entries);
+    }
+
+    /**
+     * Registra el costo de un partido para cada jugador.
+     */
+    public void recordMatchCharges(Collection<String> playerIds, double costPerPlayer, String matchId) {
+        long amountMinor = LedgerEntry.toMinor(costPerPlayer);
+        List<LedgerEntry> entries = new ArrayList<>(playerIds.size());
+        for (String playerId : playerIds) {
+            entries.add(LedgerEntry.debit(playerId, amountMinor, LedgerEntry.Reason.MATCH_CHARGE, matchId));
+        }
+        append(entries);
+    }
+
+    /**
+     * Registra deuda agregada a mano.
+     */
+    public void recordDebt(String playerId, double amount) {
+        append(List.of(LedgerEntry.debit(playerId, LedgerEntry.toMinor(amount), LedgerEntry.Reason.DEBT, null)));
+    }
+
+    /**
+     * Saldo del jugador según el libro (una fila por clave primaria).
+     */
+    @Transactional(readOnly = true)
+    public Optional<PlayerBalance> getBalance(String playerId) {
+        return playerBalanceRepository.findById(playerId);
+    }
+
+    /**
+     * Saldos de varios jugadores en una sola consulta (ID -> saldo; sin entrada si no tiene movimientos).
+     */
+    @Transactional(readOnly = true)
+    public Map<String, PlayerBalance> getBalances(Collection<String> playerIds) {
+        Map<String, PlayerBalance> balances = new HashMap<>();
+        for (PlayerBalance balance : playerBalanceRepository.findAllById(playerIds)) {
+            balances.put(balance.getPlayerId(), balance);
+        }
+        return balances;
+    }
+
+    /**
+     * Movimientos de un jugador en orden cronológico.
+     */
+    @Transactional(readOnly = true)
+    public List<LedgerEntry> getEntries(String playerId) {
+        return ledgerEntryRepository.findByPlayerIdOrderByCreatedAtAsc(playerId);
+    }
+
+    /**
+     * Recalcula el saldo de cada jugador desde el libro y lo compara con PlayerBalance y con los totales
+     * de Player en una sola consulta (agregada en la base), que devuelve solo los jugadores que no coinciden.
+     * Con repair = true reemplaza los valores que no coinciden por los del libro.
+     */
+    public LedgerVerificationDTO verify(boolean repair) {
+        List<BalanceDriftDTO> drifts = new ArrayList<>();
+        List<PlayerBalance> snapshotRepairs = new ArrayList<>();
+        List<PlayerBalance> playerRepairs = new ArrayList<>();
+        for (PlayerBalanceRepositoryCustom.BalanceMismatch mismatch : playerBalanceRepository.findBalanceMismatches()) {
+            PlayerBalance expected = new PlayerBalance(mismatch.getPlayerId());
+            expected.setDebitMinor(mismatch.getLedgerDebitMinor());
+            expected.setCreditMinor(mismatch.getLedgerCreditMinor());
+            expected.setEntryCount(mismatch.getLedgerEntryCount());
+            boolean snapshotDrift = mismatch.getSnapshotEntryCount() == null
+                    ? expected.getEntryCount() > 0
+                    : mismatch.getSnapshotDebitMinor() != expected.getDebitMinor()
+                        || mismatch.getSnapshotCreditMinor() != expected.getCreditMinor()
+                        || mismatch.getSnapshotEntryCount() != expected.getEntryCount();
+            boolean playerDrift = mismatch.getPlayerTotalDebt() != null
+                    && (LedgerEntry.toMinor(mismatch.getPlayerTotalDebt()) != expected.getDebitMinor()
+                        || LedgerEntry.toMinor(mismatch.getPlayerTotalPaid()) != expected.getCreditMinor());
+            // La consulta ya filtró en la base; se confirma con toMinor porque el redondeo puede diferir en empates
+            if (!snapshotDrift && !playerDrift) continue;
+
+            drifts.add(new BalanceDriftDTO(expected.getPlayerId(),
+                    LedgerEntry.toMajor(expected.getDebitMinor()), LedgerEntry.toMajor(expected.getCreditMinor()),
+                    mismatch.getSnapshotDebitMinor() != null ? LedgerEntry.toMajor(mismatch.getSnapshotDebitMinor()) : 0,
+                    mismatch.getSnapshotCreditMinor() != null ? LedgerEntry.toMajor(mismatch.getSnapshotCreditMinor()) : 0,
+                    mismatch.getPlayerTotalDebt() != null ? mismatch.getPlayerTotalDebt() : 0,
+                    mismatch.getPlayerTotalPaid() != null ? mismatch.getPlayerTotalPaid() : 0));
+            if (snapshotDrift) {
+                snapshotRepairs.add(expected);
+            }
+            if (playerDrift) {
+                playerRepairs.add(expected);
+            }
+        }
+
+        boolean repaired = repair && !drifts.isEmpty();
+        if (repaired) {
+            for (PlayerBalance expected : snapshotRepairs) {
+                PlayerBalance snapshot = playerBalanceRepository.findById(expected.getPlayerId()).orElse(expected);
+                snapshot.setDebitMinor(expected.getDebitMinor());
+                snapshot.setCreditMinor(expected.getCreditMinor());
+                snapshot.setEntryCount(expected.getEntryCount());
+                snapshot.setUpdatedAt(LocalDateTime.now());
+                playerBalanceRepository.save(snapshot);
+            }
+            for (PlayerBalance expected : playerRepairs) {
+                playerRepository.setTotals(expected.getPlayerId(),
+                        LedgerEntry.toMajor(expected.getDebitMinor()), LedgerEntry.toMajor(expected.getCreditMinor()));
+            }
+            playerCache.invalidate(playerRepairs.stream().map(PlayerBalance::getPlayerId).toList());
+        }
+        if (!drifts.isEmpty()) {
+            log.warn("Libro de cuentas: {} jugadores con saldos distintos al libro{}",
+                    drifts.size(), repaired ? " (reparados)" : "");
+        }
+        return new LedgerVerificationDTO(playerBalanceRepository.countPlayersWithBalances(),
+                ledgerEntryRepository.count(), drifts, repaired);
+    }
+
+    /**
+     * Al iniciar, si el libro está vacío pero hay jugadores con deuda o pagos (datos anteriores al libro),
+     * agrega un movimiento de saldo inicial por cada uno.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void openIfEmpty() {
+        if (ledgerEntryRepository.count() > 0) return;
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (PlayerRepository.PlayerTotals totals : playerRepository.findAllTotals()) {
+            long debitMinor = LedgerEntry.toMinor(totals.getTotalDebt());
+            long creditMinor = LedgerEntry.toMinor(totals.getTotalPaid());
+            if (debitMinor != 0) {
+                entries.add(LedgerEntry.debit(totals.getId(), debitMinor, LedgerEntry.Reason.OPENING_BALANCE, null));
+            }
+            if (creditMinor != 0) {
+                entries.add(LedgerEntry.credit(totals.getId(), creditMinor, LedgerEntry.Reason.OPENING_BALANCE, null));
+            }
+        }
+        if (!entries.isEmpty()) {
+            append(entries);
+            log.info("Libro de cuentas iniciado con {} movimientos de saldo inicial", entries.size());
+        }
+    }
+
+    /**
+     * Agrega los movimientos (un batch de INSERT) y suma cada uno al saldo de su jugador
+     * (un batch de upserts).
+     */
+    private void append(List<LedgerEntry> entries) {
+        Map<String, PlayerBalance> deltas = new LinkedHashMap<>();
+        List<LedgerEntry> toSave = new ArrayList<>(entries.size());
+        for (LedgerEntry entry : entries) {
+            if (entry.getDebitMinor() == 0 && entry.getCreditMinor() == 0) continue;
+            toSave.add(entry);
+            deltas.computeIfAbsent(entry.getPlayerId(), PlayerBalance::new).apply(entry);
+        }
+        if (toSave.isEmpty()) return;
+        ledgerEntryRepository.saveAll(toSave);
+        LocalDateTime now = LocalDateTime.now();
+        deltas.values().forEach(delta -> delta.setUpdatedAt(now));
+        playerBalanceRepository.addToBalancesInBatch(deltas.values());
+    }
+}
@@ -1,18 +1,25 @@
 package com.botfutbol.service;
 
+import com.botfutbol.config.SqlStatementCounter;
 import com.botfutbol.dto.*;
 import com.botfutbol.dto.MatchSummaryDTO.TeamSummaryDTO;
 import com.botfutbol.dto.MatchSummaryDTO.PaymentStatusDTO;
 import com.botfutbol.entity.*;
 import com.botfutbol.repository.*;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -23,42 +30,58 @@ import java.util.stream.Collectors;
 @Transactional
 public class MatchService {
     
+    private static final Logger log = LoggerFactory.getLogger(MatchService.class);
+    
+    // Goleadores que se muestran en las estadísticas si no se indica otra cantidad
+    private static final int DEFAULT_TOP_SCORERS = 5;
+    
     private final MatchRepository matchRepository;
     private final GoalRepository goalRepository;
     private final PlayerRepository playerRepository;
     private final PaymentService paymentService;
     private final PlayerService playerService;
+    private final PlayerCache playerCache;
+    private final LedgerService ledgerService;
     
     public MatchService(MatchRepository matchRepository,
                         GoalRepository goalRepository,
                         PlayerRepository playerRepository,
                         PaymentService paymentService,
-                        PlayerService playerService) {
+                        PlayerService playerService,
+                        PlayerCache playerCache,
+                        LedgerService ledgerService) {
         this.matchRepository = matchRepository;
         this.goalRepository = goalRepository;
         this.playerRepository = playerRepository;
         this.paymentService = paymentService;
         this.playerService = playerService;
+        this.playerCache = playerCache;
+        this.ledgerService = ledgerService;
     }
     
     /**
      * Inicia un nuevo partido.
+     * Los partidos jugados y la deuda de todo el plantel se actualizan en una sola sentencia,
+     * y los movimientos del libro de cuentas en un batch, así la cantidad de sentencias
+     * no depende de la cantidad de jugadores.
      */
     public Match startMatch(Team teamA, Team teamB, double costPerPlayer) {
+        long roundTripsBefore = SqlStatementCounter.count();
         Match match = new Match(teamA, teamB, costPerPlayer);
         matchRepository.save(match);
         
         // Incrementar partidos jugados y agregar deuda a cada jugador
-        teamA.getPlayers().forEach(player -> {
-            playerService.incrementGamesPlayed(player.getId());
-            paymentService.addDebtToPlayer(player.getId(), costPerPlayer);
-        });
-        
-        teamB.getPlayers().forEach(player -> {
-            playerService.incrementGamesPlayed(player.getId());
-            paymentService.addDebtToPlayer(player.getId(), costPerPlayer);
-        });
+        Set<String> playerIds = new LinkedHashSet<>();
+        teamA.getPlayers().forEach(player -> playerIds.add(player.getId()));
+        teamB.getPlayers().forEach(player -> playerIds.add(player.getId()));
+        if (!playerIds.isEmpty()) {
+            playerRepository.chargeMatchToPlayers(playerIds, costPerPlayer);
+            ledgerService.recordMatchCharges(playerIds, costPerPlayer, match.getId());
+            playerCache.invalidate(playerIds);
+        }
         
+        log.debug("Partido {} iniciado: {} jugadores, {} viajes a la base",
+                match.getId(), playerIds.size(), SqlStatementCounter.count() - roundTripsBefore);
         return match;
     }
     
@@ -75,7 +98,7 @@ public class MatchService {
         Match match = matchOpt.get();
         
         // Buscar el jugador
-        Optional<Player> playerOpt = playerRepository.findByNameIgnoreCase(goalDTO.getPlayerName());
+        Optional<Player> playerOpt = playerCache.findByName(goalDTO.getPlayerName());
         if (playerOpt.isEmpty()) {
             throw new IllegalArgumentException("Jugador no encontrado: " + goalDTO.getPlayerName());
         }
@@ -90,9 +113,6 @@ public class MatchService {
                 match.getId()
         );
         
-        // Actualizar estadísticas del jugador
-        playerService.recordGoal(player.getId());
-        
         // Actualizar goles del equipo
         if (goalDTO.getTeamId().equals(match.getTeamA().getId())) {
             match.getTeamA().setGoals(match.getTeamA().getGoals() + 1);
@@ -101,6 +121,9 @@ public class MatchService {
         }
         
         matchRepository.save(match);
+        
+        // Actualizar estadísticas del jugador (al final: limpia el contexto JPA)
+        playerService.recordGoal(player.getId());
         return goalRepository.save(goal);
     }
     
@@ -127,30 +150,42 @@ public class MatchService {
      * Obtiene estadísticas generales.
      */
     public StatsDTO getStats() {
+        return getStats(DEFAULT_TOP_SCORERS);
+    }
+    
+    /**
+     * Obtiene estadísticas generales con los primeros topScorersLimit goleadores.
+     * Son dos consultas: una con los totales y otra con goleadores y deudores juntos.
+     */
+    public StatsDTO getStats(int topScorersLimit) {
         StatsDTO stats = new StatsDTO();
         
-        // Top goleadores
-        List<Player> topScorers = playerService.getTopScorers(5);
-        List<PlayerStatsDTO> topScorersDTOs = topScorers.stream()
-                .map(p -> new PlayerStatsDTO(p.getName(), p.getGoalsScored(), p.getGamesPlayed(), 0))
-                .collect(Collectors.toList());
+        // Top goleadores y deudores (la consulta no garantiza el orden entre filas)
+        List<PlayerRepository.StatsRow> scorerRows = new ArrayList<>();
+        List<PlayerRepository.StatsRow> debtorRows = new ArrayList<>();
+        for (PlayerRepository.StatsRow row : playerRepository.findStatsRows(Math.max(1, topScorersLimit))) {
+            (row.getDebtor() == 1 ? debtorRows : scorerRows).add(row);
+        }
+        scorerRows.sort(Comparator.comparingInt(PlayerRepository.StatsRow::getGoalsScored).reversed()
+                .thenComparing(PlayerRepository.StatsRow::getName));
+        debtorRows.sort(Comparator.comparingDouble(PlayerRepository.StatsRow::getOutstanding).reversed()
+                .thenComparing(PlayerRepository.StatsRow::getName));
+        List<PlayerStatsDTO> topScorersDTOs = new ArrayList<>();
+        for (PlayerRepository.StatsRow row : scorerRows.subList(0, Math.min(Math.max(0, topScorersLimit), scorerRows.size()))) {
+            topScorersDTOs.add(new PlayerStatsDTO(row.getName(), row.getGoalsScored(), row.getGamesPlayed(), 0));
+        }
+        List<PlayerDebtDTO> debtorsDTOs = new ArrayList<>();
+        for (PlayerRepository.StatsRow row : debtorRows) {
+            debtorsDTOs.add(new PlayerDebtDTO(row.getName(), row.getTotalDebt(), row.getTotalPaid()));
+        }
         stats.setTopScorers(topScorersDTOs);
-        
-        // Deudores
-        List<Player> debtors = playerService.getPlayersWithDebt();
-        List<PlayerDebtDTO> debtorsDTOs = debtors.stream()
-                .map(p -> new PlayerDebtDTO(p.getName(), p.getTotalDebt(), p.getTotalPaid()))
-                .collect(Collectors.toList());
         stats.setDebtors(debtorsDTOs);
         
         // Totales
-        stats.setTotalPlayers((int) playerRepository.count());
-        stats.setTotalGoals((int) goalRepository.count());
-        
-        double totalDebt = debtors.stream()
-                .mapToDouble(p -> p.getTotalDebt() - p.getTotalPaid())
-                .sum();
-        stats.setTotalDebt(totalDebt);
+        PlayerRepository.StatsTotals totals = playerRepository.findStatsTotals();
+        stats.setTotalPlayers((int) totals.getTotalPlayers());
+        stats.setTotalGoals((int) totals.getTotalGoals());
+        stats.setTotalDebt(totals.getTotalDebt());
         
         return stats;
     }
@@ -179,6 +214,37 @@ public class MatchService {
         return goalRepository.findAll();
     }
     
+    /**
+     * Obtiene una página de goles, del más reciente al más antiguo.
+     * cursor es el nextCursor de la página anterior (null para la primera).
+     */
+    public PageDTO<GoalRowDTO> getGoalsPage(String cursor, int limit) {
+        List<GoalRowDTO> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = goalRepository.findRows(KeysetCursor.pageRequest(limit));
+        } else {
+            String[] keys = KeysetCursor.decode(cursor, 2);
+            rows = goalRepository.findRowsBefore(KeysetCursor.parseTimestamp(keys[0]), keys[1],
+                    KeysetCursor.pageRequest(limit));
+        }
+        return KeysetCursor.page(rows, limit,
+                row -> KeysetCursor.encode(row.getTimestamp().toString(), row.getId()));
+    }
+    
+    /**
+     * Igual que getGoalsPage, pero si fields indica campos (separados por coma) la consulta
+     * lee solo esas columnas. Un campo desconocido es un IllegalArgumentException.
+     */
+    public PageDTO<?> getGoalsPage(String cursor, int limit, String fields) {
+        List<String> selected = KeysetCursor.parseFields(fields, GoalRowDTO.FIELDS);
+        if (selected.isEmpty()) return getGoalsPage(cursor, limit);
+        String[] keys = cursor == null || cursor.isEmpty() ? null : KeysetCursor.decode(cursor, 2);
+        List<Map<String, Object>> rows = goalRepository.findSelectedFields(Goal.class, selected, "timestamp", true,
+                keys == null ? null : KeysetCursor.parseTimestamp(keys[0]), keys == null ? null : keys[1],
+                KeysetCursor.pageSize(limit) + 1);
+        return KeysetCursor.selectedFieldsPage(rows, limit, selected, "timestamp");
+    }
+    
     /**
      * Genera un resumen del partido para compartir en WhatsApp
      */
@@ -223,7 +289,7 @@ public class MatchService {
         List<String> pendingPlayers = new ArrayList<>();
         
         for (String playerName : allMatchPlayers) {
-            Optional<Player> playerOpt = playerRepository.findByNameIgnoreCase(playerName);
+            Optional<Player> playerOpt = playerCache.findByName(playerName);
             if (playerOpt.isPresent()) {
                 Player player = playerOpt.get();
                 if (player.getTotalDebt() <= 0) {
@@ -0,0 +1,107 @@
+package com.botfutbol.service;
+
+import com.botfutbol.entity.Payment;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Últimos pagos registrados con clave de idempotencia, por clave.
+ * Responsabilidad: Responder un reintento (mensaje enviado dos veces, chat importado de nuevo)
+ * con el pago original sin ir a la base de datos.
+ *
+ * - Guarda como máximo bot.payments.idempotency.cache-size claves (descarta la menos usada);
+ *   una clave que no está se busca en la base, donde la restricción única es la que manda.
+ * - Un pago nuevo se guarda recién cuando su transacción confirma: un rollback no deja claves falsas.
+ * - Entrega copias: quien las modifica no cambia lo guardado.
+ */
+@Component
+public class PaymentIdempotencyCache {
+
+    private final int maxSize;
+
+    // Pagos por clave en orden de uso (LRU); protegido por this
+    private final LinkedHashMap<String, Payment> paymentsByKey;
+
+    public PaymentIdempotencyCache(@Value("${bot.payments.idempotency.cache-size:10000}") int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+        this.paymentsByKey = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Payment> eldest) {
+                return size() > PaymentIdempotencyCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Pago registrado con la clave, si está en memoria.
+     */
+    public synchronized Optional<Payment> find(String key) {
+        Payment payment = paymentsByKey.get(key);
+        return payment != null ? Optional.of(payment.copy()) : Optional.empty();
+    }
+
+    /**
+     * Indica si la clave está en memoria (sin cambiar su orden de uso).
+     */
+    public synchronized boolean contains(String key) {
+        return paymentsByKey.containsKey(key);
+    }
+
+    /**
+     * Guarda el pago bajo su clave; dentro de una transacción, recién cuando confirma.
+     */
+    public void put(Payment payment) {
+        if (payment.getIdempotencyKey() == null) return;
+        Payment copy = payment.copy();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    store(copy);
+                }
+            });
+        } else {
+            store(copy);
+        }
+    }
+
+    /**
+     * Olvida la clave del pago (se editó o se eliminó): en el momento y otra vez al terminar la transacción,
+     * por si otra lectura la volvió a guardar con los datos anteriores.
+     */
+    public void invalidate(Payment payment) {
+        String key = payment.getIdempotencyKey();
+        if (key == null) return;
+        remove(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(key);
+                }
+            });
+        }
+    }
+
+    /**
+     * Olvida todas las claves (se eliminaron todos los pagos).
+     */
+    public synchronized void clear() {
+        paymentsByKey.clear();
+    }
+
+    private synchronized void store(Payment payment) {
+        paymentsByKey.put(payment.getIdempotencyKey(), payment);
+    }
+
+    private synchronized void remove(String key) {
+        paymentsByKey.remove(key);
+    }
+}
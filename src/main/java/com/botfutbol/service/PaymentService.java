@@ -1,16 +1,35 @@
 package com.botfutbol.service;
 
+import com.botfutbol.dto.BulkPaymentResultDTO;
+import com.botfutbol.dto.LedgerVerificationDTO;
+import com.botfutbol.dto.PageDTO;
 import com.botfutbol.dto.PaymentDTO;
+import com.botfutbol.dto.PaymentRowDTO;
+import com.botfutbol.entity.ArchivedPayment;
+import com.botfutbol.entity.LedgerEntry;
 import com.botfutbol.entity.Payment;
 import com.botfutbol.entity.Player;
+import com.botfutbol.entity.PlayerBalance;
+import com.botfutbol.entity.Match;
+import com.botfutbol.repository.ArchivedPaymentRepository;
+import com.botfutbol.repository.MatchRepository;
 import com.botfutbol.repository.PaymentRepository;
 import com.botfutbol.repository.PlayerRepository;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Servicio para administrar pagos.
@@ -20,29 +39,62 @@ import java.util.Optional;
 @Transactional
 public class PaymentService {
     
+    // Prefijo de las claves de idempotencia de los pagos registrados en lote
+    private static final String BULK_PAYMENT_KEY_PREFIX = "bulk:";
+    
     private final PaymentRepository paymentRepository;
+    private final ArchivedPaymentRepository archivedPaymentRepository;
     private final PlayerRepository playerRepository;
+    private final PlayerCache playerCache;
+    private final PaymentIdempotencyCache idempotencyCache;
+    private final LedgerService ledgerService;
+    private final MatchRepository matchRepository;
+    private final double defaultCostPerPlayer;
     
-    public PaymentService(PaymentRepository paymentRepository, PlayerRepository playerRepository) {
+    public PaymentService(PaymentRepository paymentRepository,
+                          ArchivedPaymentRepository archivedPaymentRepository,
+                          PlayerRepository playerRepository,
+                          PlayerCache playerCache,
+                          PaymentIdempotencyCache idempotencyCache,
+                          LedgerService ledgerService,
+                          MatchRepository matchRepository,
+                          @Value("${bot.default.cost-per-player:1500.0}") double defaultCostPerPlayer) {
         this.paymentRepository = paymentRepository;
+        this.archivedPaymentRepository = archivedPaymentRepository;
         this.playerRepository = playerRepository;
+        this.playerCache = playerCache;
+        this.idempotencyCache = idempotencyCache;
+        this.ledgerService = ledgerService;
+        this.matchRepository = matchRepository;
+        this.defaultCostPerPlayer = defaultCostPerPlayer;
     }
     
     /**
      * Registra un pago de un jugador.
      */
     public Payment registerPayment(PaymentDTO paymentDTO) {
-        // Validar datos
-        if (paymentDTO.getPlayerName() == null || paymentDTO.getPlayerName().trim().isEmpty()) {
-            throw new IllegalArgumentException("El nombre del jugador no puede estar vacío");
-        }
+        return registerPayment(paymentDTO, null);
+    }
+    
+    /**
+     * Registra un pago de un jugador una sola vez por clave de idempotencia:
+     * si ya hay un pago con esa clave lo devuelve sin registrar otro. Sin clave siempre registra.
+     * Dos pedidos simultáneos con la misma clave chocan con la restricción única
+     * (DataIntegrityViolationException); quien reintenta encuentra el pago con findPaymentByIdempotencyKey.
+     */
+    public Payment registerPayment(PaymentDTO paymentDTO, String idempotencyKey) {
+        validate(paymentDTO);
         
-        if (paymentDTO.getAmount() <= 0) {
-            throw new IllegalArgumentException("El monto debe ser mayor a 0");
+        String key = normalizeIdempotencyKey(idempotencyKey);
+        if (key != null) {
+            Optional<Payment> previous = findPaymentByIdempotencyKey(key);
+            if (previous.isPresent()) {
+                return previous.get();
+            }
         }
         
         // Buscar el jugador
-        Optional<Player> playerOpt = playerRepository.findByNameIgnoreCase(paymentDTO.getPlayerName());
+        Optional<Player> playerOpt = playerCache.findByName(paymentDTO.getPlayerName());
         if (playerOpt.isEmpty()) {
             throw new IllegalArgumentException("Jugador no encontrado: " + paymentDTO.getPlayerName());
         }
@@ -56,24 +108,196 @@ public class PaymentService {
                 paymentDTO.getAmount(),
                 paymentDTO.getConcept()
         );
+        payment.setIdempotencyKey(key);
+        
+        Payment saved = paymentRepository.save(payment);
         
         // Actualizar total pagado del jugador
-        player.setTotalPaid(player.getTotalPaid() + paymentDTO.getAmount());
-        playerRepository.save(player);
+        playerRepository.addToTotalPaid(player.getId(), paymentDTO.getAmount());
+        ledgerService.recordPayment(saved);
+        playerCache.invalidate(player.getId());
+        idempotencyCache.put(saved);
+        
+        return saved;
+    }
+    
+    /**
+     * Registra los pagos de una fecha completa en una sola transacción: resuelve todos los jugadores
+     * de una vez (índice de nombres y una consulta IN), inserta los pagos en un batch JDBC,
+     * suma los totales pagados con un solo UPDATE y lee los saldos resultantes con una consulta.
+     * Si un pago es inválido o un jugador no existe no se registra ninguno.
+     *
+     * Con clave de idempotencia, cada pago recibe una clave derivada de ella y de su posición:
+     * reenviar la misma lista no registra de nuevo los pagos que ya se registraron.
+     */
+    public BulkPaymentResultDTO registerPayments(List<PaymentDTO> paymentDTOs, String idempotencyKey) {
+        if (paymentDTOs == null || paymentDTOs.isEmpty()) {
+            throw new IllegalArgumentException("La lista de pagos no puede estar vacía");
+        }
+        String key = normalizeIdempotencyKey(idempotencyKey);
+        Set<String> names = new LinkedHashSet<>();
+        for (PaymentDTO paymentDTO : paymentDTOs) {
+            validate(paymentDTO);
+            names.add(paymentDTO.getPlayerName().trim());
+        }
+        
+        Map<String, PlayerNameIndex.Entry> players = playerCache.resolveNames(names);
+        List<String> unknownNames = names.stream().filter(name -> !players.containsKey(name)).toList();
+        if (!unknownNames.isEmpty()) {
+            throw new IllegalArgumentException("Jugadores no encontrados: " + String.join(", ", unknownNames));
+        }
+        
+        List<Payment> payments = new ArrayList<>(paymentDTOs.size());
+        for (int i = 0; i < paymentDTOs.size(); i++) {
+            PaymentDTO paymentDTO = paymentDTOs.get(i);
+            PlayerNameIndex.Entry player = players.get(paymentDTO.getPlayerName().trim());
+            Payment payment = new Payment(player.getId(), player.getName(), paymentDTO.getAmount(), paymentDTO.getConcept());
+            if (key != null) {
+                long hash = ImportWatermark.withOccurrence(ImportWatermark.textHash(key), i + 1);
+                payment.setIdempotencyKey(BULK_PAYMENT_KEY_PREFIX + Long.toHexString(hash));
+            }
+            payments.add(payment);
+        }
+        List<Payment> registered = registerPaymentsInBatch(payments);
+        
+        // Monto registrado por jugador, en el orden en que aparecen en el pedido
+        Map<String, Double> paidByPlayerId = new LinkedHashMap<>();
+        Map<String, String> namesByPlayerId = new HashMap<>();
+        for (Payment payment : payments) {
+            paidByPlayerId.putIfAbsent(payment.getPlayerId(), 0.0);
+            namesByPlayerId.put(payment.getPlayerId(), payment.getPlayerName());
+        }
+        for (Payment payment : registered) {
+            paidByPlayerId.merge(payment.getPlayerId(), payment.getAmount(), Double::sum);
+        }
+        Map<String, PlayerBalance> balances = ledgerService.getBalances(paidByPlayerId.keySet());
         
-        return paymentRepository.save(payment);
+        BulkPaymentResultDTO result = new BulkPaymentResultDTO();
+        result.setPaymentsRegistered(registered.size());
+        result.setDuplicatePaymentsSkipped(payments.size() - registered.size());
+        for (Map.Entry<String, Double> paid : paidByPlayerId.entrySet()) {
+            PlayerBalance balance = balances.get(paid.getKey());
+            double balanceAmount = balance != null ? LedgerEntry.toMajor(balance.getBalanceMinor()) : 0;
+            result.getPlayers().add(new BulkPaymentResultDTO.PlayerResult(namesByPlayerId.get(paid.getKey()),
+                    paid.getValue(), balanceAmount < 0 ? -balanceAmount : 0));
+        }
+        return result;
+    }
+    
+    /**
+     * Busca el pago registrado con una clave de idempotencia: primero en memoria y después en la base.
+     */
+    public Optional<Payment> findPaymentByIdempotencyKey(String idempotencyKey) {
+        String key = normalizeIdempotencyKey(idempotencyKey);
+        if (key == null) return Optional.empty();
+        Optional<Payment> cached = idempotencyCache.find(key);
+        if (cached.isPresent()) return cached;
+        Optional<Payment> stored = paymentRepository.findByIdempotencyKey(key);
+        if (stored.isEmpty()) {
+            // Registrado en una temporada ya cerrada
+            stored = archivedPaymentRepository.findFirstByIdempotencyKey(key).map(ArchivedPayment::toPayment);
+        }
+        stored.ifPresent(idempotencyCache::put);
+        return stored;
+    }
+    
+    /**
+     * Registra varios pagos ya resueltos contra sus jugadores con un batch JDBC de altas de pagos
+     * y un solo UPDATE que suma al total pagado de cada jugador.
+     * Los pagos cuya clave de idempotencia ya está registrada (o se repite en la lista) se descartan;
+     * devuelve los que se registraron.
+     */
+    public List<Payment> registerPaymentsInBatch(List<Payment> payments) {
+        List<Payment> newPayments = withoutRegisteredKeys(payments);
+        if (newPayments.isEmpty()) return newPayments;
+        Map<String, Double> amountsByPlayerId = new LinkedHashMap<>();
+        for (Payment payment : newPayments) {
+            if (payment.getAmount() <= 0) {
+                throw new IllegalArgumentException("El monto debe ser mayor a 0");
+            }
+            amountsByPlayerId.merge(payment.getPlayerId(), payment.getAmount(), Double::sum);
+        }
+        paymentRepository.insertAllInBatch(newPayments);
+        playerRepository.addToTotalPaidInBatch(amountsByPlayerId);
+        ledgerService.recordPayments(newPayments);
+        playerCache.invalidate(amountsByPlayerId.keySet());
+        newPayments.forEach(idempotencyCache::put);
+        return newPayments;
+    }
+    
+    /**
+     * Pagos de la lista cuya clave no está registrada: las claves que no están en memoria
+     * se consultan en la base con una sola consulta.
+     */
+    private List<Payment> withoutRegisteredKeys(List<Payment> payments) {
+        Set<String> registeredKeys = new HashSet<>();
+        Set<String> unknownKeys = new HashSet<>();
+        for (Payment payment : payments) {
+            String key = payment.getIdempotencyKey();
+            if (key == null) continue;
+            if (idempotencyCache.contains(key)) {
+                registeredKeys.add(key);
+            } else {
+                unknownKeys.add(key);
+            }
+        }
+        if (registeredKeys.isEmpty() && unknownKeys.isEmpty()) return payments;
+        if (!unknownKeys.isEmpty()) {
+            registeredKeys.addAll(paymentRepository.findExistingIdempotencyKeys(unknownKeys));
+        }
+        
+        List<Payment> result = new ArrayList<>(payments.size());
+        for (Payment payment : payments) {
+            String key = payment.getIdempotencyKey();
+            // add devuelve false si la clave ya estaba registrada o se repite en la lista
+            if (key == null || registeredKeys.add(key)) {
+                result.add(payment);
+            }
+        }
+        return result;
+    }
+    
+    private static void validate(PaymentDTO paymentDTO) {
+        if (paymentDTO == null || paymentDTO.getPlayerName() == null || paymentDTO.getPlayerName().trim().isEmpty()) {
+            throw new IllegalArgumentException("El nombre del jugador no puede estar vacío");
+        }
+        
+        if (paymentDTO.getAmount() <= 0) {
+            throw new IllegalArgumentException("El monto debe ser mayor a 0");
+        }
+    }
+    
+    /**
+     * Clave de idempotencia sin espacios, o null si no se indicó.
+     */
+    private static String normalizeIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.trim().isEmpty()) return null;
+        String key = idempotencyKey.trim();
+        if (key.length() > Payment.MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException("La clave de idempotencia no puede superar "
+                    + Payment.MAX_IDEMPOTENCY_KEY_LENGTH + " caracteres");
+        }
+        return key;
+    }
+
+    /**
+     * Monto de un pago que no indica cuánto se pagó: el costo por jugador del partido activo
+     * o, si no hay partido activo, el costo configurado por defecto.
+     */
+    public double getDefaultPaymentAmount() {
+        return matchRepository.findFirstByActiveTrue()
+                .map(Match::getCostPerPlayer)
+                .filter(cost -> cost > 0)
+                .orElse(defaultCostPerPlayer);
     }
     
     /**
      * Registra deuda para un jugador (por jugar un partido).
      */
     public void addDebtToPlayer(String playerId, double amount) {
-        Optional<Player> playerOpt = playerRepository.findById(playerId);
-        if (playerOpt.isPresent()) {
-            Player player = playerOpt.get();
-            player.setTotalDebt(player.getTotalDebt() + amount);
-            playerRepository.save(player);
-        }
+        playerRepository.addToTotalDebt(playerId, amount);
+        ledgerService.recordDebt(playerId, amount);
+        playerCache.invalidate(playerId);
     }
     
     /**
@@ -84,16 +308,17 @@ public class PaymentService {
     }
     
     /**
-     * Calcula el balance (deuda - pagado) de un jugador.
+     * Calcula el balance (pagado - deuda) de un jugador, desde su saldo en el libro de cuentas.
      */
     public double getPlayerBalance(String playerName) {
-        Optional<Player> playerOpt = playerRepository.findByNameIgnoreCase(playerName);
+        Optional<Player> playerOpt = playerCache.findByName(playerName);
         if (playerOpt.isEmpty()) {
             throw new IllegalArgumentException("Jugador no encontrado");
         }
         
-        Player player = playerOpt.get();
-        return player.getTotalPaid() - player.getTotalDebt();
+        return ledgerService.getBalance(playerOpt.get().getId())
+                .map(balance -> LedgerEntry.toMajor(balance.getBalanceMinor()))
+                .orElse(0.0);
     }
     
     /**
@@ -111,6 +336,37 @@ public class PaymentService {
         return paymentRepository.findAll();
     }
 
+    /**
+     * Obtiene una página de pagos, del más reciente al más antiguo.
+     * cursor es el nextCursor de la página anterior (null para la primera).
+     */
+    public PageDTO<PaymentRowDTO> getPaymentsPage(String cursor, int limit) {
+        List<PaymentRowDTO> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = paymentRepository.findRows(KeysetCursor.pageRequest(limit));
+        } else {
+            String[] keys = KeysetCursor.decode(cursor, 2);
+            rows = paymentRepository.findRowsBefore(KeysetCursor.parseTimestamp(keys[0]), keys[1],
+                    KeysetCursor.pageRequest(limit));
+        }
+        return KeysetCursor.page(rows, limit,
+                row -> KeysetCursor.encode(row.getTimestamp().toString(), row.getId()));
+    }
+
+    /**
+     * Igual que getPaymentsPage, pero si fields indica campos (separados por coma) la consulta
+     * lee solo esas columnas. Un campo desconocido es un IllegalArgumentException.
+     */
+    public PageDTO<?> getPaymentsPage(String cursor, int limit, String fields) {
+        List<String> selected = KeysetCursor.parseFields(fields, PaymentRowDTO.FIELDS);
+        if (selected.isEmpty()) return getPaymentsPage(cursor, limit);
+        String[] keys = cursor == null || cursor.isEmpty() ? null : KeysetCursor.decode(cursor, 2);
+        List<Map<String, Object>> rows = paymentRepository.findSelectedFields(Payment.class, selected, "timestamp", true,
+                keys == null ? null : KeysetCursor.parseTimestamp(keys[0]), keys == null ? null : keys[1],
+                KeysetCursor.pageSize(limit) + 1);
+        return KeysetCursor.selectedFieldsPage(rows, limit, selected, "timestamp");
+    }
+
     /**
      * Edita un pago existente.
      */
@@ -122,35 +378,68 @@ public class PaymentService {
             payment.setAmount(dto.getAmount());
             payment.setConcept(dto.getConcept()); // Usar setConcept, no setDescription
 
+            Payment saved = paymentRepository.save(payment);
+
             // Actualizar total pagado del jugador si cambió el monto
-            Optional<Player> playerOpt = playerRepository.findByNameIgnoreCase(payment.getPlayerName());
-            if (playerOpt.isPresent()) {
-                Player player = playerOpt.get();
-                player.setTotalPaid(player.getTotalPaid() - oldAmount + dto.getAmount());
-                playerRepository.save(player);
+            if (dto.getAmount() != oldAmount) {
+                playerRepository.addToTotalPaid(payment.getPlayerId(), dto.getAmount() - oldAmount);
+                ledgerService.recordPaymentAdjustment(payment, dto.getAmount() - oldAmount);
+                playerCache.invalidate(payment.getPlayerId());
             }
+            idempotencyCache.invalidate(payment);
 
-            return paymentRepository.save(payment);
+            return saved;
         } else {
             throw new RuntimeException("Pago no encontrado");
         }
     }
 
     /**
-     * Elimina un pago existente.
+     * Elimina un pago existente y descuenta su monto del total pagado del jugador.
      */
     public void deletePayment(String id) {
-        if (paymentRepository.existsById(id)) {
-            paymentRepository.deleteById(id);
+        Optional<Payment> optionalPayment = paymentRepository.findById(id);
+        if (optionalPayment.isPresent()) {
+            Payment payment = optionalPayment.get();
+            paymentRepository.delete(payment);
+            playerRepository.addToTotalPaid(payment.getPlayerId(), -payment.getAmount());
+            ledgerService.recordPaymentReversal(payment);
+            playerCache.invalidate(payment.getPlayerId());
+            idempotencyCache.invalidate(payment);
         } else {
             throw new RuntimeException("Pago no encontrado");
         }
     }
 
     /**
-     * Elimina todos los pagos registrados.
+     * Verifica los saldos contra el libro de cuentas (y los repara si repair es true).
+     */
+    public LedgerVerificationDTO verifyLedger(boolean repair) {
+        return ledgerService.verify(repair);
+    }
+
+    /**
+     * Elimina todos los pagos registrados y descuenta del total pagado de cada jugador lo que sumaban,
+     * igual que deletePayment pero por conjunto: los totales se calculan con un GROUP BY, el total pagado
+     * se ajusta con un solo UPDATE, el libro recibe un movimiento por jugador y los pagos se borran
+     * con un solo DELETE. REPEATABLE_READ: el DELETE borra los mismos pagos que se sumaron.
+     * Devuelve la cantidad de pagos eliminados.
      */
-    public void deleteAllPayments() {
-        paymentRepository.deleteAll();
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public int deleteAllPayments() {
+        Map<String, Double> paidByPlayerId = new LinkedHashMap<>();
+        Map<String, Double> reversalsByPlayerId = new LinkedHashMap<>();
+        for (PaymentRepository.PlayerPaymentTotal total : paymentRepository.sumAmountsByPlayer()) {
+            paidByPlayerId.put(total.getPlayerId(), total.getAmount());
+            reversalsByPlayerId.put(total.getPlayerId(), -total.getAmount());
+        }
+        int deleted = paymentRepository.deleteAllPayments();
+        if (!paidByPlayerId.isEmpty()) {
+            playerRepository.addToTotalPaidInBatch(reversalsByPlayerId);
+            ledgerService.recordPaymentReversals(paidByPlayerId);
+            playerCache.invalidate(paidByPlayerId.keySet());
+        }
+        idempotencyCache.clear();
+        return deleted;
     }
 }
@@ -0,0 +1,239 @@
+package com.botfutbol.service;
+
+import com.botfutbol.dto.CacheStatsDTO;
+import com.botfutbol.entity.Player;
+import com.botfutbol.repository.PlayerRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché de lectura de jugadores delante de PlayerRepository.
+ * Responsabilidad: Resolver jugadores por ID, por nombre (vía PlayerNameIndex) y el plantel completo
+ * sin ir a la base de datos mientras no cambien.
+ *
+ * - Guarda como máximo bot.players.cache.max-size jugadores (descarta el menos usado)
+ *   y cada valor vence a los bot.players.cache.ttl-seconds.
+ * - Los métodos que escriben jugadores la invalidan: en el momento y otra vez al terminar
+ *   la transacción (commit o rollback). Una lectura que empezó antes de una invalidación no guarda su resultado.
+ * - Entrega copias: quien las modifica no cambia lo guardado. Para modificar y guardar un jugador
+ *   hay que leerlo de la base de datos (PlayerNameIndex.findPlayer).
+ */
+@Component
+public class PlayerCache {
+
+    private final PlayerRepository playerRepository;
+    private final PlayerNameIndex playerNameIndex;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    // Jugadores por ID en orden de uso (LRU); protegido por this
+    private final LinkedHashMap<String, CachedValue<Player>> playersById = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedValue<Player>> eldest) {
+            if (size() > maxSize) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+    // Plantel completo (protegido por this)
+    private CachedValue<List<Player>> roster;
+    // Cambia en cada invalidación (protegido por this)
+    private long generation = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public PlayerCache(PlayerRepository playerRepository,
+                       PlayerNameIndex playerNameIndex,
+                       @Value("${bot.players.cache.max-size:500}") int maxSize,
+                       @Value("${bot.players.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.playerRepository = playerRepository;
+        this.playerNameIndex = playerNameIndex;
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    /**
+     * Valor guardado y cuándo vence
+     */
+    private static final class CachedValue<T> {
+        private final T value;
+        private final long expiresAt;
+
+        private CachedValue(T value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    /**
+     * Busca un jugador por ID.
+     */
+    public Optional<Player> findById(String id) {
+        long loadGeneration;
+        synchronized (this) {
+            CachedValue<Player> cached = playersById.get(id);
+            if (cached != null) {
+                if (!cached.isExpired(System.nanoTime())) {
+                    hits.incrementAndGet();
+                    return Optional.of(cached.value.copy());
+                }
+                playersById.remove(id);
+                evictions.incrementAndGet();
+            }
+            loadGeneration = generation;
+        }
+        misses.incrementAndGet();
+        Optional<Player> player = playerRepository.findById(id);
+        player.ifPresent(loaded -> store(loaded, loadGeneration));
+        return player;
+    }
+
+    /**
+     * Resuelve varios nombres a jugadores (ID y nombre) con el índice de nombres
+     * y una sola consulta para los que no están en él. Los nombres que no existen no aparecen en el resultado.
+     */
+    public Map<String, PlayerNameIndex.Entry> resolveNames(Collection<String> names) {
+        return playerNameIndex.findAll(names);
+    }
+
+    /**
+     * Busca un jugador por nombre: el índice de nombres da el ID y el jugador sale de la caché.
+     * Los nombres que el índice no resuelve (desconocidos o compartidos) se buscan en la base.
+     */
+    public Optional<Player> findByName(String name) {
+        Optional<PlayerNameIndex.Entry> entry = playerNameIndex.find(name);
+        if (entry.isPresent()) {
+            Optional<Player> player = findById(entry.get().getId());
+            if (player.isPresent()) {
+                return player;
+            }
+        }
+        misses.incrementAndGet();
+        return playerNameIndex.findPlayer(name);
+    }
+
+    /**
+     * Obtiene todos los jugadores.
+     */
+    public List<Player> findAll() {
+        long loadGeneration;
+        synchronized (this) {
+            if (roster != null) {
+                if (!roster.isExpired(System.nanoTime())) {
+                    hits.incrementAndGet();
+                    return copies(roster.value);
+                }
+                roster = null;
+                evictions.incrementAndGet();
+            }
+            loadGeneration = generation;
+        }
+        misses.incrementAndGet();
+        List<Player> players = playerRepository.findAll();
+        List<Player> snapshot = copies(players);
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                roster = new CachedValue<>(snapshot, System.nanoTime() + ttlNanos);
+            }
+        }
+        return players;
+    }
+
+    /**
+     * Invalida un jugador (y el plantel).
+     */
+    public void invalidate(String playerId) {
+        invalidate(List.of(playerId));
+    }
+
+    /**
+     * Invalida varios jugadores (y el plantel), ahora y al terminar la transacción actual.
+     */
+    public void invalidate(Collection<String> playerIds) {
+        List<String> ids = List.copyOf(playerIds);
+        evict(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(ids);
+                }
+            });
+        }
+    }
+
+    /**
+     * Invalida todos los jugadores (y el plantel), ahora y al terminar la transacción actual.
+     * Para cambios que tocan a todo el plantel con una sola sentencia.
+     */
+    public void invalidateAll() {
+        evictAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictAll();
+                }
+            });
+        }
+    }
+
+    /**
+     * Contadores de aciertos, fallos, descartes (por tamaño o vencimiento) e invalidaciones.
+     */
+    public synchronized CacheStatsDTO getStats() {
+        return new CacheStatsDTO(hits.get(), misses.get(), evictions.get(), invalidations.get(), playersById.size());
+    }
+
+    private synchronized void store(Player player, long loadGeneration) {
+        if (generation == loadGeneration) {
+            playersById.put(player.getId(), new CachedValue<>(player.copy(), System.nanoTime() + ttlNanos));
+        }
+    }
+
+    private synchronized void evict(List<String> playerIds) {
+        generation++;
+        for (String id : playerIds) {
+            if (playersById.remove(id) != null) {
+                invalidations.incrementAndGet();
+            }
+        }
+        roster = null;
+    }
+
+    private synchronized void evictAll() {
+        generation++;
+        invalidations.addAndGet(playersById.size());
+        playersById.clear();
+        roster = null;
+    }
+
+    private static List<Player> copies(List<Player> players) {
+        List<Player> result = new ArrayList<>(players.size());
+        for (Player player : players) {
+            result.add(player.copy());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,111 @@
+package com.botfutbol.service;
+
+import com.botfutbol.dto.PlayerLevelHistoryDTO;
+import com.botfutbol.entity.PlayerLevelStats;
+import com.botfutbol.repository.PlayerLevelHistoryRepository;
+import com.botfutbol.repository.PlayerLevelStatsRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Servicio del resumen de niveles por jugador.
+ * Responsabilidad: Mantener PlayerLevelStats al cambiar un nivel, reconstruirlo desde el historial
+ * y calcular nivel anterior, promedio y nivel sugerido de cada jugador a partir del resumen.
+ */
+@Service
+@Transactional
+public class PlayerLevelStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(PlayerLevelStatsService.class);
+
+    private final PlayerLevelStatsRepository playerLevelStatsRepository;
+    private final PlayerLevelHistoryRepository playerLevelHistoryRepository;
+
+    public PlayerLevelStatsService(PlayerLevelStatsRepository playerLevelStatsRepository,
+                                   PlayerLevelHistoryRepository playerLevelHistoryRepository) {
+        this.playerLevelStatsRepository = playerLevelStatsRepository;
+        this.playerLevelHistoryRepository = playerLevelHistoryRepository;
+    }
+
+    /**
+     * Suma un cambio de nivel al resumen del jugador (en la transacción de quien lo llama).
+     */
+    public void recordChange(String playerName, int previousLevel, int newLevel) {
+        if (playerLevelStatsRepository.addChange(playerName, newLevel, LocalDateTime.now()) == 0) {
+            PlayerLevelStats stats = new PlayerLevelStats(playerName);
+            stats.addChange(previousLevel, newLevel);
+            playerLevelStatsRepository.save(stats);
+        }
+    }
+
+    /**
+     * Obtiene nivel anterior, promedio y nivel sugerido de los jugadores activos,
+     * leyendo una fila de resumen por jugador.
+     */
+    public List<PlayerLevelHistoryDTO> getPlayerLevelHistory() {
+        List<PlayerLevelHistoryDTO> result = new ArrayList<>();
+        for (PlayerLevelStatsRepository.LevelStatsRow row : playerLevelStatsRepository.findActivePlayersLevelStats()) {
+            int changes = row.getChangeCount() != null ? row.getChangeCount() : 0;
+            int previousLevel;
+            double averageLevel;
+            if (changes >= 2) {
+                // Nivel anterior: penúltimo cambio
+                previousLevel = row.getSecondLastNewLevel();
+                // Promedio: todos los newLevel menos el último (actual)
+                averageLevel = (double) (row.getNewLevelSum() - row.getLastNewLevel()) / (changes - 1);
+            } else if (changes == 1) {
+                previousLevel = row.getFirstPreviousLevel();
+                averageLevel = row.getFirstPreviousLevel();
+            } else {
+                previousLevel = row.getSkillLevel();
+                averageLevel = row.getSkillLevel();
+            }
+            int suggestedLevel = (int) Math.round(averageLevel);
+            result.add(new PlayerLevelHistoryDTO(row.getName(), previousLevel, averageLevel, suggestedLevel));
+        }
+        return result;
+    }
+
+    /**
+     * Reconstruye todos los resúmenes recorriendo el historial una sola vez, en orden de jugador y fecha.
+     * Devuelve la cantidad de jugadores con resumen.
+     */
+    public int rebuild() {
+        playerLevelStatsRepository.deleteAllInBatch();
+        List<PlayerLevelStats> rebuilt = new ArrayList<>();
+        PlayerLevelStats current = null;
+        try (Stream<PlayerLevelHistoryRepository.LevelChangeRow> changes =
+                     playerLevelHistoryRepository.streamAllOrderByPlayerNameAndDate()) {
+            for (PlayerLevelHistoryRepository.LevelChangeRow change : (Iterable<PlayerLevelHistoryRepository.LevelChangeRow>) changes::iterator) {
+                if (change.getPlayerName() == null) continue;
+                if (current == null || !current.getPlayerName().equals(change.getPlayerName())) {
+                    current = new PlayerLevelStats(change.getPlayerName());
+                    rebuilt.add(current);
+                }
+                current.addChange(change.getPreviousLevel(), change.getNewLevel());
+            }
+        }
+        playerLevelStatsRepository.saveAll(rebuilt);
+        return rebuilt.size();
+    }
+
+    /**
+     * Al iniciar, si hay historial pero ningún resumen (primera vez con esta tabla), lo reconstruye.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (playerLevelStatsRepository.count() == 0 && playerLevelHistoryRepository.count() > 0) {
+            log.info("Resumen de niveles reconstruido: {} jugadores", rebuild());
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.botfutbol.service;
+
+import com.botfutbol.entity.Player;
+import com.botfutbol.repository.PlayerRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria de nombres de jugadores.
+ * Responsabilidad: Resolver un nombre normalizado (minúsculas, sin acentos ni espacios repetidos)
+ * al id del jugador sin ir a la base de datos. Se carga al iniciar y se mantiene al día
+ * con las altas, bajas y modificaciones de PlayerService.
+ * También mantiene un índice de trigramas de los jugadores activos para encontrar variantes
+ * y errores de tipeo de un nombre ("flavio g", "Flavio Gomes").
+ */
+@Component
+public class PlayerNameIndex {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final PlayerRepository playerRepository;
+
+    // Jugadores por nombre normalizado (ID -> datos, inmutable; se reemplaza entero al cambiar).
+    // Un nombre compartido por más de un jugador es ambiguo: siempre se consulta en la base
+    private final Map<String, Map<String, Entry>> entriesByName = new ConcurrentHashMap<>();
+    private final Map<String, String> namesById = new ConcurrentHashMap<>();
+    // Jugadores activos por trigramas del nombre normalizado (protegido por this)
+    private final TrigramIndex<Entry> activeTrigrams = new TrigramIndex<>();
+    private final double minSimilarity;
+
+    public PlayerNameIndex(PlayerRepository playerRepository,
+                           @Value("${bot.players.fuzzy-match.min-similarity:0.6}") double minSimilarity) {
+        this.playerRepository = playerRepository;
+        this.minSimilarity = minSimilarity;
+    }
+
+    /**
+     * Datos del jugador guardados en el índice
+     */
+    public static class Entry {
+        private final String id;
+        private final String name;
+        private final boolean active;
+        // Nombre normalizado
+        private final String key;
+
+        Entry(String id, String name, boolean active) {
+            this.id = id;
+            this.name = name;
+            this.active = active;
+            this.key = normalize(name);
+        }
+
+        static Entry of(Player player) {
+            return new Entry(player.getId(), player.getName(), player.isActivo());
+        }
+
+        public String getId() { return id; }
+        public String getName() { return name; }
+        public boolean isActive() { return active; }
+    }
+
+    /**
+     * Carga el índice completo desde la base de datos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        entriesByName.clear();
+        namesById.clear();
+        activeTrigrams.clear();
+        for (Player player : playerRepository.findAll()) {
+            index(player.getId(), player.getName(), player.isActivo());
+        }
+    }
+
+    /**
+     * Busca un jugador en el índice por nombre.
+     */
+    public Optional<Entry> find(String name) {
+        Map<String, Entry> entries = entriesByName.get(normalize(name));
+        if (entries == null || entries.size() != 1) {
+            return Optional.empty();
+        }
+        return Optional.of(entries.values().iterator().next());
+    }
+
+    /**
+     * Busca un jugador activo en el índice por nombre.
+     */
+    public Optional<Entry> findActive(String name) {
+        return find(name).filter(Entry::isActive);
+    }
+
+    /**
+     * Busca el jugador activo con el nombre más parecido (similitud de trigramas) que comparte
+     * al menos una palabra completa con el nombre buscado, si supera la similitud mínima configurada
+     * y no hay empate. Así "flavio g" o "Flavio Gomes" encuentran a Flavio Gómez, pero "Juan" no encuentra
+     * a Juana ni "Martin" a Martina: un nombre cortado ("Flavi") se parece a otro igual que esos,
+     * y juntar dos personas distintas es peor que crear un jugador de más.
+     */
+    public Optional<Entry> findSimilarActive(String name) {
+        String key = normalize(name);
+        if (key.isEmpty()) {
+            return Optional.empty();
+        }
+        Set<String> words = new HashSet<>(List.of(key.split(" ")));
+        TrigramIndex.Match<Entry> match;
+        synchronized (this) {
+            match = activeTrigrams.findBest(key, minSimilarity, entry -> sharesWord(entry.key, words));
+        }
+        return match != null ? Optional.of(match.getValue()) : Optional.empty();
+    }
+
+    /**
+     * Busca un jugador por nombre: primero en el índice y, si no está, en la base de datos.
+     */
+    public Optional<Player> findPlayer(String name) {
+        Optional<Entry> entry = find(name);
+        if (entry.isPresent()) {
+            Optional<Player> player = playerRepository.findById(entry.get().getId());
+            if (player.isPresent()) {
+                return player;
+            }
+        }
+        Optional<Player> player = playerRepository.findByNameIgnoreCase(name);
+        player.ifPresent(this::put);
+        return player;
+    }
+
+    /**
+     * Busca varios jugadores por nombre: primero en el índice y los que no están
+     * con una sola consulta IN (sin distinguir mayúsculas). Los nombres que no existen no aparecen en el resultado.
+     */
+    public Map<String, Entry> findAll(Collection<String> names) {
+        Map<String, Entry> found = new HashMap<>();
+        Map<String, String> missingByLowerName = new HashMap<>();
+        for (String name : names) {
+            Optional<Entry> entry = find(name);
+            if (entry.isPresent()) {
+                found.put(name, entry.get());
+            } else if (name != null) {
+                missingByLowerName.put(name.toLowerCase(Locale.ROOT), name);
+            }
+        }
+        if (missingByLowerName.isEmpty()) {
+            return found;
+        }
+        for (Player player : playerRepository.findByLowerNameIn(new HashSet<>(missingByLowerName.keySet()))) {
+            String name = missingByLowerName.get(player.getName().toLowerCase(Locale.ROOT));
+            if (name != null) {
+                found.put(name, Entry.of(player));
+                put(player);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Agrega o actualiza un jugador en el índice (al confirmarse la transacción actual).
+     */
+    public void put(Player player) {
+        String id = player.getId();
+        String name = player.getName();
+        boolean active = player.isActivo();
+        afterCommit(() -> {
+            synchronized (this) {
+                unindex(id);
+                index(id, name, active);
+            }
+        });
+    }
+
+    /**
+     * Quita un jugador del índice (al confirmarse la transacción actual).
+     */
+    public void remove(String playerId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                unindex(playerId);
+            }
+        });
+    }
+
+    /**
+     * Normaliza un nombre con las mismas reglas que la limpieza de nombres del chat,
+     * en minúsculas y sin acentos.
+     */
+    public static String normalize(String name) {
+        if (name == null) return "";
+        String clean = new ChatTextNormalizer().cleanName(name);
+        // Los nombres limpios solo tienen letras ASCII o Latin-1: sin acentos no hace falta descomponer
+        boolean ascii = true;
+        for (int i = 0; i < clean.length() && ascii; i++) {
+            ascii = clean.charAt(i) < 0x80;
+        }
+        String folded = ascii
+                ? clean
+                : COMBINING_MARKS.matcher(Normalizer.normalize(clean, Normalizer.Form.NFD)).replaceAll("");
+        return folded.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean sharesWord(String key, Set<String> words) {
+        for (String word : key.split(" ")) {
+            if (words.contains(word)) return true;
+        }
+        return false;
+    }
+
+    private void index(String id, String name, boolean active) {
+        String key = normalize(name);
+        if (key.isEmpty()) return;
+        Entry entry = new Entry(id, name, active);
+        Map<String, Entry> entries = new HashMap<>(entriesByName.getOrDefault(key, Map.of()));
+        entries.put(id, entry);
+        entriesByName.put(key, Map.copyOf(entries));
+        namesById.put(id, key);
+        if (active) {
+            activeTrigrams.put(id, key, entry);
+        }
+    }
+
+    private void unindex(String id) {
+        String key = namesById.remove(id);
+        activeTrigrams.remove(id);
+        if (key != null) {
+            // Si queda un solo jugador con el nombre, deja de ser ambiguo
+            entriesByName.computeIfPresent(key, (k, entries) -> {
+                Map<String, Entry> rest = new HashMap<>(entries);
+                rest.remove(id);
+                return rest.isEmpty() ? null : Map.copyOf(rest);
+            });
+        }
+    }
+
+    /**
+     * Aplica un cambio cuando la transacción se confirma, o en el momento si no hay transacción.
+     * Así un rollback no deja en el índice jugadores que no existen.
+     */
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
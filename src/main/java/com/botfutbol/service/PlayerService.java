@@ -1,19 +1,35 @@
 package com.botfutbol.service;
 
+import com.botfutbol.dto.CacheStatsDTO;
+import com.botfutbol.dto.PageDTO;
 import com.botfutbol.dto.PlayerDTO;
 import com.botfutbol.dto.PlayerLevelHistoryDTO;
+import com.botfutbol.dto.PlayerRowDTO;
+import com.botfutbol.dto.PlayerStatsDTO;
 import com.botfutbol.entity.Player;
 import com.botfutbol.entity.PlayerLevelHistory;
 import com.botfutbol.repository.PlayerLevelHistoryRepository;
 import com.botfutbol.repository.PlayerRepository;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Servicio para administrar jugadores.
@@ -23,13 +39,22 @@ import java.util.Optional;
 @Transactional
 public class PlayerService {
     
+    private static final Logger log = LoggerFactory.getLogger(PlayerService.class);
+    
     private final PlayerRepository playerRepository;
+    private final PlayerNameIndex playerNameIndex;
+    private final PlayerCache playerCache;
 
     @Autowired
     private PlayerLevelHistoryRepository playerLevelHistoryRepository;
+
+    @Autowired
+    private PlayerLevelStatsService playerLevelStatsService;
     
-    public PlayerService(PlayerRepository playerRepository) {
+    public PlayerService(PlayerRepository playerRepository, PlayerNameIndex playerNameIndex, PlayerCache playerCache) {
         this.playerRepository = playerRepository;
+        this.playerNameIndex = playerNameIndex;
+        this.playerCache = playerCache;
     }
     
     /**
@@ -45,30 +70,132 @@ public class PlayerService {
         player.setGamesPlayed(0);
         player.setGoalsScored(0);
         player.setAttended(false);
-        return playerRepository.save(player);
+        Player saved = playerRepository.save(player);
+        playerNameIndex.put(saved);
+        playerCache.invalidate(saved.getId());
+        return saved;
+    }
+    
+    /**
+     * Resuelve varios nombres a jugadores activos, creando los que no existen.
+     * Usa el índice en memoria, una sola consulta IN para los nombres que no están en el índice,
+     * la búsqueda aproximada (apodos y errores de tipeo) y recién después crea los que faltan
+     * con un solo batch JDBC (uno por nombre normalizado).
+     * Los nombres de exactOnlyNames (los que reciben pagos) no usan la búsqueda aproximada:
+     * un pago acreditado a otro jugador parecido es peor que un jugador nuevo.
+     * Los nombres de los jugadores creados se agregan a createdNames.
+     */
+    public Map<String, PlayerNameIndex.Entry> resolveOrCreateActivePlayers(Collection<String> names,
+                                                                          Set<String> exactOnlyNames,
+                                                                          List<String> createdNames) {
+        Map<String, PlayerNameIndex.Entry> resolved = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String name : names) {
+            Optional<PlayerNameIndex.Entry> entry = playerNameIndex.findActive(name);
+            if (entry.isPresent()) {
+                resolved.put(name, entry.get());
+            } else {
+                missing.add(name);
+            }
+        }
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        Set<String> lowerNames = missing.stream()
+                .map(name -> name.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        Map<String, Player> existingByLowerName = new HashMap<>();
+        Map<String, Player> existingByKey = new HashMap<>();
+        for (Player player : playerRepository.findActiveByLowerNameIn(lowerNames)) {
+            existingByLowerName.put(player.getName().toLowerCase(Locale.ROOT), player);
+            existingByKey.putIfAbsent(PlayerNameIndex.normalize(player.getName()), player);
+            playerNameIndex.put(player);
+        }
+
+        Map<String, Player> newPlayersByKey = new LinkedHashMap<>();
+        for (String name : missing) {
+            Player player = existingByLowerName.get(name.toLowerCase(Locale.ROOT));
+            if (player == null) {
+                String key = PlayerNameIndex.normalize(name);
+                player = existingByKey.get(key);
+                if (player == null && !newPlayersByKey.containsKey(key) && !exactOnlyNames.contains(name)) {
+                    Optional<PlayerNameIndex.Entry> similar = playerNameIndex.findSimilarActive(name);
+                    if (similar.isPresent()) {
+                        resolved.put(name, similar.get());
+                        continue;
+                    }
+                }
+                if (player == null) {
+                    player = newPlayersByKey.computeIfAbsent(key, k -> new Player(name, 5, "MED"));
+                }
+            }
+            resolved.put(name, PlayerNameIndex.Entry.of(player));
+        }
+
+        List<Player> newPlayers = new ArrayList<>(newPlayersByKey.values());
+        playerRepository.insertAllInBatch(newPlayers);
+        if (!newPlayers.isEmpty()) {
+            playerCache.invalidate(newPlayersByKey.values().stream().map(Player::getId).toList());
+        }
+        for (Player player : newPlayers) {
+            playerNameIndex.put(player);
+            createdNames.add(player.getName());
+        }
+        return resolved;
     }
     
     /**
-     * Busca un jugador por nombre.
+     * Busca un jugador por nombre (desde la caché: para modificarlo usar los métodos de este servicio).
      */
     public Optional<Player> findPlayerByName(String name) {
-        return playerRepository.findByNameIgnoreCase(name);
+        return playerCache.findByName(name);
     }
     
     /**
-     * Obtiene todos los jugadores.
+     * Obtiene todos los jugadores (desde la caché).
      */
     public List<Player> getAllPlayers() {
-        return playerRepository.findAll();
+        return playerCache.findAll();
+    }
+    
+    /**
+     * Obtiene una página de jugadores ordenados por nombre.
+     * cursor es el nextCursor de la página anterior (null para la primera).
+     */
+    public PageDTO<PlayerRowDTO> getPlayersPage(String cursor, int limit) {
+        List<PlayerRowDTO> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = playerRepository.findRows(KeysetCursor.pageRequest(limit));
+        } else {
+            String[] keys = KeysetCursor.decode(cursor, 2);
+            rows = playerRepository.findRowsAfter(keys[0], keys[1], KeysetCursor.pageRequest(limit));
+        }
+        return KeysetCursor.page(rows, limit, row -> KeysetCursor.encode(row.getName(), row.getId()));
+    }
+    
+    /**
+     * Igual que getPlayersPage, pero si fields indica campos (separados por coma) la consulta
+     * lee solo esas columnas. Un campo desconocido es un IllegalArgumentException.
+     */
+    public PageDTO<?> getPlayersPage(String cursor, int limit, String fields) {
+        List<String> selected = KeysetCursor.parseFields(fields, PlayerRowDTO.FIELDS);
+        if (selected.isEmpty()) return getPlayersPage(cursor, limit);
+        String[] keys = cursor == null || cursor.isEmpty() ? null : KeysetCursor.decode(cursor, 2);
+        List<Map<String, Object>> rows = playerRepository.findSelectedFields(Player.class, selected, "name", false,
+                keys == null ? null : keys[0], keys == null ? null : keys[1], KeysetCursor.pageSize(limit) + 1);
+        return KeysetCursor.selectedFieldsPage(rows, limit, selected, "name");
     }
     
     /**
      * Elimina un jugador por nombre.
      */
     public boolean removePlayer(String name) {
-        Optional<Player> player = playerRepository.findByNameIgnoreCase(name);
+        Optional<Player> player = playerNameIndex.findPlayer(name);
         if (player.isPresent()) {
             playerRepository.delete(player.get());
+            playerNameIndex.remove(player.get().getId());
+            playerCache.invalidate(player.get().getId());
             return true;
         }
         return false;
@@ -82,7 +209,7 @@ public class PlayerService {
             throw new IllegalArgumentException("El nivel de habilidad debe estar entre 1 y 10");
         }
 
-        Optional<Player> playerOpt = playerRepository.findByNameIgnoreCase(name);
+        Optional<Player> playerOpt = playerNameIndex.findPlayer(name);
         if (playerOpt.isEmpty()) {
             throw new IllegalArgumentException("Jugador no encontrado");
         }
@@ -100,59 +227,85 @@ public class PlayerService {
         playerLevelHistoryRepository.save(history);
 
         player.setSkillLevel(skillLevel);
-        return playerRepository.save(player);
+        Player saved = playerRepository.save(player);
+        playerCache.invalidate(saved.getId());
+
+        // Actualiza el resumen de niveles en la misma transacción
+        playerLevelStatsService.recordChange(player.getName(), previousLevel, skillLevel);
+        return saved;
     }
     
     /**
      * Actualiza un jugador existente.
      */
     public Player updatePlayer(Player player) {
-        return playerRepository.save(player);
+        Player saved = playerRepository.save(player);
+        playerNameIndex.put(saved);
+        playerCache.invalidate(saved.getId());
+        return saved;
     }
     
     /**
      * Registra un gol para un jugador.
      */
     public void recordGoal(String playerId) {
-        Optional<Player> playerOpt = playerRepository.findById(playerId);
-        if (playerOpt.isPresent()) {
-            Player player = playerOpt.get();
-            player.setGoalsScored(player.getGoalsScored() + 1);
-            playerRepository.save(player);
-        }
+        playerRepository.incrementGoalsScored(playerId);
+        playerCache.invalidate(playerId);
     }
     
     /**
      * Incrementa partidos jugados de un jugador.
      */
     public void incrementGamesPlayed(String playerId) {
-        Optional<Player> playerOpt = playerRepository.findById(playerId);
-        if (playerOpt.isPresent()) {
-            Player player = playerOpt.get();
-            player.setGamesPlayed(player.getGamesPlayed() + 1);
-            playerRepository.save(player);
-        }
+        playerRepository.incrementGamesPlayed(playerId);
+        playerCache.invalidate(playerId);
     }
     
     /**
-     * Obtiene jugadores con deuda.
+     * Obtiene jugadores con deuda, de la mayor a la menor.
      */
     public List<Player> getPlayersWithDebt() {
         return playerRepository.findPlayersWithDebt();
     }
     
     /**
-     * Obtiene los mejores goleadores.
+     * Obtiene los mayores deudores (como máximo limit), de la mayor deuda a la menor.
+     */
+    public List<Player> getTopDebtors(int limit) {
+        return playerRepository.findTopDebtors(PageRequest.of(0, Math.max(1, limit)));
+    }
+    
+    /**
+     * Cantidad de jugadores con deuda.
      */
-    public List<Player> getTopScorers(int limit) {
-        return playerRepository.findTop10ByOrderByGoalsScoredDesc();
+    public long countPlayersWithDebt() {
+        return playerRepository.countPlayersWithDebt();
+    }
+    
+    /**
+     * Al iniciar, corrige la deuda pendiente guardada (outstanding) de los jugadores
+     * en los que no coincide con sus totales; la primera vez completa la columna nueva.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void syncOutstanding() {
+        int updated = playerRepository.syncOutstanding();
+        if (updated > 0) {
+            log.info("Deuda pendiente recalculada en {} jugadores", updated);
+        }
+    }
+    
+    /**
+     * Obtiene los mejores goleadores (como máximo limit).
+     */
+    public List<PlayerStatsDTO> getTopScorers(int limit) {
+        return playerRepository.findTopScorers(PageRequest.of(0, Math.max(1, limit)));
     }
     
     /**
      * Marca la asistencia de un jugador.
      */
     public void markAttendance(String playerName, boolean attended) {
-        Optional<Player> playerOpt = playerRepository.findByNameIgnoreCase(playerName);
+        Optional<Player> playerOpt = playerNameIndex.findPlayer(playerName);
         if (playerOpt.isEmpty()) {
             throw new IllegalArgumentException("Jugador no encontrado: " + playerName);
         }
@@ -160,49 +313,27 @@ public class PlayerService {
         Player player = playerOpt.get();
         player.setAttended(attended);
         playerRepository.save(player);
+        playerCache.invalidate(player.getId());
     }
     
     /**
      * Obtiene el historial de niveles de habilidad de los jugadores.
      */
     public List<PlayerLevelHistoryDTO> getPlayerLevelHistory() {
-        List<PlayerLevelHistoryDTO> result = new ArrayList<>();
-        List<Player> players = playerRepository.findAllByActivoTrue();
-
-        for (Player player : players) {
-            List<PlayerLevelHistory> history = playerLevelHistoryRepository
-                .findByPlayerNameOrderByDateAsc(player.getName());
-
-            int previousLevel;
-            double averageLevel;
-            int suggestedLevel;
-
-            if (history.size() >= 2) {
-                // Nivel anterior: penúltimo cambio
-                previousLevel = history.get(history.size() - 2).getNewLevel();
-                // Promedio: todos los newLevel menos el último (actual)
-                averageLevel = history.subList(0, history.size() - 1)
-                    .stream()
-                    .mapToInt(PlayerLevelHistory::getNewLevel)
-                    .average()
-                    .orElse(previousLevel);
-            } else if (history.size() == 1) {
-                previousLevel = history.get(0).getPreviousLevel();
-                averageLevel = history.get(0).getPreviousLevel();
-            } else {
-                previousLevel = player.getSkillLevel();
-                averageLevel = player.getSkillLevel();
-            }
-            suggestedLevel = (int) Math.round(averageLevel);
-
-            PlayerLevelHistoryDTO dto = new PlayerLevelHistoryDTO(
-                player.getName(),
-                previousLevel,
-                averageLevel,
-                suggestedLevel
-            );
-            result.add(dto);
-        }
-        return result;
+        return playerLevelStatsService.getPlayerLevelHistory();
+    }
+
+    /**
+     * Contadores de la caché de jugadores.
+     */
+    public CacheStatsDTO getPlayerCacheStats() {
+        return playerCache.getStats();
+    }
+
+    /**
+     * Reconstruye el resumen de niveles desde el historial completo.
+     */
+    public int rebuildPlayerLevelStats() {
+        return playerLevelStatsService.rebuild();
     }
 }
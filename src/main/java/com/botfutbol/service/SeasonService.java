@@ -0,0 +1,163 @@
+package com.botfutbol.service;
+
+import com.botfutbol.entity.ArchivedGoal;
+import com.botfutbol.entity.ArchivedLevelChange;
+import com.botfutbol.entity.ArchivedPayment;
+import com.botfutbol.entity.Season;
+import com.botfutbol.repository.ArchivedGoalRepository;
+import com.botfutbol.repository.ArchivedLevelChangeRepository;
+import com.botfutbol.repository.ArchivedPaymentRepository;
+import com.botfutbol.repository.GoalRepository;
+import com.botfutbol.repository.MatchRepository;
+import com.botfutbol.repository.PaymentRepository;
+import com.botfutbol.repository.PlayerLevelHistoryRepository;
+import com.botfutbol.repository.PlayerLevelStatsRepository;
+import com.botfutbol.repository.PlayerRepository;
+import com.botfutbol.repository.SeasonRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Servicio de temporadas.
+ * Responsabilidad: Cerrar la temporada (archivar pagos, goles e historial de niveles y poner en cero
+ * los contadores de los jugadores) y consultar las temporadas cerradas.
+ */
+@Service
+@Transactional
+public class SeasonService {
+
+    private static final Logger log = LoggerFactory.getLogger(SeasonService.class);
+    private static final DateTimeFormatter DEFAULT_NAME_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final SeasonRepository seasonRepository;
+    private final ArchivedPaymentRepository archivedPaymentRepository;
+    private final ArchivedGoalRepository archivedGoalRepository;
+    private final ArchivedLevelChangeRepository archivedLevelChangeRepository;
+    private final PaymentRepository paymentRepository;
+    private final GoalRepository goalRepository;
+    private final PlayerLevelHistoryRepository playerLevelHistoryRepository;
+    private final PlayerLevelStatsRepository playerLevelStatsRepository;
+    private final PlayerRepository playerRepository;
+    private final MatchRepository matchRepository;
+    private final PlayerCache playerCache;
+
+    public SeasonService(SeasonRepository seasonRepository,
+                         ArchivedPaymentRepository archivedPaymentRepository,
+                         ArchivedGoalRepository archivedGoalRepository,
+                         ArchivedLevelChangeRepository archivedLevelChangeRepository,
+                         PaymentRepository paymentRepository,
+                         GoalRepository goalRepository,
+                         PlayerLevelHistoryRepository playerLevelHistoryRepository,
+                         PlayerLevelStatsRepository playerLevelStatsRepository,
+                         PlayerRepository playerRepository,
+                         MatchRepository matchRepository,
+                         PlayerCache playerCache) {
+        this.seasonRepository = seasonRepository;
+        this.archivedPaymentRepository = archivedPaymentRepository;
+        this.archivedGoalRepository = archivedGoalRepository;
+        this.archivedLevelChangeRepository = archivedLevelChangeRepository;
+        this.paymentRepository = paymentRepository;
+        this.goalRepository = goalRepository;
+        this.playerLevelHistoryRepository = playerLevelHistoryRepository;
+        this.playerLevelStatsRepository = playerLevelStatsRepository;
+        this.playerRepository = playerRepository;
+        this.matchRepository = matchRepository;
+        this.playerCache = playerCache;
+    }
+
+    /**
+     * Cierra la temporada actual con un número fijo de sentencias, sin cargar filas en memoria:
+     * - Un INSERT ... SELECT por tabla copia pagos, goles e historial de niveles al archivo.
+     * - Un DELETE por tabla borra las filas archivadas (y el resumen de niveles, que sale del historial).
+     * - Un UPDATE pone en cero partidos jugados y goles de todos los jugadores.
+     * Deuda y total pagado no cambian: el saldo de cada jugador pasa a la temporada siguiente
+     * y sigue coincidiendo con el libro de cuentas.
+     * Con un partido en curso se rechaza, salvo con force: ahí el partido se da por finalizado
+     * (su costo ya se cobró al iniciarlo y sus goles se archivan con el resto).
+     * Siempre corre en una transacción propia (REQUIRES_NEW): el aislamiento REPEATABLE_READ
+     * no se aplicaría si se sumara a una transacción ya abierta.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, isolation = Isolation.REPEATABLE_READ)
+    public Season closeSeason(String name, boolean force) {
+        if (matchRepository.countByActiveTrue() > 0) {
+            if (!force) {
+                throw new IllegalStateException("Hay un partido en curso: finalizalo antes de cerrar la temporada " +
+                        "o cerrala con force=true");
+            }
+            log.info("Cierre de temporada: {} partido(s) en curso finalizado(s)", matchRepository.endActiveMatches());
+        }
+        String seasonName = name != null && !name.trim().isEmpty()
+                ? name.trim()
+                : "Temporada al " + LocalDate.now().format(DEFAULT_NAME_FORMAT);
+        if (seasonName.length() > 100) {
+            throw new IllegalArgumentException("El nombre de la temporada no puede superar los 100 caracteres");
+        }
+        Season season = new Season(seasonName);
+
+        season.setPaymentsArchived(archivedPaymentRepository.archiveCurrentPayments(season.getId()));
+        season.setGoalsArchived(archivedGoalRepository.archiveCurrentGoals(season.getId()));
+        season.setLevelChangesArchived(archivedLevelChangeRepository.archiveCurrentLevelHistory(season.getId()));
+
+        // Solo se borra lo que se copió: una fila agregada entre el INSERT y el DELETE queda en la temporada nueva
+        paymentRepository.deleteArchived(season.getId());
+        goalRepository.deleteArchived(season.getId());
+        playerLevelHistoryRepository.deleteArchived(season.getId());
+        playerLevelStatsRepository.deleteAllInBatch();
+        playerRepository.resetSeasonCounters();
+        seasonRepository.save(season);
+
+        playerCache.invalidateAll();
+        log.info("Temporada cerrada: {} ({} pagos, {} goles, {} cambios de nivel)", season.getName(),
+                season.getPaymentsArchived(), season.getGoalsArchived(), season.getLevelChangesArchived());
+        return season;
+    }
+
+    /**
+     * Temporadas cerradas, de la más reciente a la más antigua.
+     */
+    @Transactional(readOnly = true)
+    public List<Season> getSeasons() {
+        return seasonRepository.findAllByOrderByClosedAtDesc();
+    }
+
+    /**
+     * Busca una temporada cerrada por ID.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Season> getSeason(String seasonId) {
+        return seasonRepository.findById(seasonId);
+    }
+
+    /**
+     * Pagos de una temporada cerrada en orden cronológico.
+     */
+    @Transactional(readOnly = true)
+    public List<ArchivedPayment> getPayments(String seasonId) {
+        return archivedPaymentRepository.findBySeasonIdOrderByTimestampAscIdAsc(seasonId);
+    }
+
+    /**
+     * Goles de una temporada cerrada en orden cronológico.
+     */
+    @Transactional(readOnly = true)
+    public List<ArchivedGoal> getGoals(String seasonId) {
+        return archivedGoalRepository.findBySeasonIdOrderByTimestampAscIdAsc(seasonId);
+    }
+
+    /**
+     * Historial de niveles de una temporada cerrada, por jugador y fecha.
+     */
+    @Transactional(readOnly = true)
+    public List<ArchivedLevelChange> getLevelHistory(String seasonId) {
+        return archivedLevelChangeRepository.findBySeasonIdOrderByPlayerNameAscDateAscIdAsc(seasonId);
+    }
+}
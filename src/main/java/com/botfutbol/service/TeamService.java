@@ -4,7 +4,6 @@ import com.botfutbol.dto.PlayerResponseDTO;
 import com.botfutbol.dto.TeamDTO;
 import com.botfutbol.entity.Player;
 import com.botfutbol.entity.Team;
-import com.botfutbol.repository.PlayerRepository;
 
 import org.springframework.stereotype.Service;
 
@@ -18,10 +17,10 @@ import java.util.stream.Collectors;
 @Service
 public class TeamService {
     
-    private final PlayerRepository playerRepository;
+    private final PlayerCache playerCache;
     
-    public TeamService(PlayerRepository playerRepository) {
-        this.playerRepository = playerRepository;
+    public TeamService(PlayerCache playerCache) {
+        this.playerCache = playerCache;
     }
     
     /**
@@ -29,7 +28,7 @@ public class TeamService {
      */
     public List<Team> generateRandomTeams() {
         // Filtrar solo jugadores que asistieron
-        List<Player> allPlayers = playerRepository.findAll().stream()
+        List<Player> allPlayers = playerCache.findAll().stream()
                 .filter(Player::isAttended)
                 .collect(Collectors.toList());
         
@@ -59,7 +58,7 @@ public class TeamService {
      */
     public List<Team> generateBalancedTeams() {
         // Filtrar solo jugadores que asistieron
-        List<Player> allPlayers = playerRepository.findAll().stream()
+        List<Player> allPlayers = playerCache.findAll().stream()
                 .filter(Player::isAttended)
                 .collect(Collectors.toList());
         
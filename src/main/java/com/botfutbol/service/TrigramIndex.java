@@ -0,0 +1,203 @@
+package com.botfutbol.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Índice invertido de trigramas para búsqueda aproximada de nombres.
+ * Los trigramas se generan por palabra, rellenando con dos espacios al inicio y uno al final
+ * (igual que pg_trgm), y la similitud es el coeficiente de Jaccard entre los conjuntos de trigramas.
+ *
+ * Los nombres deben llegar ya normalizados (ver PlayerNameIndex.normalize).
+ * No es thread-safe: quien lo usa debe sincronizar los accesos.
+ */
+final class TrigramIndex<T> {
+
+    // Datos de cada slot; un slot libre tiene value == null
+    private Object[] values = new Object[16];
+    private int[] trigramCounts = new int[16];
+    private int slotCount = 0;
+    private int[] freeSlots = new int[16];
+    private int freeCount = 0;
+
+    // Trigrama -> slots que lo contienen
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Object, Integer> slotsByKey = new HashMap<>();
+    private final Map<Integer, String[]> trigramsBySlot = new HashMap<>();
+
+    // Contadores de coincidencias reutilizados entre búsquedas
+    private int[] hits = new int[16];
+    private int[] touched = new int[16];
+
+    /**
+     * Resultado de una búsqueda
+     */
+    static final class Match<T> {
+        private final T value;
+        private final double similarity;
+
+        private Match(T value, double similarity) {
+            this.value = value;
+            this.similarity = similarity;
+        }
+
+        T getValue() { return value; }
+        double getSimilarity() { return similarity; }
+    }
+
+    /**
+     * Agrega (o reemplaza) el valor asociado a una clave con el nombre dado.
+     */
+    void put(Object key, String name, T value) {
+        remove(key);
+        String[] trigrams = trigrams(name);
+        if (trigrams.length == 0) return;
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : newSlot();
+        values[slot] = value;
+        trigramCounts[slot] = trigrams.length;
+        for (String trigram : trigrams) {
+            postings.computeIfAbsent(trigram, t -> new Postings()).add(slot);
+        }
+        slotsByKey.put(key, slot);
+        trigramsBySlot.put(slot, trigrams);
+    }
+
+    /**
+     * Quita el valor asociado a una clave, si existe.
+     */
+    void remove(Object key) {
+        Integer slot = slotsByKey.remove(key);
+        if (slot == null) return;
+        for (String trigram : trigramsBySlot.remove(slot)) {
+            Postings list = postings.get(trigram);
+            list.remove(slot);
+            if (list.size == 0) {
+                postings.remove(trigram);
+            }
+        }
+        values[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Vacía el índice.
+     */
+    void clear() {
+        Arrays.fill(values, null);
+        slotCount = 0;
+        freeCount = 0;
+        postings.clear();
+        slotsByKey.clear();
+        trigramsBySlot.clear();
+    }
+
+    /**
+     * Devuelve el valor más parecido al nombre con similitud >= minSimilarity entre los que acepta accept.
+     * Si dos valores empatan en la mejor similitud no devuelve nada:
+     * es preferible no elegir que elegir mal.
+     */
+    Match<T> findBest(String name, double minSimilarity, Predicate<T> accept) {
+        String[] query = trigrams(name);
+        if (query.length == 0) return null;
+
+        // Solo puede alcanzar la similitud mínima un nombre con una cantidad de trigramas
+        // entre q * s y q / s (Jaccard = comunes / (q + n - comunes))
+        int minCount = (int) Math.ceil(query.length * minSimilarity);
+        int maxCount = minSimilarity > 0 ? (int) Math.floor(query.length / minSimilarity) : Integer.MAX_VALUE;
+
+        int touchedCount = 0;
+        for (String trigram : query) {
+            Postings list = postings.get(trigram);
+            if (list == null) continue;
+            for (int i = 0; i < list.size; i++) {
+                int slot = list.slots[i];
+                int count = trigramCounts[slot];
+                if (count < minCount || count > maxCount) continue;
+                if (hits[slot]++ == 0) {
+                    touched[touchedCount++] = slot;
+                }
+            }
+        }
+
+        T best = null;
+        double bestSimilarity = -1;
+        boolean tie = false;
+        for (int i = 0; i < touchedCount; i++) {
+            int slot = touched[i];
+            int common = hits[slot];
+            hits[slot] = 0;
+            @SuppressWarnings("unchecked")
+            T candidate = (T) values[slot];
+            if (!accept.test(candidate)) continue;
+            double similarity = (double) common / (query.length + trigramCounts[slot] - common);
+            if (similarity > bestSimilarity) {
+                best = candidate;
+                bestSimilarity = similarity;
+                tie = false;
+            } else if (similarity == bestSimilarity) {
+                tie = true;
+            }
+        }
+        if (best == null || tie || bestSimilarity < minSimilarity) {
+            return null;
+        }
+        return new Match<>(best, bestSimilarity);
+    }
+
+    /**
+     * Trigramas distintos de un nombre normalizado.
+     */
+    static String[] trigrams(String name) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String word : name.split(" ")) {
+            if (word.isEmpty()) continue;
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                result.add(padded.substring(i, i + 3));
+            }
+        }
+        return result.toArray(new String[0]);
+    }
+
+    private int newSlot() {
+        if (slotCount == values.length) {
+            int capacity = slotCount * 2;
+            values = Arrays.copyOf(values, capacity);
+            trigramCounts = Arrays.copyOf(trigramCounts, capacity);
+            hits = Arrays.copyOf(hits, capacity);
+            touched = Arrays.copyOf(touched, capacity);
+        }
+        return slotCount++;
+    }
+
+    /**
+     * Lista de slots que contienen un trigrama
+     */
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private int size = 0;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--size];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.botfutbol.repository;
+
+import com.botfutbol.config.SqlStatementCounter;
+import com.botfutbol.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sentencias masivas de PlayerRepository contra la base H2 del perfil de tests:
+ * resultado y cantidad de viajes a la base.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class PlayerRepositoryTest {
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Los jugadores se cargan sin asientos en el libro: se borran para no desfasar a los otros tests
+    private final List<String> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void deleteCreatedPlayers() {
+        playerRepository.deleteAllById(createdIds);
+    }
+
+    @Test
+    void addToTotalPaidInBatchUpdatesEveryPlayerWithOneStatement() {
+        Player ana = newPlayer("Lote Ana", 1000.0, 100.0);
+        Player beto = newPlayer("Lote Beto", 500.0, 0.0);
+        Player caro = newPlayer("Lote Caro", 0.0, 300.0);
+        Player dani = newPlayer("Lote Dani", 200.0, 50.0);
+        Map<String, Double> amounts = new LinkedHashMap<>();
+        amounts.put(ana.getId(), 250.5);
+        amounts.put(beto.getId(), 500.0);
+        amounts.put(caro.getId(), -300.0);
+
+        long roundTrips = inTransaction(() -> playerRepository.addToTotalPaidInBatch(amounts));
+
+        assertEquals(1, roundTrips);
+        assertTotals(ana, 1000.0, 350.5);
+        assertTotals(beto, 500.0, 500.0);
+        assertTotals(caro, 0.0, 0.0);
+        // Un jugador fuera del lote no cambia
+        assertTotals(dani, 200.0, 50.0);
+    }
+
+    @Test
+    void chargeMatchToPlayersAssignsOutstandingFromTheDebtBeforeTheCharge() {
+        Player debtor = newPlayer("Cargo Deudor", 500.0, 200.0);
+        Player clean = newPlayer("Cargo Limpio", 0.0, 0.0);
+        Player ahead = newPlayer("Cargo Adelantado", 100.0, 300.0);
+        Player bench = newPlayer("Cargo Suplente", 100.0, 0.0);
+
+        long roundTrips = inTransaction(() -> playerRepository.chargeMatchToPlayers(
+                List.of(debtor.getId(), clean.getId(), ahead.getId()), 300.0));
+
+        assertEquals(1, roundTrips);
+        // outstanding se calcula con la deuda ya cargada aunque se asigne antes que total_debt
+        assertTotals(debtor, 800.0, 200.0);
+        assertTotals(clean, 300.0, 0.0);
+        assertTotals(ahead, 400.0, 300.0);
+        assertTotals(bench, 100.0, 0.0);
+        assertEquals(1, playerRepository.findById(debtor.getId()).orElseThrow().getGamesPlayed());
+        assertEquals(0, playerRepository.findById(bench.getId()).orElseThrow().getGamesPlayed());
+    }
+
+    @Test
+    void saveAllInsertsNewPlayersInJdbcBatchesWithoutSelects() {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            players.add(new Player("Batch " + i, 5, "MED"));
+        }
+        players.forEach(player -> createdIds.add(player.getId()));
+
+        // Sin SELECT previo por entidad: 120 filas son 3 executeBatch de hasta 50 (hibernate.jdbc.batch_size)
+        long roundTrips = inTransaction(() -> playerRepository.saveAll(players));
+
+        assertEquals(3, roundTrips);
+        assertEquals(120, playerRepository.findAllById(createdIds).size());
+        assertFalse(players.get(0).isNew());
+    }
+
+    @Test
+    void savingALoadedPlayerUpdatesItInsteadOfInsertingIt() {
+        Player player = newPlayer("Batch Cargado", 0.0, 0.0);
+        Player loaded = playerRepository.findById(player.getId()).orElseThrow();
+        assertFalse(loaded.isNew());
+        loaded.setSkillLevel(8);
+
+        inTransaction(() -> playerRepository.save(loaded));
+
+        assertEquals(8, playerRepository.findById(player.getId()).orElseThrow().getSkillLevel());
+    }
+
+    @Test
+    void findStatsRowsLimitsOnlyTheScorersAndListsEveryDebtor() {
+        // Más goles que cualquier jugador de los otros tests, para que sean los primeros
+        Player first = newScorer("Stats Primero", 1003, 0.0, 0.0);
+        Player second = newScorer("Stats Segundo", 1002, 0.0, 0.0);
+        newScorer("Stats Tercero", 1001, 0.0, 0.0);
+        Player debtor = newScorer("Stats Deudor", 0, 700.0, 200.0);
+        Player paidUp = newScorer("Stats Al Dia", 0, 300.0, 300.0);
+
+        List<PlayerRepository.StatsRow> rows = playerRepository.findStatsRows(2);
+
+        List<String> scorers = rows.stream().filter(row -> row.getDebtor() == 0)
+                .map(PlayerRepository.StatsRow::getName).sorted().toList();
+        assertEquals(List.of(first.getName(), second.getName()), scorers);
+        List<PlayerRepository.StatsRow> debtors = rows.stream().filter(row -> row.getDebtor() == 1).toList();
+        assertTrue(debtors.stream().allMatch(row -> row.getOutstanding() > 0));
+        PlayerRepository.StatsRow debtorRow = debtors.stream()
+                .filter(row -> row.getName().equals(debtor.getName())).findFirst().orElseThrow();
+        assertEquals(700.0, debtorRow.getTotalDebt(), 0.001);
+        assertEquals(200.0, debtorRow.getTotalPaid(), 0.001);
+        assertEquals(500.0, debtorRow.getOutstanding(), 0.001);
+        assertTrue(debtors.stream().noneMatch(row -> row.getName().equals(paidUp.getName())));
+    }
+
+    private Player newPlayer(String name, double totalDebt, double totalPaid) {
+        return newScorer(name, 0, totalDebt, totalPaid);
+    }
+
+    private Player newScorer(String name, int goalsScored, double totalDebt, double totalPaid) {
+        Player player = new Player(name, 5, "MED");
+        player.setGoalsScored(goalsScored);
+        player.setTotalDebt(totalDebt);
+        player.setTotalPaid(totalPaid);
+        transactionTemplate.executeWithoutResult(status -> playerRepository.insertAllInBatch(List.of(player)));
+        createdIds.add(player.getId());
+        return player;
+    }
+
+    // Viajes a la base de la acción, en una transacción propia
+    private long inTransaction(Runnable action) {
+        long before = SqlStatementCounter.count();
+        transactionTemplate.executeWithoutResult(status -> action.run());
+        return SqlStatementCounter.count() - before;
+    }
+
+    private void assertTotals(Player player, double totalDebt, double totalPaid) {
+        Player stored = playerRepository.findById(player.getId()).orElseThrow();
+        assertEquals(totalDebt, stored.getTotalDebt(), 0.001);
+        assertEquals(totalPaid, stored.getTotalPaid(), 0.001);
+        assertEquals(totalDebt - totalPaid, stored.getOutstanding(), 0.001);
+    }
+}
@@ -0,0 +1,140 @@
+package com.botfutbol.service;
+
+import com.botfutbol.dto.PlayerDTO;
+import com.botfutbol.entity.Player;
+import com.botfutbol.repository.PlayerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Importación de chats contra la base H2 del perfil de tests: a qué jugador se asigna cada evento
+ * y qué se vuelve a registrar al importar de nuevo el mismo grupo.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class ChatImportTest {
+
+    @Autowired
+    private ChatParsingService chatParsingService;
+
+    @Autowired
+    private PlayerService playerService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Test
+    void confirmationUsesFuzzyMatchButPaymentDoesNot() {
+        Player existing = playerService.addPlayer(new PlayerDTO("Gumersindo Ruiz", 5, "MED"));
+
+        ChatParsingService.ChatParsingResult confirmation =
+                chatParsingService.processChatText("[20:01, 12/03/2024] Gumersindo R: voy");
+        assertEquals(List.of("Gumersindo Ruiz"), confirmation.getConfirmedPlayers());
+        assertEquals(List.of(), confirmation.getNewPlayersAdded());
+
+        // El mismo nombre parecido en un pago no se acredita a Gumersindo Ruiz
+        ChatParsingService.ChatParsingResult payment =
+                chatParsingService.processChatText("[20:02, 12/03/2024] Tesorero: Gumersindo R pagó 2000");
+        assertEquals(List.of("Gumersindo R"), payment.getPaidPlayers());
+        assertEquals(List.of("Gumersindo R"), payment.getNewPlayersAdded());
+        assertEquals(0.0, playerRepository.findById(existing.getId()).orElseThrow().getTotalPaid(), 0.001);
+    }
+
+    @Test
+    void nearMissNameCreatesItsOwnPlayer() {
+        playerService.addPlayer(new PlayerDTO("Juana Importada", 5, "MED"));
+
+        ChatParsingService.ChatParsingResult result =
+                chatParsingService.processChatText("[20:03, 12/03/2024] Juan Importado: me anoto");
+
+        assertEquals(List.of("Juan Importado"), result.getNewPlayersAdded());
+        assertEquals(List.of("Juan Importado"), result.getConfirmedPlayers());
+    }
+
+    @Test
+    void attendanceListRoundTripsDoNotGrowWithTheList() {
+        ChatParsingService.ChatParsingResult small = chatParsingService.processChatText(attendanceList("b", 10));
+        ChatParsingService.ChatParsingResult large = chatParsingService.processChatText(attendanceList("c", 400));
+
+        assertEquals(10, small.getNewPlayersAdded().size());
+        assertEquals(400, large.getNewPlayersAdded().size());
+        assertTrue(small.getDatabaseRoundTrips() > 0);
+        assertEquals(small.getDatabaseRoundTrips(), large.getDatabaseRoundTrips());
+
+        // Los mismos nombres ya existen: se resuelven sin crear nada y tampoco crece
+        ChatParsingService.ChatParsingResult again = chatParsingService.processChatText(attendanceList("c", 400));
+        assertEquals(List.of(), again.getNewPlayersAdded());
+        assertEquals(400, again.getPlayersConfirmed());
+        assertTrue(again.getDatabaseRoundTrips() <= large.getDatabaseRoundTrips());
+    }
+
+    @Test
+    void undatedPaymentsAreNotRepeatedWhenTheGroupIsImportedAgain() {
+        Player ana = playerService.addPlayer(new PlayerDTO("Sinfecha Ana", 5, "MED"));
+        String chat = "Tesorero: Sinfecha Ana pagó 1000\nSinfecha Ana: voy\n";
+
+        ChatParsingService.ChatParsingResult first = chatParsingService.processChatText(chat, "grupo-sin-fecha");
+        ChatParsingService.ChatParsingResult again = chatParsingService.processChatText(chat, "grupo-sin-fecha");
+
+        assertEquals(1, first.getPaymentsRegistered());
+        assertEquals(0, first.getUndatedPaymentsSkipped());
+        assertEquals(0, again.getPaymentsRegistered());
+        assertEquals(1, again.getUndatedPaymentsSkipped());
+        // Las confirmaciones no guardan nada: se siguen informando
+        assertEquals(List.of("Sinfecha Ana"), again.getConfirmedPlayers());
+        assertEquals(1000.0, playerRepository.findById(ana.getId()).orElseThrow().getTotalPaid(), 0.001);
+    }
+
+    @Test
+    void undatedPrefixIsSkippedWhileNewDatedPaymentsAreRegistered() {
+        Player beto = playerService.addPlayer(new PlayerDTO("Sinfecha Beto", 5, "MED"));
+        String chat = "Tesorero: Sinfecha Beto pagó 500\n"
+                + "[20:10, 14/03/2024] Tesorero: Sinfecha Beto pagó 300\n";
+        chatParsingService.processChatText(chat, "grupo-mixto");
+
+        ChatParsingService.ChatParsingResult again = chatParsingService.processChatText(
+                chat + "[20:11, 14/03/2024] Tesorero: Sinfecha Beto pagó 200\n", "grupo-mixto");
+
+        assertEquals(1, again.getPaymentsRegistered());
+        assertEquals(1, again.getUndatedPaymentsSkipped());
+        assertEquals(1, again.getSkippedLinesCount());
+        assertEquals(1000.0, playerRepository.findById(beto.getId()).orElseThrow().getTotalPaid(), 0.001);
+    }
+
+    @Test
+    void withoutAGroupUndatedPaymentsAreRegisteredEveryTime() {
+        Player caro = playerService.addPlayer(new PlayerDTO("Sinfecha Caro", 5, "MED"));
+        String chat = "Tesorero: Sinfecha Caro pagó 250\n";
+
+        chatParsingService.processChatText(chat);
+        chatParsingService.processChatText(chat);
+
+        // Sin grupo no hay marca de agua: cada importación es independiente
+        assertEquals(500.0, playerRepository.findById(caro.getId()).orElseThrow().getTotalPaid(), 0.001);
+    }
+
+    // Lista numerada de count nombres de una sola palabra que no comparten palabras entre sí
+    private static String attendanceList(String prefix, int count) {
+        StringBuilder text = new StringBuilder("*LUNES 20 HS*\n");
+        for (int i = 0; i < count; i++) {
+            text.append(i + 1).append(". ").append(prefix).append(letters(i)).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static String letters(int value) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            word.append((char) ('a' + value % 26));
+            value /= 26;
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,300 @@
+package com.botfutbol.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Equivalencia entre ChatMessageClassifier / ChatTextNormalizer y los regex que reemplazaron.
+ * Corre un corpus fijo (chat/golden-corpus.txt) y uno generado con semilla fija, y compara
+ * cada paso: limpieza, encabezados, nombre y mensaje, clasificación y nombre limpio.
+ * El monto sigue una regla nueva (acepta "$" y separadores de miles), modelada en Regexes.amount.
+ */
+class ChatMessageClassifierTest {
+
+    private static final int GENERATED_LINES = 50_000;
+    private static final int MAX_REPORTED_MISMATCHES = 20;
+
+    private final ChatMessageClassifier classifier = new ChatMessageClassifier();
+    private final ChatTextNormalizer normalizer = new ChatTextNormalizer();
+
+    @Test
+    void goldenCorpusMatchesRegexes() throws IOException {
+        List<String> corpus = readCorpus();
+        assertTrue(corpus.size() > 50, "corpus vacío");
+        assertEquivalent(corpus);
+    }
+
+    @Test
+    void generatedLinesMatchRegexes() {
+        Random random = new Random(20240312L);
+        List<String> lines = new ArrayList<>(GENERATED_LINES);
+        for (int i = 0; i < GENERATED_LINES; i++) {
+            lines.add(randomLine(random));
+        }
+        assertEquivalent(lines);
+    }
+
+    @Test
+    void leadingTimestampMinuteReadsDateAndTime() {
+        long minute = classifier.leadingTimestampMinute("[20:01, 12/03/2024] Flavio: pago");
+        assertEquals(java.time.LocalDate.of(2024, 3, 12).toEpochDay() * 1440 + 20 * 60 + 1, minute);
+        assertEquals(minute, classifier.leadingTimestampMinute("\u200B [20:01, 12/3/24] Flavio: pago"));
+        assertEquals(ChatMessageClassifier.NO_TIMESTAMP, classifier.leadingTimestampMinute("[20:01] Flavio: pago"));
+        assertEquals(ChatMessageClassifier.NO_TIMESTAMP, classifier.leadingTimestampMinute("[20:01, 30/02/2024] Flavio: pago"));
+        assertEquals(ChatMessageClassifier.NO_TIMESTAMP, classifier.leadingTimestampMinute("Flavio: pago"));
+    }
+
+    @Test
+    void amountAcceptsThousandsSeparatorsAndCurrencySign() {
+        assertEquals("7000", classifier.classify("Flavio pago 7.000").getAmount());
+        assertEquals("1500", classifier.classify("Juan pago 1,500").getAmount());
+        assertEquals("7000", classifier.classify("Flavio pagó $7000").getAmount());
+        assertEquals("1500", classifier.classify("Flavio pagó $ 1.500 del sábado").getAmount());
+        assertEquals("12000000", classifier.classify("Flavio pagó 12.000.000").getAmount());
+        assertEquals("7000", classifier.classify("Flavio pagó 7000.").getAmount());
+        assertEquals("Flavio", classifier.classify("Flavio pago 7.000").getPayerName());
+    }
+
+    @Test
+    void amountThatIsNotACleanIntegerIsDropped() {
+        // Sin monto el pago usa el costo del partido, en lugar de registrar 7 o 1
+        assertNull(classifier.classify("Flavio pagó 7.5").getAmount());
+        assertNull(classifier.classify("Flavio pagó 1.500,50").getAmount());
+        assertNull(classifier.classify("Flavio pagó 1,50").getAmount());
+        assertNull(classifier.classify("Flavio pagó 7000.000").getAmount());
+        assertNull(classifier.classify("Flavio pagó 1.500,000").getAmount());
+        assertNull(classifier.classify("Flavio pagó $").getAmount());
+        assertEquals("Flavio", classifier.classify("Flavio pagó 7.5").getPayerName());
+    }
+
+    // ==================== COMPARACIÓN ====================
+
+    private void assertEquivalent(List<String> lines) {
+        List<String> mismatches = new ArrayList<>();
+        for (String line : lines) {
+            compare(line, mismatches);
+            if (mismatches.size() >= MAX_REPORTED_MISMATCHES) break;
+        }
+        assertTrue(mismatches.isEmpty(), () -> "Diferencias con los regex:\n" + String.join("\n", mismatches));
+    }
+
+    private void compare(String line, List<String> mismatches) {
+        String clean = normalizer.stripInvisible(line);
+        check(mismatches, line, "stripInvisible", Regexes.stripInvisible(line), clean);
+
+        boolean header = normalizer.isHeader(clean);
+        check(mismatches, line, "isHeader", Regexes.isHeader(clean), header);
+
+        String[] expected = Regexes.extractNameAndMessage(clean);
+        ChatMessageClassifier.ParsedMessage parsed = classifier.extractNameAndMessage(clean);
+        check(mismatches, line, "name", expected == null ? null : expected[0], parsed == null ? null : parsed.getName());
+        check(mismatches, line, "message", expected == null ? null : expected[1], parsed == null ? null : parsed.getMessage());
+
+        // Como ChatParsingService: sin nombre se clasifica la línea original
+        String message = parsed != null && !header ? parsed.getMessage() : line;
+        compareClassification(line, message, mismatches);
+        if (!message.equals(clean)) {
+            compareClassification(line, clean, mismatches);
+        }
+        if (parsed != null) {
+            check(mismatches, line, "cleanName", Regexes.cleanName(parsed.getName()), normalizer.cleanName(parsed.getName()));
+        }
+    }
+
+    private void compareClassification(String line, String message, List<String> mismatches) {
+        ChatMessageClassifier.Classification classification = classifier.classify(message);
+        String[] payer = Regexes.payerAndAmount(message);
+        check(mismatches, line, "payerName", payer[0], classification.getPayerName());
+        check(mismatches, line, "amount", payer[1], classification.getAmount());
+        check(mismatches, line, "confirmation", Regexes.isConfirmation(message), classification.isConfirmation());
+        check(mismatches, line, "payment", Regexes.isPayment(message), classification.isPayment());
+        if (classification.getPayerName() != null) {
+            check(mismatches, line, "cleanName", Regexes.cleanName(classification.getPayerName()),
+                    normalizer.cleanName(classification.getPayerName()));
+        }
+    }
+
+    private static void check(List<String> mismatches, String line, String step, Object expected, Object actual) {
+        if (!Objects.equals(expected, actual)) {
+            mismatches.add(step + " de " + escape(line) + ": regex=" + escape(expected) + ", nuevo=" + escape(actual));
+        }
+    }
+
+    private static String escape(Object value) {
+        if (value == null) return "null";
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toString().toCharArray()) {
+            if (c < ' ' || c > '~' && !Character.isLetter(c)) {
+                sb.append(String.format("\\u%04X", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    // ==================== CORPUS ====================
+
+    private static List<String> readCorpus() throws IOException {
+        try (InputStream in = ChatMessageClassifierTest.class.getResourceAsStream("/chat/golden-corpus.txt")) {
+            assertNotNull(in, "falta chat/golden-corpus.txt");
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            List<String> lines = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+            return lines;
+        }
+    }
+
+    private static final String[] TIMESTAMPS = {
+        "[20:01, 12/03/2024] ", "[8:05, 1/4/24] ", "[20:01] ", "[20:1, 12/03/2024] ", "[20:01, 12/03/2024 ",
+        "[20:01,12/3/2024]", "[123:01, 1/1/2024] ", "[20:01, 1/1/20245] ", "[", "]", ""
+    };
+
+    private static final String[] NAMES = {
+        "Flavio", "juan", "ANA", "José María", "Ñoño", "Pedro Gómez", "O'Brien", "D’Angelo", "María-José", "Juan2", "  Lu  "
+    };
+
+    private static final String[] WORDS = {
+        "pago", "PAGO", "Pago", "pagó", "PAGÓ", "pagué", "PAGUÉ", "pague", "paguo", "pagado", "pagad", "pag",
+        "deposito", "depositó", "DEPOSITÓ", "depositado", "transferencia", "enviado", "listo el pago", "listo el",
+        "ya está", "YA ESTÁ", "ya esta", "+1", "+ 1", "voy", "VOY", "me anoto", "confirmo", "presente", "asisto",
+        "cuenta conmigo", "ahí estoy", "AHÍ ESTOY", "Ahí estoy", "de", "DE", "De", "y", "el", "7000", "1500", "0",
+        "$", "$7000", "$ 1.500", "7.000", "1,500", "12.000.000", "7.5", "1.500,50", "1,5", ".", ",",
+        "Flavio", "juan", "Ñandú", "1.", "2)", "3", ":", ": ", "::", "!", "?", "¿", "(", ")", "-", "'", "’", "*",
+        "LUNES", "20", "HS", "*LUNES 20 HS*", "⚽", "👍", " ", "\t", "\u000B", "\u00A0", "\u200B", "\u200D",
+        "\uFEFF", "\u2060", "\r", "\u0085", "", "  "
+    };
+
+    // Línea armada con piezas que ejercitan los bordes de cada regex
+    private static String randomLine(Random random) {
+        StringBuilder sb = new StringBuilder();
+        if (random.nextInt(8) == 0) sb.append(pick(random, WORDS));
+        int shape = random.nextInt(4);
+        if (shape == 0 || shape == 1) {
+            sb.append(pick(random, TIMESTAMPS));
+        }
+        if (shape != 3) {
+            sb.append(pick(random, NAMES));
+            if (random.nextInt(5) != 0) sb.append(':');
+            sb.append(random.nextBoolean() ? " " : "");
+        }
+        int words = random.nextInt(7);
+        for (int i = 0; i < words; i++) {
+            sb.append(pick(random, WORDS));
+            int gap = random.nextInt(6);
+            sb.append(gap == 0 ? "" : gap == 1 ? "  " : " ");
+        }
+        return sb.toString();
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    // ==================== REGEX ORIGINALES ====================
+
+    /**
+     * Los patrones y pasos que usaba ChatParsingService antes del clasificador compilado.
+     */
+    private static final class Regexes {
+
+        static final Pattern CONFIRMATION_PATTERN = Pattern.compile(
+            "(?i)(\\+1|voy|me anoto|confirmo|presente|asisto|cuenta conmigo|ahí estoy)"
+        );
+        static final Pattern PAYMENT_PATTERN = Pattern.compile(
+            "(?i)(pagu[éeo]|pagado|transferencia|ya está|listo el pago|enviado|depositado|pago)"
+        );
+        static final Pattern PAYMENT_WITH_NAME_PATTERN_1 = Pattern.compile(
+            "(?i)^([A-Za-zÀ-ÿ\\s]+)\\s*(pago|pagó|pagué|pagado|deposit[oó]|transferencia|enviado|listo el pago)(\\s*\\$?\\s*\\d+(?:[.,]\\d+)*)?"
+        );
+        static final Pattern PAYMENT_WITH_NAME_PATTERN_2 = Pattern.compile(
+            "(?i)^(pago|pagó|pagué|pagado|deposit[oó]|transferencia|enviado|listo el pago) de ([A-Za-zÀ-ÿ\\s]+)"
+        );
+        static final Pattern WHATSAPP_NAME_PATTERN = Pattern.compile(
+            "\\[\\d{1,2}:\\d{2}(?:,\\s*\\d{1,2}/\\d{1,2}/\\d{2,4})?\\]\\s*([^:]+):\\s*(.+)"
+        );
+        static final Pattern SIMPLE_NAME_PATTERN = Pattern.compile(
+            "^([A-Za-zÀ-ÿ\\s]+):\\s*(.+)"
+        );
+        static final Pattern NUMBERED_LIST_PATTERN = Pattern.compile(
+            "^\\d+[.)\\s]+\\s*([\\p{L}0-9ÁÉÍÓÚÑáéíóúñ'’\\- ]+)\\s*$"
+        );
+
+        static String stripInvisible(String line) {
+            return line.replaceAll("[\\u200B-\\u200D\\uFEFF\\u2060]", "").trim();
+        }
+
+        static boolean isHeader(String cleanLine) {
+            return cleanLine.matches("^\\*?[A-ZÁÉÍÓÚÑ ]+\\*?\\s*\\d{1,2}\\s*HS\\*?$");
+        }
+
+        static String[] extractNameAndMessage(String cleanLine) {
+            Matcher whatsappMatcher = WHATSAPP_NAME_PATTERN.matcher(cleanLine);
+            if (whatsappMatcher.find()) {
+                return new String[] {whatsappMatcher.group(1).trim(), whatsappMatcher.group(2).trim()};
+            }
+            Matcher simpleMatcher = SIMPLE_NAME_PATTERN.matcher(cleanLine);
+            if (simpleMatcher.find()) {
+                return new String[] {simpleMatcher.group(1).trim(), simpleMatcher.group(2).trim()};
+            }
+            Matcher numberedMatcher = NUMBERED_LIST_PATTERN.matcher(cleanLine);
+            if (numberedMatcher.find()) {
+                return new String[] {numberedMatcher.group(1).trim(), ""};
+            }
+            return null;
+        }
+
+        static String[] payerAndAmount(String message) {
+            Matcher m1 = PAYMENT_WITH_NAME_PATTERN_1.matcher(message);
+            if (m1.find()) {
+                return new String[] {m1.group(1).trim(), m1.group(3) == null ? null : amount(m1.group(3))};
+            }
+            Matcher m2 = PAYMENT_WITH_NAME_PATTERN_2.matcher(message);
+            if (m2.find()) {
+                return new String[] {m2.group(2).trim(), null};
+            }
+            return new String[] {null, null};
+        }
+
+        // Los regex originales solo tomaban "\\d+": el monto ahora acepta '$' y separadores de miles
+        static String amount(String raw) {
+            String digits = raw.replaceFirst("^\\s*\\$?\\s*", "");
+            if (digits.matches("\\d+|\\d{1,3}(?:\\.\\d{3})+|\\d{1,3}(?:,\\d{3})+")) {
+                return digits.replaceAll("[.,]", "");
+            }
+            return null;
+        }
+
+        static boolean isConfirmation(String message) {
+            return CONFIRMATION_PATTERN.matcher(message).find();
+        }
+
+        static boolean isPayment(String message) {
+            return PAYMENT_PATTERN.matcher(message).find();
+        }
+
+        static String cleanName(String name) {
+            if (name == null) return "";
+            return name.replaceAll("[^A-Za-zÀ-ÿ\\s]", "").replaceAll("\\s+", " ").trim();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.botfutbol.service;
+
+import com.botfutbol.entity.Player;
+import com.botfutbol.repository.ChatImportWatermarkRepository;
+import com.botfutbol.repository.PlayerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.Reader;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Importación por stream de exports grandes: la memoria retenida no crece con el archivo,
+ * tanto si casi todo es charla como si casi todo son pagos y confirmaciones.
+ * El export se genera mientras se lee, así que el test no lo tiene en memoria en ningún momento.
+ */
+class ChatParsingServiceStreamingTest {
+
+    private static final long EXPORT_BYTES = 200L * 1024 * 1024;
+    // Un export donde cada línea es un evento: ~1,5 millones de eventos
+    private static final long DENSE_EXPORT_BYTES = 64L * 1024 * 1024;
+    // Cada cuánto se mide el heap retenido mientras se lee
+    private static final long SAMPLE_EVERY_CHARS = 16L * 1024 * 1024;
+    // Techo para lo que la importación retiene por encima de lo que había al empezar
+    private static final long MAX_RETAINED_BYTES = 64L * 1024 * 1024;
+
+    // Uno de cada PAYMENT_EVERY es un pago y uno de cada CONFIRMATION_EVERY una confirmación
+    private static final int PAYMENT_EVERY = 10_000;
+    private static final int CONFIRMATION_EVERY = 25_000;
+
+    @Test
+    void streamingImportKeepsRetainedHeapFlat() throws Exception {
+        ChatParsingService service = newService(new AtomicInteger());
+        long baseline = retainedHeap();
+        SyntheticExport export = new SyntheticExport(EXPORT_BYTES, baseline, SyntheticExport::line);
+
+        ChatParsingService.ChatParsingResult result = service.processChatStream(export);
+
+        assertTrue(export.charsRead >= EXPORT_BYTES, "el export no llegó a 200 MB");
+        assertTrue(export.samples >= 10, "muy pocas mediciones del heap");
+        assertTrue(export.maxRetainedGrowth < MAX_RETAINED_BYTES,
+                "la importación retuvo " + export.maxRetainedGrowth / (1024 * 1024) + " MB");
+
+        // Mismo resultado que procesar todas las líneas: los no reconocidos se cuentan todos y se guardan 500
+        long lines = export.linesRead;
+        long payments = countMultiples(lines, PAYMENT_EVERY, 0);
+        long confirmations = countMultiples(lines, CONFIRMATION_EVERY, CONFIRMATION_EVERY / 2);
+        assertEquals(payments, result.getPaymentsRegistered());
+        assertEquals(confirmations, result.getPlayersConfirmed());
+        assertEquals(lines - payments - confirmations, result.getUnrecognizedMessagesCount());
+        assertEquals(500, result.getUnrecognizedMessages().size());
+        assertEquals(SyntheticExport.line(1), result.getUnrecognizedMessages().get(0));
+    }
+
+    @Test
+    void denseEventsAreAppliedInBatchesWithoutRetainingThem() throws Exception {
+        AtomicInteger batches = new AtomicInteger();
+        ChatParsingService service = newService(batches);
+        long baseline = retainedHeap();
+        SyntheticExport export = new SyntheticExport(DENSE_EXPORT_BYTES, baseline, SyntheticExport::eventLine);
+
+        ChatParsingService.ChatParsingResult result = service.processChatStream(export);
+
+        assertTrue(export.samples >= 4, "muy pocas mediciones del heap");
+        assertTrue(export.maxRetainedGrowth < MAX_RETAINED_BYTES,
+                "la importación retuvo " + export.maxRetainedGrowth / (1024 * 1024) + " MB");
+
+        // Los contadores cuentan todos los eventos; las listas, solo los primeros 500
+        long lines = export.linesRead;
+        assertEquals((lines + 1) / 2, result.getPaymentsRegistered());
+        assertEquals(lines / 2, result.getPlayersConfirmed());
+        assertEquals(0, result.getUnrecognizedMessagesCount());
+        assertEquals(500, result.getPaidPlayers().size());
+        assertEquals(500, result.getConfirmedPlayers().size());
+        // Cada lote junta entre EVENTS_PER_TRANSACTION y un bloque de líneas más
+        assertTrue(batches.get() >= lines / (2 * ChatParsingService.EVENTS_PER_TRANSACTION),
+                "los eventos se aplicaron en " + batches.get() + " lotes");
+    }
+
+    // Los mocks no guardan sus invocaciones: con cientos de lotes retendrían todos los eventos
+    private static ChatParsingService newService(AtomicInteger batches) {
+        PlayerService playerService = mock(PlayerService.class, withSettings().stubOnly());
+        when(playerService.resolveOrCreateActivePlayers(any(), anySet(), anyList())).thenAnswer(invocation -> {
+            Map<String, PlayerNameIndex.Entry> players = new LinkedHashMap<>();
+            for (String name : invocation.<Collection<String>>getArgument(0)) {
+                players.put(name, PlayerNameIndex.Entry.of(new Player(name, 5, "MED")));
+            }
+            return players;
+        });
+        PaymentService paymentService = mock(PaymentService.class, withSettings().stubOnly());
+        when(paymentService.getDefaultPaymentAmount()).thenReturn(1500.0);
+        when(paymentService.registerPaymentsInBatch(anyList())).thenAnswer(invocation -> {
+            batches.incrementAndGet();
+            return invocation.getArgument(0);
+        });
+
+        return new ChatParsingService(mock(PlayerRepository.class), playerService, paymentService,
+                mock(PlayerNameIndex.class), mock(ChatImportWatermarkRepository.class),
+                mock(PlatformTransactionManager.class, withSettings().stubOnly()));
+    }
+
+    // Múltiplos de every (desplazados en offset) entre 0 y lines - 1
+    private static long countMultiples(long lines, int every, int offset) {
+        return lines > offset ? (lines - 1 - offset) / every + 1 : 0;
+    }
+
+    private static long retainedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Export de WhatsApp generado a medida que se lee, con la línea de cada índice que da lines.
+     * Cada SAMPLE_EVERY_CHARS caracteres mide el heap retenido después de un GC.
+     */
+    private static final class SyntheticExport extends Reader {
+
+        private final long size;
+        private final long baseline;
+        private final LongFunction<String> lines;
+        private final StringBuilder current = new StringBuilder();
+        private int position;
+        private long charsRead;
+        private long linesRead;
+        private long nextSample = SAMPLE_EVERY_CHARS;
+        private int samples;
+        private long maxRetainedGrowth;
+
+        SyntheticExport(long size, long baseline, LongFunction<String> lines) {
+            this.size = size;
+            this.baseline = baseline;
+            this.lines = lines;
+        }
+
+        // Casi todo es charla sin palabras clave (mensajes no reconocidos), con algún pago y alguna confirmación
+        static String line(long index) {
+            if (index % PAYMENT_EVERY == 0) {
+                return "[20:01, 12/03/2024] Flavio: pago";
+            }
+            if (index % CONFIRMATION_EVERY == CONFIRMATION_EVERY / 2) {
+                return "[20:02, 12/03/2024] Juan: me anoto";
+            }
+            return "[" + (index / 60 % 24) + ":" + String.format("%02d", index % 60) + ", 12/03/2024] Hincha "
+                    + index % 97 + ": mensaje " + index + " sobre el partido del sábado, quién trae la pelota?";
+        }
+
+        // Pagos y confirmaciones alternados, de 97 jugadores, cada uno con su minuto
+        static String eventLine(long index) {
+            String prefix = "[" + (index / 60 % 24) + ":" + String.format("%02d", index % 60) + ", "
+                    + (index / 1440 % 28 + 1) + "/03/2024] Jugador " + index % 97 + ": ";
+            return prefix + (index % 2 == 0 ? "pago" : "me anoto");
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position == current.length()) {
+                if (charsRead >= size) return -1;
+                current.setLength(0);
+                current.append(lines.apply(linesRead++)).append('\n');
+                position = 0;
+            }
+            int count = Math.min(length, current.length() - position);
+            current.getChars(position, position + count, buffer, offset);
+            position += count;
+            charsRead += count;
+            if (charsRead >= nextSample) {
+                nextSample += SAMPLE_EVERY_CHARS;
+                samples++;
+                maxRetainedGrowth = Math.max(maxRetainedGrowth, retainedHeap() - baseline);
+            }
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
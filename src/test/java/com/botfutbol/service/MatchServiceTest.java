@@ -0,0 +1,100 @@
+package com.botfutbol.service;
+
+import com.botfutbol.config.SqlStatementCounter;
+import com.botfutbol.dto.LedgerVerificationDTO;
+import com.botfutbol.dto.PaymentDTO;
+import com.botfutbol.dto.PlayerDTO;
+import com.botfutbol.entity.Player;
+import com.botfutbol.entity.Team;
+import com.botfutbol.repository.PlayerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Inicio de partido contra la base H2 del perfil de tests: el plantel se carga con una sola
+ * sentencia y el saldo pendiente queda calculado con la deuda nueva.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class MatchServiceTest {
+
+    @Autowired
+    private MatchService matchService;
+
+    @Autowired
+    private PlayerService playerService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Test
+    void startMatchRoundTripsDoNotGrowWithTheRoster() {
+        long small = startMatchRoundTrips(roster("Plantel Chico", 2));
+        long large = startMatchRoundTrips(roster("Plantel Grande", 20));
+
+        assertTrue(small > 0);
+        assertEquals(small, large);
+        assertLedgerMatchesPlayers();
+    }
+
+    @Test
+    void startMatchChargesOutstandingOnTopOfPreviousPayments() {
+        Player ana = playerService.addPlayer(new PlayerDTO("Partido Ana", 5, "MED"));
+        Player beto = playerService.addPlayer(new PlayerDTO("Partido Beto", 5, "DEF"));
+        paymentService.addDebtToPlayer(ana.getId(), 500.0);
+        paymentService.registerPayment(new PaymentDTO("Partido Ana", 200.0));
+        paymentService.registerPayment(new PaymentDTO("Partido Beto", 1000.0));
+
+        matchService.startMatch(team("A", ana), team("B", beto), 300.0);
+
+        Player storedAna = playerRepository.findById(ana.getId()).orElseThrow();
+        assertEquals(800.0, storedAna.getTotalDebt(), 0.001);
+        assertEquals(600.0, storedAna.getOutstanding(), 0.001);
+        assertEquals(1, storedAna.getGamesPlayed());
+        Player storedBeto = playerRepository.findById(beto.getId()).orElseThrow();
+        assertEquals(300.0, storedBeto.getTotalDebt(), 0.001);
+        assertEquals(-700.0, storedBeto.getOutstanding(), 0.001);
+        assertLedgerMatchesPlayers();
+    }
+
+    private long startMatchRoundTrips(List<Player> players) {
+        Team teamA = new Team("A", "Equipo A");
+        Team teamB = new Team("B", "Equipo B");
+        for (int i = 0; i < players.size(); i++) {
+            (i % 2 == 0 ? teamA : teamB).addPlayer(players.get(i));
+        }
+        long before = SqlStatementCounter.count();
+        matchService.startMatch(teamA, teamB, 250.0);
+        return SqlStatementCounter.count() - before;
+    }
+
+    private List<Player> roster(String prefix, int size) {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            players.add(playerService.addPlayer(new PlayerDTO(prefix + " " + (char) ('A' + i), 5, "MED")));
+        }
+        return players;
+    }
+
+    private static Team team(String id, Player player) {
+        Team team = new Team(id, "Equipo " + id);
+        team.addPlayer(player);
+        return team;
+    }
+
+    private void assertLedgerMatchesPlayers() {
+        LedgerVerificationDTO verification = paymentService.verifyLedger(false);
+        assertTrue(verification.getDrifts().isEmpty(), () -> "saldos desfasados: " + verification.getDrifts());
+    }
+}
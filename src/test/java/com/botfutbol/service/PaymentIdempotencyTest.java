@@ -0,0 +1,134 @@
+package com.botfutbol.service;
+
+import com.botfutbol.dto.LedgerVerificationDTO;
+import com.botfutbol.dto.PaymentDTO;
+import com.botfutbol.dto.PlayerDTO;
+import com.botfutbol.entity.Payment;
+import com.botfutbol.entity.Player;
+import com.botfutbol.repository.PaymentRepository;
+import com.botfutbol.repository.PlayerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pagos con clave de idempotencia contra la base H2 del perfil de tests: reenviar la clave,
+ * reenviarla después de cerrar la temporada y enviarla varias veces a la vez registra un solo pago.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class PaymentIdempotencyTest {
+
+    private static final int CONCURRENT_REQUESTS = 8;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PlayerService playerService;
+
+    @Autowired
+    private SeasonService seasonService;
+
+    @Autowired
+    private PaymentIdempotencyCache idempotencyCache;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Test
+    void replayingTheKeyReturnsTheOriginalPayment() {
+        Player player = playerService.addPlayer(new PlayerDTO("Clave Repetida", 5, "MED"));
+
+        Payment first = paymentService.registerPayment(new PaymentDTO("Clave Repetida", 700.0), "pago-repetido");
+        Payment replay = paymentService.registerPayment(new PaymentDTO("Clave Repetida", 700.0), " pago-repetido ");
+        // Sin la caché en memoria la clave se encuentra en la base
+        idempotencyCache.clear();
+        Payment replayFromDatabase = paymentService.registerPayment(new PaymentDTO("Clave Repetida", 900.0), "pago-repetido");
+
+        assertEquals(first.getId(), replay.getId());
+        assertEquals(first.getId(), replayFromDatabase.getId());
+        assertEquals(700.0, replayFromDatabase.getAmount(), 0.001);
+        assertEquals(1, paymentRepository.findByPlayerId(player.getId()).size());
+        assertEquals(700.0, totalPaid(player), 0.001);
+        assertLedgerMatchesPlayers();
+    }
+
+    @Test
+    void keyArchivedBySeasonCloseIsStillRecognized() {
+        Player player = playerService.addPlayer(new PlayerDTO("Clave Archivada", 5, "MED"));
+        Payment first = paymentService.registerPayment(new PaymentDTO("Clave Archivada", 400.0), "pago-archivado");
+
+        seasonService.closeSeason(null, true);
+        idempotencyCache.clear();
+        assertEquals(0, paymentRepository.findByPlayerId(player.getId()).size());
+
+        Payment replay = paymentService.registerPayment(new PaymentDTO("Clave Archivada", 400.0), "pago-archivado");
+
+        assertEquals(first.getId(), replay.getId());
+        assertEquals(0, paymentRepository.findByPlayerId(player.getId()).size());
+        assertEquals(400.0, totalPaid(player), 0.001);
+        assertLedgerMatchesPlayers();
+    }
+
+    @Test
+    void concurrentRequestsWithTheSameKeyRegisterOnePayment() throws Exception {
+        Player player = playerService.addPlayer(new PlayerDTO("Clave Concurrente", 5, "MED"));
+        PaymentDTO dto = new PaymentDTO("Clave Concurrente", 1500.0);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+        List<Future<Payment>> requests = new ArrayList<>();
+        try {
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                requests.add(executor.submit(() -> {
+                    start.await();
+                    return registerLikeTheController(dto, "pago-concurrente");
+                }));
+            }
+            start.countDown();
+            String paymentId = requests.get(0).get().getId();
+            for (Future<Payment> request : requests) {
+                assertEquals(paymentId, request.get().getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, paymentRepository.findByPlayerId(player.getId()).size());
+        assertEquals(1500.0, totalPaid(player), 0.001);
+        assertLedgerMatchesPlayers();
+    }
+
+    // Lo que hace BotController: quien choca con la restricción única devuelve el pago del otro pedido
+    private Payment registerLikeTheController(PaymentDTO dto, String idempotencyKey) {
+        try {
+            return paymentService.registerPayment(dto, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            return paymentService.findPaymentByIdempotencyKey(idempotencyKey).orElseThrow(() -> e);
+        }
+    }
+
+    private double totalPaid(Player player) {
+        return playerRepository.findById(player.getId()).orElseThrow().getTotalPaid();
+    }
+
+    private void assertLedgerMatchesPlayers() {
+        LedgerVerificationDTO verification = paymentService.verifyLedger(false);
+        assertTrue(verification.getDrifts().isEmpty(), () -> "saldos desfasados: " + verification.getDrifts());
+    }
+}
@@ -0,0 +1,156 @@
+package com.botfutbol.service;
+
+import com.botfutbol.dto.LedgerVerificationDTO;
+import com.botfutbol.dto.PaymentDTO;
+import com.botfutbol.dto.PlayerDTO;
+import com.botfutbol.entity.LedgerEntry;
+import com.botfutbol.entity.Payment;
+import com.botfutbol.entity.Player;
+import com.botfutbol.entity.PlayerBalance;
+import com.botfutbol.entity.Team;
+import com.botfutbol.repository.MatchRepository;
+import com.botfutbol.repository.PaymentRepository;
+import com.botfutbol.repository.PlayerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * El total pagado y la deuda de Player coinciden con el libro de cuentas después de cada operación
+ * que mueve dinero, y el cierre de temporada no toca los saldos.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class PaymentLedgerConsistencyTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PlayerService playerService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private MatchService matchService;
+
+    @Autowired
+    private SeasonService seasonService;
+
+    @Autowired
+    private ChatParsingService chatParsingService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    @Test
+    void registerUpdateAndDeleteKeepTheLedgerInStep() {
+        Player ana = playerService.addPlayer(new PlayerDTO("Libro Ana", 5, "MED"));
+        paymentService.addDebtToPlayer(ana.getId(), 1000.0);
+        Payment first = paymentService.registerPayment(new PaymentDTO("Libro Ana", 300.0));
+        Payment second = paymentService.registerPayment(new PaymentDTO("Libro Ana", 200.0));
+        assertTotals(ana.getId(), 1000.0, 500.0);
+
+        paymentService.updatePayment(second.getId(), new PaymentDTO("Libro Ana", 450.0));
+        assertTotals(ana.getId(), 1000.0, 750.0);
+
+        paymentService.deletePayment(first.getId());
+        assertTotals(ana.getId(), 1000.0, 450.0);
+        assertLedgerMatchesPlayers();
+    }
+
+    @Test
+    void bulkAndChatPaymentsKeepTheLedgerInStep() {
+        Player ana = playerService.addPlayer(new PlayerDTO("Lista Ana", 5, "MED"));
+        Player beto = playerService.addPlayer(new PlayerDTO("Lista Beto", 5, "DEF"));
+        List<PaymentDTO> payments = List.of(new PaymentDTO("Lista Ana", 100.0),
+                new PaymentDTO("Lista Beto", 250.0), new PaymentDTO("Lista Ana", 50.0));
+
+        paymentService.registerPayments(payments, "lista-libro");
+        assertTotals(ana.getId(), 0.0, 150.0);
+        assertTotals(beto.getId(), 0.0, 250.0);
+
+        // Reenviar la lista no mueve nada
+        paymentService.registerPayments(payments, "lista-libro");
+        assertTotals(ana.getId(), 0.0, 150.0);
+
+        chatParsingService.processChatText("[20:05, 13/03/2024] Tesorero: Lista Beto pagó 1.000\n"
+                + "[20:06, 13/03/2024] Tesorero: Lista Ana pagó 400");
+        assertTotals(ana.getId(), 0.0, 550.0);
+        assertTotals(beto.getId(), 0.0, 1250.0);
+        assertLedgerMatchesPlayers();
+    }
+
+    @Test
+    void resetPaymentsReversesTotalPaidAndLedger() {
+        Player ana = playerService.addPlayer(new PlayerDTO("Reset Ana", 5, "MED"));
+        Player beto = playerService.addPlayer(new PlayerDTO("Reset Beto", 5, "DEF"));
+        paymentService.addDebtToPlayer(ana.getId(), 500.0);
+        paymentService.registerPayment(new PaymentDTO("Reset Ana", 100.0));
+        paymentService.registerPayment(new PaymentDTO("Reset Ana", 250.0));
+        paymentService.registerPayment(new PaymentDTO("Reset Beto", 400.0));
+
+        assertTrue(paymentService.deleteAllPayments() >= 3);
+
+        assertEquals(0, paymentRepository.count());
+        assertTotals(ana.getId(), 500.0, 0.0);
+        assertTotals(beto.getId(), 0.0, 0.0);
+        assertLedgerMatchesPlayers();
+    }
+
+    @Test
+    void seasonCloseKeepsMoneyAndEndsMatchOnlyWithForce() {
+        Player ana = playerService.addPlayer(new PlayerDTO("Temporada Ana", 5, "MED"));
+        Player beto = playerService.addPlayer(new PlayerDTO("Temporada Beto", 5, "DEF"));
+        paymentService.addDebtToPlayer(ana.getId(), 300.0);
+        paymentService.registerPayment(new PaymentDTO("Temporada Ana", 100.0));
+        Team teamA = new Team("A", "Equipo A");
+        teamA.addPlayer(ana);
+        Team teamB = new Team("B", "Equipo B");
+        teamB.addPlayer(beto);
+        matchService.startMatch(teamA, teamB, 200.0);
+        playerService.recordGoal(ana.getId());
+
+        assertThrows(IllegalStateException.class, () -> seasonService.closeSeason(null, false));
+        seasonService.closeSeason(null, true);
+
+        assertEquals(0, matchRepository.countByActiveTrue());
+        Player stored = playerRepository.findById(ana.getId()).orElseThrow();
+        assertEquals(0, stored.getGamesPlayed());
+        assertEquals(0, stored.getGoalsScored());
+        // Deuda y pagos pasan a la temporada siguiente
+        assertTotals(ana.getId(), 500.0, 100.0);
+        assertTotals(beto.getId(), 200.0, 0.0);
+        assertLedgerMatchesPlayers();
+    }
+
+    private void assertTotals(String playerId, double totalDebt, double totalPaid) {
+        Player player = playerRepository.findById(playerId).orElseThrow();
+        assertEquals(totalDebt, player.getTotalDebt(), 0.001);
+        assertEquals(totalPaid, player.getTotalPaid(), 0.001);
+        assertEquals(totalDebt - totalPaid, player.getOutstanding(), 0.001);
+        long creditMinor = ledgerService.getBalance(playerId).map(PlayerBalance::getCreditMinor).orElse(0L);
+        long debitMinor = ledgerService.getBalance(playerId).map(PlayerBalance::getDebitMinor).orElse(0L);
+        assertEquals(LedgerEntry.toMinor(totalPaid), creditMinor);
+        assertEquals(LedgerEntry.toMinor(totalDebt), debitMinor);
+    }
+
+    private void assertLedgerMatchesPlayers() {
+        LedgerVerificationDTO verification = paymentService.verifyLedger(false);
+        assertTrue(verification.getDrifts().isEmpty(), () -> "saldos desfasados: " + verification.getDrifts());
+    }
+}
@@ -0,0 +1,91 @@
+package com.botfutbol.service;
+
+import com.botfutbol.dto.LedgerVerificationDTO;
+import com.botfutbol.dto.PlayerDTO;
+import com.botfutbol.entity.Player;
+import com.botfutbol.repository.PlayerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Contadores de jugadores actualizados en paralelo: los UPDATE atómicos de PlayerRepository
+ * no pierden incrementos (antes findById, sumar y save pisaba los de otras transacciones).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class PlayerCounterConcurrencyTest {
+
+    private static final int UPDATES = 1_000;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private PlayerService playerService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Test
+    void parallelGoalsAreAllCounted() throws Exception {
+        Player player = playerService.addPlayer(new PlayerDTO("Goleador Concurrente", 5, "DEL"));
+
+        runInParallel(() -> playerService.recordGoal(player.getId()));
+
+        assertEquals(UPDATES, playerRepository.findById(player.getId()).orElseThrow().getGoalsScored());
+        assertEquals(UPDATES, playerService.findPlayerByName("Goleador Concurrente").orElseThrow().getGoalsScored());
+    }
+
+    @Test
+    void parallelDebtAndGamesAreAllCounted() throws Exception {
+        Player player = playerService.addPlayer(new PlayerDTO("Deudor Concurrente", 5, "MED"));
+
+        runInParallel(() -> {
+            playerService.incrementGamesPlayed(player.getId());
+            paymentService.addDebtToPlayer(player.getId(), 10.0);
+        });
+
+        Player stored = playerRepository.findById(player.getId()).orElseThrow();
+        assertEquals(UPDATES, stored.getGamesPlayed());
+        assertEquals(UPDATES * 10.0, stored.getTotalDebt(), 0.001);
+        assertEquals(UPDATES * 10.0, stored.getOutstanding(), 0.001);
+        LedgerVerificationDTO verification = paymentService.verifyLedger(false);
+        assertTrue(verification.getDrifts().isEmpty(), () -> "saldos desfasados: " + verification.getDrifts());
+    }
+
+    // Ejecuta UPDATES veces la acción desde THREADS hilos que arrancan a la vez
+    private static void runInParallel(Runnable action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(UPDATES);
+            for (int i = 0; i < UPDATES; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    action.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.botfutbol.service;
+
+import com.botfutbol.entity.Player;
+import com.botfutbol.repository.PlayerRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Búsqueda aproximada de PlayerNameIndex con la similitud mínima por defecto:
+ * encuentra variantes y errores de tipeo, pero no junta nombres distintos que se parecen.
+ * También los nombres compartidos por varios jugadores, que no se resuelven desde el índice.
+ */
+class PlayerNameIndexTest {
+
+    // El valor de bot.players.fuzzy-match.min-similarity en application.properties
+    private static final double MIN_SIMILARITY = 0.6;
+
+    private final PlayerNameIndex index = new PlayerNameIndex(mock(PlayerRepository.class), MIN_SIMILARITY);
+
+    @Test
+    void variantsSharingAWordFindThePlayer() {
+        Player flavio = add("Flavio");
+        Player gomez = add("Flavio Gómez");
+        Player juana = add("Juana");
+
+        assertEquals(flavio.getId(), similarId("flavio g"));
+        assertEquals(gomez.getId(), similarId("Flavio Gomes"));
+        assertEquals(gomez.getId(), similarId("FLAVIO GÓMES"));
+        assertEquals(juana.getId(), similarId("Juana M"));
+    }
+
+    @Test
+    void nearMissNamesAreNotMerged() {
+        add("Juana");
+        add("María");
+        add("Anna");
+        add("Pedra");
+        add("Martina");
+        add("Flavio");
+
+        assertNoMatch("Juan");
+        assertNoMatch("Mario");
+        assertNoMatch("Ana");
+        assertNoMatch("Pedro");
+        assertNoMatch("Martin");
+        // Un nombre cortado se parece a otro igual que Martin a Martina: no se adivina
+        assertNoMatch("Flavi");
+    }
+
+    @Test
+    void sharedWordAloneIsNotEnough() {
+        add("Juan");
+        add("Juan Pablo");
+
+        assertNoMatch("Juana");
+        assertNoMatch("Juan Cruz");
+        assertNoMatch("Pablo");
+    }
+
+    @Test
+    void sharedNameIsAmbiguousUntilOneOfThePlayersIsRemoved() {
+        Player accented = add("José Pérez");
+        Player plain = add("Jose Perez");
+        assertTrue(index.find("jose perez").isEmpty());
+
+        index.remove(accented.getId());
+        assertEquals(plain.getId(), index.find("José Pérez").orElseThrow().getId());
+
+        // Otro jugador con el mismo nombre lo vuelve ambiguo
+        add("JOSE PEREZ");
+        assertTrue(index.find("Jose Perez").isEmpty());
+    }
+
+    @Test
+    void renamingOneOfTwoPlayersResolvesBothNames() {
+        Player first = add("Lucas");
+        Player second = add("lucas");
+        assertTrue(index.find("Lucas").isEmpty());
+
+        second.setName("Lucas Prieto");
+        index.put(second);
+
+        assertEquals(first.getId(), index.find("Lucas").orElseThrow().getId());
+        assertEquals(second.getId(), index.find("lucas prieto").orElseThrow().getId());
+    }
+
+    private Player add(String name) {
+        Player player = new Player(name, 5, "MED");
+        index.put(player);
+        return player;
+    }
+
+    private String similarId(String name) {
+        Optional<PlayerNameIndex.Entry> entry = index.findSimilarActive(name);
+        assertTrue(entry.isPresent(), () -> name + " no encontró a ningún jugador");
+        return entry.get().getId();
+    }
+
+    private void assertNoMatch(String name) {
+        Optional<PlayerNameIndex.Entry> entry = index.findSimilarActive(name);
+        assertTrue(entry.isEmpty(), () -> name + " se juntó con " + entry.get().getName());
+    }
+}